@@ -1,5 +1,7 @@
 package com.example.demo.auth;
 
+import com.example.demo.security.LoginThrottle;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -16,6 +18,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthenticationService authenticationService;
+    private final LoginThrottle loginThrottle;
 
     @PostMapping("/register")
     public ResponseEntity<AuthenticationResponseDTO> register(@Valid @RequestBody RegisterRequestDTO request){
@@ -23,9 +26,27 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthenticationResponseDTO> login(@Valid @RequestBody LoginRequestDTO request){
+    public ResponseEntity<AuthenticationResponseDTO> login(@Valid @RequestBody LoginRequestDTO request ,
+                                                           HttpServletRequest httpRequest){
+        // Ahead of the service, so a throttled attempt never opens a transaction or reaches BCrypt.
+        loginThrottle.acquire ( request.email () , httpRequest.getRemoteAddr () );
         return ResponseEntity.ok( authenticationService.login (request));
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody(required = false) LogoutRequestDTO request ,
+                                       HttpServletRequest httpRequest){
+        String authHeader = httpRequest.getHeader ( "Authorization" );
+        String accessToken = authHeader != null && authHeader.startsWith ( "Bearer " ) ? authHeader.substring ( 7 ) : null;
+
+        authenticationService.logout ( accessToken , request );
+        return ResponseEntity.noContent ().build ();
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthenticationResponseDTO> refresh(@Valid @RequestBody RefreshTokenRequestDTO request){
+        return ResponseEntity.ok( authenticationService.refresh (request));
+    }
+
 
 }
@@ -5,14 +5,21 @@ import com.example.demo.exception.types.DuplicateResourceException;
 import com.example.demo.exception.types.InActiveException;
 import com.example.demo.exception.types.NotFoundException;
 import com.example.demo.security.JwtService;
+import com.example.demo.security.JwtUserPrincipal;
+import com.example.demo.security.RefreshTokenService;
+import com.example.demo.user.LastLoginRecorder;
 import com.example.demo.user.User;
+import com.example.demo.user.UserChangedEvent;
 import com.example.demo.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+
 @Service
 @RequiredArgsConstructor
 
@@ -22,6 +29,9 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LastLoginRecorder lastLoginRecorder;
+    private final RefreshTokenService refreshTokenService;
 
 
     @Transactional
@@ -48,6 +58,7 @@ public class AuthenticationService {
         toSave.setActive ( true );
 
         User savedUser = userRepository.save(toSave);
+        eventPublisher.publishEvent ( new UserChangedEvent ( savedUser ) );
 
         UserResponseDTO response = new UserResponseDTO (
                 savedUser.getId () ,
@@ -74,7 +85,9 @@ public class AuthenticationService {
 
     }
 
-    @Transactional
+    // Deliberately not @Transactional: authenticate() can wait seconds for a slot on the hashing pool,
+    // and must not hold a pooled connection meanwhile. The lookup below runs in the repository's own
+    // read-only transaction; a rehash on login commits in CustomUserDetailsService.updatePassword.
     public  AuthenticationResponseDTO login (LoginRequestDTO dto) {
         authenticationManager.authenticate (
                 new org.springframework.security.authentication.UsernamePasswordAuthenticationToken (
@@ -92,8 +105,58 @@ public class AuthenticationService {
                     "User with email " + dto.email () + " is inactive. Please contact support." );
         }
 
-        user.updateLastLogin ();
-        userRepository.save ( user );
+        // Buffered rather than set on the entity, so a login never writes the users row itself.
+        lastLoginRecorder.record ( user.getId () , LocalDateTime.now () );
+
+        String jwtToken = jwtService.generateToken ( user );
+        String refreshToken = jwtService.generateRefreshToken ( user );
+
+        UserResponseDTO response = new UserResponseDTO (
+                user.getId () ,
+                user.getUserName () ,
+                user.getEmail () ,
+                user.getFirstName () ,
+                user.getLastName () ,
+                user.getRole () ,
+                user.isActive () ,
+                user.getCreatedAt ()
+        );
+
+        return new AuthenticationResponseDTO (
+                jwtToken ,
+                "Bearer" ,
+                refreshToken ,
+                response
+        );
+    }
+
+    // Revokes the presented access token and, if given, the refresh token, so neither is accepted again.
+    @Transactional
+    public void logout (String accessToken , LogoutRequestDTO dto) {
+
+        if (accessToken != null) {
+            refreshTokenService.revoke ( accessToken );
+        }
+
+        if (dto != null && dto.refreshToken () != null && !dto.refreshToken ().isBlank ()) {
+            refreshTokenService.revoke ( dto.refreshToken () );
+        }
+    }
+
+    // Exchanges a refresh token for a new pair without touching the password encoder.
+    @Transactional
+    public AuthenticationResponseDTO refresh (RefreshTokenRequestDTO dto) {
+
+        JwtUserPrincipal principal = refreshTokenService.consume ( dto.refreshToken () );
+
+        User user = userRepository.findById ( principal.id () )
+                .orElseThrow ( () -> new NotFoundException ( ErrorCode.USER_NOT_FOUND.toString () ,
+                        "User with id " + principal.id () + " not found") );
+
+        if(! user.isActive ()){
+            throw new InActiveException ( ErrorCode.INACTIVE_USER.toString () ,
+                    "User with email " + user.getEmail () + " is inactive. Please contact support." );
+        }
 
         String jwtToken = jwtService.generateToken ( user );
         String refreshToken = jwtService.generateRefreshToken ( user );
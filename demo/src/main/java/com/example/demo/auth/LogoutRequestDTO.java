@@ -0,0 +1,7 @@
+package com.example.demo.auth;
+
+// The refresh token is optional; the access token comes from the Authorization header.
+public record LogoutRequestDTO(
+        String refreshToken
+) {
+}
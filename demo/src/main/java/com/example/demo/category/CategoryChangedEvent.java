@@ -0,0 +1,7 @@
+package com.example.demo.category;
+
+/**
+ * Published whenever a category is created, updated or archived.
+ */
+public record CategoryChangedEvent(Long categoryId) {
+}
@@ -0,0 +1,81 @@
+package com.example.demo.category;
+
+import com.example.demo.course.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps category_course_counts in step with course writes. Callers report where a course was
+ * (category and status) before the change and where it is now; both must run in the transaction
+ * that writes the course.
+ * <p>
+ * Course rows written past CourseService (SQL fixes, restores, a category inserted by hand) would
+ * leave the counts wrong for good, so a scheduled job recounts them from the course table and
+ * reports any drift.
+ */
+@Slf4j
+@Component
+
+public class CategoryCourseCounter {
+
+    private final CategoryCourseCountsRepository countsRepository;
+    private final Counter driftedCategories;
+
+    public CategoryCourseCounter(CategoryCourseCountsRepository countsRepository , MeterRegistry meterRegistry) {
+        this.countsRepository = countsRepository;
+        this.driftedCategories = Counter.builder ( "category.course-counts.drift" )
+                .description ( "Categories whose course counts were corrected by reconciliation" )
+                .register ( meterRegistry );
+    }
+
+    public void courseCreated(Long categoryId , Status status) {
+        apply ( categoryId , status , 1 );
+    }
+
+    public void courseMoved(Long fromCategoryId , Status fromStatus , Long toCategoryId , Status toStatus) {
+        if (fromCategoryId.equals ( toCategoryId ) && fromStatus == toStatus) {
+            return;
+        }
+        // Lock the two category rows in id order, so two courses moving opposite ways can't deadlock.
+        if (fromCategoryId.compareTo ( toCategoryId ) <= 0) {
+            apply ( fromCategoryId , fromStatus , -1 );
+            apply ( toCategoryId , toStatus , 1 );
+        } else {
+            apply ( toCategoryId , toStatus , 1 );
+            apply ( fromCategoryId , fromStatus , -1 );
+        }
+    }
+
+    // A zero delta creates the row for a new category.
+    public void categoryCreated(Long categoryId) {
+        countsRepository.applyDelta ( categoryId , 0 , 0 , 0 );
+    }
+
+    // Categories are few, so one locked recount of them all is cheap. The lock makes a concurrent
+    // course write either commit before the recount or wait and land on top of it.
+    @Transactional
+    @Scheduled(initialDelayString = "${category.course-counts.reconcile.initial-delay:60000}",
+            fixedDelayString = "${category.course-counts.reconcile.interval:3600000}")
+    public void reconcile() {
+        countsRepository.lockAll ( );
+        int drifted = countsRepository.recountAll ( );
+
+        if (drifted > 0) {
+            driftedCategories.increment ( drifted );
+            log.warn ( "Course counts drifted for {} categories; recounted from the course table" , drifted );
+        }
+    }
+
+    private void apply(Long categoryId , Status status , long delta) {
+        countsRepository.applyDelta (
+                categoryId ,
+                status == Status.DRAFT ? delta : 0 ,
+                status == Status.PUBLISHED ? delta : 0 ,
+                status == Status.ARCHIVED ? delta : 0
+        );
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.category;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Written only through CategoryCourseCountsRepository's delta upserts.
+@Entity
+@Table(name = "category_course_counts")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+
+public class CategoryCourseCounts {
+
+    @Id
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "draft_courses", nullable = false)
+    private long draftCourses;
+
+    @Column(name = "published_courses", nullable = false)
+    private long publishedCourses;
+
+    @Column(name = "archived_courses", nullable = false)
+    private long archivedCourses;
+
+    @Column(name = "total_courses", insertable = false, updatable = false)
+    private long totalCourses;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
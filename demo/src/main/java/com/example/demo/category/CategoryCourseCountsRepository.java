@@ -0,0 +1,62 @@
+package com.example.demo.category;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+
+public interface CategoryCourseCountsRepository extends JpaRepository<CategoryCourseCounts, Long> {
+
+    // One atomic statement, so concurrent course writes in a category serialize on its row.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category_course_counts"))
+    @Query(value = "INSERT INTO category_course_counts AS n (category_id, draft_courses, published_courses, " +
+            "archived_courses, updated_at) VALUES (:categoryId, :draft, :published, :archived, now()) " +
+            "ON CONFLICT (category_id) DO UPDATE SET " +
+            "draft_courses = n.draft_courses + EXCLUDED.draft_courses, " +
+            "published_courses = n.published_courses + EXCLUDED.published_courses, " +
+            "archived_courses = n.archived_courses + EXCLUDED.archived_courses, " +
+            "updated_at = now()",
+            nativeQuery = true)
+    int applyDelta(@Param("categoryId") Long categoryId ,
+                   @Param("draft") long draft ,
+                   @Param("published") long published ,
+                   @Param("archived") long archived);
+
+    // Reconciliation: lock every row in the id order course writes use, then recount them all in one
+    // statement. Returns how many rows were missing or wrong.
+    @Query(value = "SELECT category_id FROM category_course_counts ORDER BY category_id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockAll();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category_course_counts"))
+    @Query(value = "INSERT INTO category_course_counts AS n (category_id, draft_courses, published_courses, " +
+            "archived_courses, updated_at) " +
+            "SELECT cat.id, count(c.id) FILTER (WHERE c.status = 'DRAFT'), " +
+            "count(c.id) FILTER (WHERE c.status = 'PUBLISHED'), " +
+            "count(c.id) FILTER (WHERE c.status = 'ARCHIVED'), now() " +
+            "FROM category cat LEFT JOIN course c ON c.category_id = cat.id GROUP BY cat.id " +
+            "ON CONFLICT (category_id) DO UPDATE SET " +
+            "draft_courses = EXCLUDED.draft_courses, " +
+            "published_courses = EXCLUDED.published_courses, " +
+            "archived_courses = EXCLUDED.archived_courses, " +
+            "updated_at = now() " +
+            "WHERE (n.draft_courses, n.published_courses, n.archived_courses) IS DISTINCT FROM " +
+            "(EXCLUDED.draft_courses, EXCLUDED.published_courses, EXCLUDED.archived_courses)",
+            nativeQuery = true)
+    int recountAll();
+
+    @Query(value = "SELECT total_courses FROM category_course_counts WHERE category_id = :categoryId",
+            nativeQuery = true)
+    Optional<Long> findTotalCourses(@Param("categoryId") Long categoryId);
+}
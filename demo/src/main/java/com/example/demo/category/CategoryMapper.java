@@ -8,7 +8,7 @@ import java.util.Objects;
 
 public class CategoryMapper {
 
-    public CategoryResponseDto toResponseDto(Category category) {
+    public CategoryResponseDto toResponseDto(Category category , CategoryResponseDto.CourseCounts courses) {
 
 
         return new CategoryResponseDto(
@@ -18,7 +18,18 @@ public class CategoryMapper {
                 category.getDescription () ,
                 category.getSlug () ,
                 category.isActive (),
-                category.getCreatedDate ()
+                category.getCreatedDate () ,
+                courses
+        );
+    }
+
+    static CategoryResponseDto.CourseCounts toCourseCounts(CategoryCourseCounts counts) {
+
+        return new CategoryResponseDto.CourseCounts (
+                counts.getDraftCourses () ,
+                counts.getPublishedCourses () ,
+                counts.getArchivedCourses () ,
+                counts.getTotalCourses ()
         );
     }
 
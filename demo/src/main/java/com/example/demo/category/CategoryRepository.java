@@ -3,11 +3,10 @@ package com.example.demo.category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.NativeQuery;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDateTime;
+import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category,Long> {
 
@@ -16,29 +15,36 @@ public interface CategoryRepository extends JpaRepository<Category,Long> {
 
     boolean existsBySlugAndIdNot(String slug , Long id);
 
-    boolean existsByNameIgnoreCase(String name);
-
-    boolean existsByNameIgnoreCaseAndIdNot(String newName , Long id);
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM category WHERE lower(name) = lower(:name))",
+            nativeQuery = true)
+    boolean existsByNameIgnoreCase(@Param("name") String name);
 
-    @Query ("SELECT c FROM Category c WHERE c.isActive = true ORDER BY c.id ASC")
-    Page<Category> findByActiveOrderById(Pageable pageable);
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM category WHERE lower(name) = lower(:name) AND id <> :id)",
+            nativeQuery = true)
+    boolean existsByNameIgnoreCaseAndIdNot(@Param("name") String newName , @Param("id") Long id);
 
-    @Query ("SELECT c FROM Category c WHERE c.isActive = false ORDER BY c.id ASC")
-    Page <Category> findByIsActiveFalseOrderById(Pageable pageable);
+    // Listing rows with their course counts joined in, so a page is one statement plus its count.
+    String VIEW = "SELECT new com.example.demo.category.CategoryResponseDto(c.id, c.name, c.description, c.slug, " +
+            "c.isActive, c.createdDate, n.draftCourses, n.publishedCourses, n.archivedCourses) " +
+            "FROM Category c LEFT JOIN CategoryCourseCounts n ON n.categoryId = c.id ";
 
-    @Query ("SELECT COUNT(c) FROM Course c WHERE c.category.id = :categoryId")
-    int findCountOfCoursesInCategory(@Param("categoryId") Long categoryId);
+    @Query(value = VIEW, countQuery = "SELECT COUNT(c) FROM Category c")
+    Page<CategoryResponseDto> findAllViews(Pageable pageable);
 
+    @Query(value = VIEW + "WHERE c.isActive = true",
+            countQuery = "SELECT COUNT(c) FROM Category c WHERE c.isActive = true")
+    Page<CategoryResponseDto> findActiveViews(Pageable pageable);
 
-    @Query(value = """ 
-            select t1.*
-                        from category t1
-                        left join course t2
-                        on t1.id = t2.category_id
-                        where t2.id is null""",
+    @Query(value = VIEW + "WHERE c.isActive = false",
+            countQuery = "SELECT COUNT(c) FROM Category c WHERE c.isActive = false")
+    Page<CategoryResponseDto> findInactiveViews(Pageable pageable);
 
-            nativeQuery = true)
+    @Query(VIEW + "WHERE c.id = :id")
+    Optional<CategoryResponseDto> findViewById(@Param("id") Long id);
 
-    Page <Category> findCategoriesWithNoCourses(Pageable pageable);
+    // Both the rows and the count come off the partial index on category_course_counts.
+    @Query(value = VIEW + "WHERE n.totalCourses = 0",
+            countQuery = "SELECT COUNT(n) FROM CategoryCourseCounts n WHERE n.totalCourses = 0")
+    Page<CategoryResponseDto> findCategoriesWithNoCourses(Pageable pageable);
 }
 
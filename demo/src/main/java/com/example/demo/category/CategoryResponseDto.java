@@ -9,8 +9,28 @@ public record CategoryResponseDto
                 String description ,
                 String slug ,
                 Boolean isActive ,
-                LocalDateTime createdDate
+                LocalDateTime createdDate ,
+                CourseCounts courses
 
         ) {
 
+    // Used by the CategoryRepository listing queries, which join the counters in the same statement.
+    public CategoryResponseDto(Long id , String name , String description , String slug , Boolean isActive ,
+                               LocalDateTime createdDate , Long draft , Long published , Long archived) {
+        this ( id , name , description , slug , isActive , createdDate , new CourseCounts ( draft , published , archived ) );
+    }
+
+    public record CourseCounts(long draft , long published , long archived , long total) {
+
+        public static final CourseCounts NONE = new CourseCounts ( 0 , 0 , 0 , 0 );
+
+        CourseCounts(Long draft , Long published , Long archived) {
+            this ( orZero ( draft ) , orZero ( published ) , orZero ( archived ) ,
+                    orZero ( draft ) + orZero ( published ) + orZero ( archived ) );
+        }
+
+        private static long orZero(Long count) {
+            return count == null ? 0 : count;
+        }
+    }
 }
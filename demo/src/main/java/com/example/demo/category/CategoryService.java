@@ -7,6 +7,7 @@ import com.example.demo.course.Status;
 import com.example.demo.exception.types.InvalidOperationException;
 import com.example.demo.course.CourseRepository;
 import jakarta.validation.Valid;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -23,11 +24,19 @@ public class CategoryService {
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
     private  final CourseRepository courseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategoryCourseCountsRepository countsRepository;
+    private final CategoryCourseCounter categoryCourseCounter;
 
-    public CategoryService(CategoryRepository categoryRepository , CategoryMapper categoryMapper , CourseRepository courseRepository) {
+    public CategoryService(CategoryRepository categoryRepository , CategoryMapper categoryMapper , CourseRepository courseRepository ,
+                           ApplicationEventPublisher eventPublisher , CategoryCourseCountsRepository countsRepository ,
+                           CategoryCourseCounter categoryCourseCounter) {
         this.categoryRepository = categoryRepository;
         this.categoryMapper = categoryMapper;
         this.courseRepository = courseRepository;
+        this.eventPublisher = eventPublisher;
+        this.countsRepository = countsRepository;
+        this.categoryCourseCounter = categoryCourseCounter;
     }
 
     private String generateSlug(String name) {
@@ -45,30 +54,24 @@ public class CategoryService {
     @Transactional (readOnly = true)
     public Page <CategoryResponseDto > getCategories(Pageable pageable)
     {
-        return categoryRepository.findAll ( pageable )
-                .map ( categoryMapper::toResponseDto )
-                ;
+        return categoryRepository.findAllViews ( pageable );
     }
 
     @Transactional (readOnly = true)
     public Page <CategoryResponseDto > getActiveCategories(Pageable pageable)
     {
-        return categoryRepository.findByActiveOrderById ( pageable )
-                .map ( categoryMapper::toResponseDto )
-                ;
+        return categoryRepository.findActiveViews ( pageable );
     }
 
     @Transactional (readOnly = true)
     public Page<CategoryResponseDto> getInActiveCategories(Pageable pageable) {
 
-        return categoryRepository.findByIsActiveFalseOrderById(pageable)
-                .map(categoryMapper::toResponseDto);
+        return categoryRepository.findInactiveViews(pageable);
     }
 
     @Transactional (readOnly = true)
     public Page<CategoryResponseDto> findCategoriesWithNoCourses(Pageable pageable) {
-        return categoryRepository.findCategoriesWithNoCourses(pageable)
-                .map(categoryMapper::toResponseDto);
+        return categoryRepository.findCategoriesWithNoCourses(pageable);
     }
 
     @Transactional (readOnly = true)
@@ -76,13 +79,12 @@ public class CategoryService {
 
         Objects.requireNonNull ( id , "Category id is required" );
 
-        if (!categoryRepository.existsById ( id ))
-            throw new NotFoundException (
-                    ErrorCode.CATEGORY_NOT_FOUND.toString ( ) ,
-                    "Category with id " + id + " not found"
-            );
-
-        return categoryRepository.findCountOfCoursesInCategory ( id );
+        return countsRepository.findTotalCourses ( id )
+                .map ( Long::intValue )
+                .orElseThrow ( () -> new NotFoundException (
+                        ErrorCode.CATEGORY_NOT_FOUND.toString ( ) ,
+                        "Category with id " + id + " not found"
+                ) );
 
     }
 
@@ -90,8 +92,7 @@ public class CategoryService {
     public CategoryResponseDto getCategoryById(Long id)
     {
         Objects.requireNonNull(id, "id is required");
-        return categoryRepository.findById(id)
-                .map ( categoryMapper::toResponseDto )
+        return categoryRepository.findViewById(id)
                 .orElseThrow (  () ->
                 new NotFoundException ( ErrorCode.CATEGORY_NOT_FOUND.toString () ,
                         "Category with id " + id + " not found") );
@@ -122,8 +123,11 @@ public class CategoryService {
                     "Category with slug " + category.getSlug ( ) + " already exists" );
         }
 
-        Category savedCategory = categoryRepository.save ( category );
-        return categoryMapper.toResponseDto ( savedCategory );
+        // Flushed first: the counter row references the category.
+        Category savedCategory = categoryRepository.saveAndFlush ( category );
+        categoryCourseCounter.categoryCreated ( savedCategory.getId ( ) );
+        eventPublisher.publishEvent ( new CategoryChangedEvent ( savedCategory.getId ( ) ) );
+        return categoryMapper.toResponseDto ( savedCategory , CategoryResponseDto.CourseCounts.NONE );
     }
 
     @Transactional
@@ -177,7 +181,10 @@ public class CategoryService {
         }
 
         Category updatedCategory = categoryRepository.save ( categoryToUpdate );
-        return categoryMapper.toResponseDto ( updatedCategory );
+        eventPublisher.publishEvent ( new CategoryChangedEvent ( updatedCategory.getId ( ) ) );
+        return categoryMapper.toResponseDto ( updatedCategory , countsRepository.findById ( id )
+                .map ( CategoryMapper::toCourseCounts )
+                .orElse ( CategoryResponseDto.CourseCounts.NONE ) );
     }
 
     @Transactional
@@ -200,6 +207,7 @@ public class CategoryService {
 
         category.setActive(false);
         categoryRepository.save(category);
+        eventPublisher.publishEvent ( new CategoryChangedEvent ( id ) );
     }
 
 
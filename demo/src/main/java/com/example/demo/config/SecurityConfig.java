@@ -2,9 +2,13 @@ package com.example.demo.config;
 
 import com.example.demo.security.CustomUserDetailsService;
 import com.example.demo.security.JwtAuthenticationFilter;
+import com.example.demo.security.OffloadedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -28,10 +32,40 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final CustomUserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${security.password.hashing.threads:4}")
+    private int hashingThreads;
+
+    @Value("${security.password.hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${security.password.hashing.timeout:5000}")
+    private long hashingTimeout;
+
+    @Value("${security.password.hashing.retry-after:2}")
+    private long hashingRetryAfter;
+
+    // Plain encoder, for callers that already run off the request thread.
+    @Bean
+    public BCryptPasswordEncoder bcryptPasswordEncoder() {
+        return new BCryptPasswordEncoder ( bcryptStrength );
+    }
 
     @Bean
+    @Primary
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder ( );
+        return new OffloadedPasswordEncoder (
+                bcryptPasswordEncoder ( ) ,
+                hashingThreads ,
+                hashingQueueCapacity ,
+                hashingTimeout ,
+                hashingRetryAfter ,
+                meterRegistry
+        );
     }
 
     @Bean
@@ -39,6 +73,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider ( );
         provider.setUserDetailsService ( userDetailsService );
         provider.setPasswordEncoder ( passwordEncoder ( ) );
+        provider.setUserDetailsPasswordService ( userDetailsService );
         return provider;
     }
 
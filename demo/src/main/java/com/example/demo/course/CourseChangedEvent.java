@@ -0,0 +1,7 @@
+package com.example.demo.course;
+
+/**
+ * Published whenever a course is created, updated or archived.
+ */
+public record CourseChangedEvent(Long courseId) {
+}
@@ -1,34 +1,40 @@
 package com.example.demo.course;
 
+import com.example.demo.enrollment.CourseEnrollmentStatsDto;
+import com.example.demo.enrollment.EnrollmentService;
+import com.example.demo.security.CurrentUser;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.math.BigDecimal;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/courses")
 public class CourseController {
 
     private final CourseService courseService;
+    private final EnrollmentService enrollmentService;
 
-    public CourseController(CourseService courseService) {
+    public CourseController(CourseService courseService, EnrollmentService enrollmentService) {
         this.courseService = courseService;
+        this.enrollmentService = enrollmentService;
     }
 
     @GetMapping
-    public ResponseEntity<Page<CourseResponseDto>> getAllCourses(
+    public ResponseEntity<Slice<CourseResponseDto>> getAllCourses(
             @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC)
-            Pageable pageable
+            Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean includeTotal
     ) {
-        return ResponseEntity.ok(courseService.getAllCourses(pageable));
+        return ResponseEntity.ok(courseService.getAllCourses(pageable, includeTotal));
     }
 
     @GetMapping("/{id}")
@@ -36,60 +42,126 @@ public class CourseController {
         return ResponseEntity.ok ( courseService.getCourseById ( id ) );
     }
 
+    /**
+     * Enrollment count, active learners, completion rate and average final grade, read from
+     * counters kept current on every enrollment write.
+     * - Only the course's instructor and admins can view
+     */
+    @GetMapping("/{id}/stats")
+    @PreAuthorize ("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<CourseEnrollmentStatsDto> getCourseStats(@PathVariable Long id ,
+                                                                   CurrentUser currentUser) {
+        return ResponseEntity.ok ( enrollmentService.getCourseStats ( id , currentUser ) );
+    }
+
     @GetMapping("/title/{title}")
     public ResponseEntity<CourseResponseDto> getCoursesByTitle(@PathVariable String title) {
         return ResponseEntity.ok ( courseService.getCourseByTitle ( title ) );
     }
 
+    // List endpoints return a slice (no count query) unless includeTotal=true asks for a full page.
+
+    /**
+     * One query for any combination of category, level, status, instructor, price range and
+     * title prefix, e.g. {@code ?status=PUBLISHED&level=BEGINNER&categoryId=3&maxPrice=50&sort=price}.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Slice<CourseResponseDto>> searchCourses(
+            @ModelAttribute CourseSearchCriteria criteria,
+            @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok ( courseService.searchCourses ( criteria , pageable , includeTotal ) );
+    }
+
+    /**
+     * Ranked keyword search over published courses, e.g. {@code ?q=java spr}. Terms match word
+     * prefixes in the title and descriptions; best matches come first.
+     */
+    @GetMapping("/search/text")
+    public ResponseEntity<Slice<CourseResponseDto>> searchCoursesByText(
+            @RequestParam("q") String text,
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok ( courseService.searchCoursesByText ( text , pageable , includeTotal ) );
+    }
+
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<CourseResponseDto>> getCoursesByCategory(@PathVariable String category) {
-        return ResponseEntity.ok ( courseService.getCoursesByCategory ( category ) );
+    public ResponseEntity<Slice<CourseResponseDto>> getCoursesByCategory(
+            @PathVariable String category,
+            @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok ( courseService.getCoursesByCategory ( category , pageable , includeTotal ) );
     }
 
     @GetMapping("/instructor/{instructor}")
-    public ResponseEntity<List<CourseResponseDto>> getCoursesByInstructor(@PathVariable String instructor) {
-        return ResponseEntity.ok ( courseService.getCoursesByInstructor ( instructor ) );
+    public ResponseEntity<Slice<CourseResponseDto>> getCoursesByInstructor(
+            @PathVariable String instructor,
+            @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok ( courseService.getCoursesByInstructor ( instructor , pageable , includeTotal ) );
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<CourseResponseDto>> getCoursesByStatus(@PathVariable String status) {
-        return ResponseEntity.ok ( courseService.getCoursesByStatus ( status ) );
+    public ResponseEntity<Slice<CourseResponseDto>> getCoursesByStatus(
+            @PathVariable String status,
+            @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok ( courseService.getCoursesByStatus ( status , pageable , includeTotal ) );
+    }
+
+    @GetMapping(value = "/status/{status}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCoursesByStatus(@PathVariable String status) {
+        return ResponseEntity.ok ( )
+                .contentType ( MediaType.APPLICATION_NDJSON )
+                .body ( courseService.streamCoursesByStatus ( status ) );
     }
 
     @GetMapping("/level/{level}")
-    public ResponseEntity<List<CourseResponseDto>> getCoursesByLevel(@PathVariable String level) {
-        return ResponseEntity.ok ( courseService.getCoursesByLevel ( level ) );
+    public ResponseEntity<Slice<CourseResponseDto>> getCoursesByLevel(
+            @PathVariable String level,
+            @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok ( courseService.getCoursesByLevel ( level , pageable , includeTotal ) );
     }
 
     @GetMapping("/free")
-    public ResponseEntity<List<CourseResponseDto>> getFreeCourses( ) {
-        return ResponseEntity.ok ( courseService.getFreeCourses (  ) );
+    public ResponseEntity<Slice<CourseResponseDto>> getFreeCourses(
+            @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok ( courseService.getFreeCourses ( pageable , includeTotal ) );
     }
 
     @GetMapping("/paid")
-    public ResponseEntity<List<CourseResponseDto>> getPaidCourses( ) {
-        return ResponseEntity.ok ( courseService.getPaidCourses (  ) );
+    public ResponseEntity<Slice<CourseResponseDto>> getPaidCourses(
+            @PageableDefault(size = 20, sort = {"price", "id"}, direction = Sort.Direction.ASC) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok ( courseService.getPaidCourses ( pageable , includeTotal ) );
     }
 
     @GetMapping("/price/{price}")
-    public ResponseEntity<List<CourseResponseDto>> getCoursesByPrice( @PathVariable BigDecimal price ) {
-        return ResponseEntity.ok ( courseService.getCoursesByPrice ( price ) );
+    public ResponseEntity<Slice<CourseResponseDto>> getCoursesByPrice(
+            @PathVariable BigDecimal price,
+            @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok ( courseService.getCoursesByPrice ( price , pageable , includeTotal ) );
     }
 
     @GetMapping("/price-range")
-    public ResponseEntity<List<CourseResponseDto>> findAllByCoursesWithinRange(
+    public ResponseEntity<Slice<CourseResponseDto>> findAllByCoursesWithinRange(
             @RequestParam BigDecimal from,
-            @RequestParam BigDecimal to) {
-        return ResponseEntity.ok(courseService.findAllByCoursesWithinRange(from, to));
+            @RequestParam BigDecimal to,
+            @PageableDefault(size = 20, sort = {"price", "id"}, direction = Sort.Direction.ASC) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(courseService.findAllByCoursesWithinRange(from, to, pageable, includeTotal));
     }
 
     @PostMapping
     @PreAuthorize ("hasAnyRole('ADMIN', 'INSTRUCTOR')")
 
     public ResponseEntity <CourseResponseDto> createCourse (@Valid @RequestBody CourseCreateDto dto ,
-                                                            Authentication authentication) {
+                                                            CurrentUser currentUser) {
 
-        return ResponseEntity.status ( HttpStatus.CREATED ).body ( courseService.createCourse (dto , authentication) );
+        return ResponseEntity.status ( HttpStatus.CREATED ).body ( courseService.createCourse (dto , currentUser) );
     }
 
     @PutMapping ("/{id}")
@@ -97,18 +169,18 @@ public class CourseController {
 
     public ResponseEntity <CourseResponseDto> updateCourse( @PathVariable Long id ,
                                                             @Valid @RequestBody CourseUpdateDto dto ,
-                                                            Authentication authentication) {
+                                                            CurrentUser currentUser) {
 
-        return ResponseEntity.ok ( courseService.updateCourse ( id , dto , authentication ) );
+        return ResponseEntity.ok ( courseService.updateCourse ( id , dto , currentUser ) );
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize ("hasAnyRole('ADMIN', 'INSTRUCTOR')")
 
     public ResponseEntity <Void> deleteCourse(@PathVariable Long id ,
-                                              Authentication authentication) {
+                                              CurrentUser currentUser) {
 
-        courseService.archiveCourse (id , authentication);
+        courseService.archiveCourse (id , currentUser);
         return ResponseEntity.noContent().build();
     }
 
@@ -1,88 +1,126 @@
 package com.example.demo.course;
 
 import com.example.demo.user.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 
-public interface CourseRepository extends JpaRepository<Course, Long> {
+public interface CourseRepository extends JpaRepository<Course, Long>, JpaSpecificationExecutor<Course> {
 
 
-    boolean existsByTitleIgnoreCase(String title);
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM course WHERE lower(title) = lower(:title))",
+            nativeQuery = true)
+    boolean existsByTitleIgnoreCase(@Param("title") String title);
 
     @EntityGraph(attributePaths = {"instructor","category"})
-    Optional<Course> findByTitleIgnoreCase(String title);
+    @Query("select c from Course c where lower(c.title) = lower(:title)")
+    Optional<Course> findByTitleIgnoreCase(@Param("title") String title);
 
+    // Serializes edits that must see a consistent set of rows for one course, e.g. module ranks.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Course c where c.id = :id")
+    Optional<Course> findByIdForUpdate(@Param("id") Long id);
 
-    @EntityGraph(attributePaths = {"instructor","category"})
-    @Query("select c from Course c where lower(c.category.name) = lower(:name)")
-    List<Course> findByCategoryNameIgnoreCase(@Param("name") String name);
 
+    // ---- Listings: slices skip the count query, the count* methods back the paged variant ----
+
+    Slice<Course> findAllBy(Pageable pageable);
 
     @EntityGraph(attributePaths = {"instructor","category"})
-    List<Course> findByInstructor(User instructor);
+    Slice<Course> findByInstructor(User instructor, Pageable pageable);
+
+    long countByInstructor(User instructor);
 
 
     @EntityGraph(attributePaths = {"instructor","category"})
-    List<Course> findAllByStatus(Status status);
+    Slice<Course> findAllByStatus(Status status, Pageable pageable);
 
+    long countByStatus(Status status);
 
-    @EntityGraph(attributePaths = {"instructor","category"})
-    List<Course> findByLevel(Level level);
 
+    // Reloads for the published catalog snapshot after a category or instructor change.
+    @EntityGraph(attributePaths = {"instructor","category"})
+    List<Course> findByCategoryIdAndStatus(Long categoryId, Status status);
 
     @EntityGraph(attributePaths = {"instructor","category"})
-    @Query("select c from Course c where c.price = 0 or c.price is null")
-    List<Course> findFreeCourses();
+    List<Course> findByInstructorIdAndStatus(Long instructorId, Status status);
 
 
+    // Read through a server-side cursor; callers must consume it inside a transaction.
     @EntityGraph(attributePaths = {"instructor","category"})
-    @Query("select c from Course c where c.price > 0")
-    List<Course> findPaidCourses();
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select c from Course c where c.status = :status order by c.id")
+    Stream<Course> streamAllByStatus(@Param("status") Status status);
 
 
-    @EntityGraph(attributePaths = {"instructor","category"})
-    List<Course> findByPrice(BigDecimal price);
+    // ---- Full-text search over the search_vector column (see V6 migration) ----
+
+    String TEXT_SEARCH_MATCH = "FROM course c " +
+            "WHERE c.status = 'PUBLISHED' " +
+            "AND (c.search_vector @@ to_tsquery('simple', :tsQuery) OR lower(c.title) % lower(:text)) ";
+
+    // Ids only, best match first; the page of courses is then loaded by id.
+    @Query(value = "SELECT c.id " + TEXT_SEARCH_MATCH +
+            "ORDER BY ts_rank_cd(c.search_vector, to_tsquery('simple', :tsQuery)) " +
+            "+ similarity(lower(c.title), lower(:text)) DESC, c.id " +
+            "LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<Long> searchPublishedIdsByText(@Param("tsQuery") String tsQuery , @Param("text") String text ,
+                                        @Param("limit") int limit , @Param("offset") long offset);
+
+    @Query(value = "SELECT count(*) " + TEXT_SEARCH_MATCH, nativeQuery = true)
+    long countPublishedByText(@Param("tsQuery") String tsQuery , @Param("text") String text);
 
     @EntityGraph(attributePaths = {"instructor","category"})
-    @Query("select c from Course c where c.price between :min and :max")
-    List<Course> findAllByCoursesBetween(@Param("min") BigDecimal min,
-                                         @Param("max") BigDecimal max);
+    List<Course> findByIdIn(Collection<Long> ids);
 
 
-    boolean existsByTitleIgnoreCaseAndIdNot(String title, Long id);
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM course WHERE lower(title) = lower(:title) AND id <> :id)",
+            nativeQuery = true)
+    boolean existsByTitleIgnoreCaseAndIdNot(@Param("title") String title, @Param("id") Long id);
 
     List<Course> findByCategoryId(Long categoryId);
 
-    @Query ("SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END " +
-            "FROM Course c, Enrollment e " +
-            "WHERE c.id = e.course.id " +
-            "AND c.instructor.email = :instructor_email " +
-            "AND e.user.email = :student_email"
+    @Query (value = "SELECT EXISTS (SELECT 1 FROM enrollment e " +
+            "JOIN course c ON c.id = e.course_id " +
+            "JOIN users instructor ON instructor.id = c.instructor_id " +
+            "JOIN users student ON student.id = e.user_id " +
+            "WHERE instructor.email = :instructor_email " +
+            "AND student.email = :student_email)",
+            nativeQuery = true
     )
     boolean existsByInstructorAndStudent (@Param ( "instructor_email" ) String instructorEmail ,
                                           @Param ( "student_email" ) String userEmail);
 
 
-    @Query("SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END " +
-                    "FROM Course c " +
-                    "WHERE c.instructor.id = :instructorId " +
-                    "AND c.status in ('PUBLISHED' , 'DRAFT')"
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM course " +
+                    "WHERE instructor_id = :instructorId " +
+                    "AND status IN ('PUBLISHED' , 'DRAFT'))",
+            nativeQuery = true
     )
-    boolean activeCoursesForTheInstructor(Long instructorId);
+    boolean activeCoursesForTheInstructor(@Param("instructorId") Long instructorId);
 
 
-  @Query("SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END " +
-            "FROM Course c " +
-            "WHERE c.category.id = :categoryId " +
-            "AND (c.status = 'PUBLISHED' OR c.status = 'DRAFT')")
+  @Query(value = "SELECT EXISTS (SELECT 1 FROM course " +
+            "WHERE category_id = :categoryId " +
+            "AND status IN ('PUBLISHED' , 'DRAFT'))",
+          nativeQuery = true)
 
     boolean hasActiveOrDraftCourses(@Param("categoryId") Long categoryId);
 
@@ -0,0 +1,20 @@
+package com.example.demo.course;
+
+import java.math.BigDecimal;
+
+/**
+ * Optional filters for the course search; any field left null is not applied.
+ */
+public record CourseSearchCriteria (
+
+        Long categoryId ,
+        String category ,
+        Level level ,
+        Status status ,
+        Long instructorId ,
+        BigDecimal minPrice ,
+        BigDecimal maxPrice ,
+        String title
+
+) {
+}
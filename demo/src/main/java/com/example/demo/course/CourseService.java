@@ -1,5 +1,6 @@
 package com.example.demo.course;
 import com.example.demo.category.Category;
+import com.example.demo.category.CategoryCourseCounter;
 import com.example.demo.user.Role;
 import com.example.demo.user.User;
 import com.example.demo.exception.model.ErrorCode;
@@ -8,21 +9,45 @@ import com.example.demo.exception.types.InvalidRoleException;
 import com.example.demo.exception.types.NotFoundException;
 import com.example.demo.category.CategoryRepository;
 import com.example.demo.module.ModuleRepository;
+import com.example.demo.security.CurrentUser;
 import com.example.demo.user.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -34,25 +59,42 @@ public class CourseService {
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
     private final ModuleRepository moduleRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final PublishedCatalogIndex publishedCatalog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategoryCourseCounter categoryCourseCounter;
 
     public CourseService(CourseRepository courseRepository , CourseMapper courseMapper ,
-                         CategoryRepository categoryRepository , UserRepository userRepository , ModuleRepository moduleRepository) {
+                         CategoryRepository categoryRepository , UserRepository userRepository , ModuleRepository moduleRepository ,
+                         EntityManager entityManager , ObjectMapper objectMapper ,
+                         PlatformTransactionManager transactionManager ,
+                         PublishedCatalogIndex publishedCatalog , ApplicationEventPublisher eventPublisher ,
+                         CategoryCourseCounter categoryCourseCounter) {
         this.courseRepository = courseRepository;
         this.courseMapper = courseMapper;
         this.categoryRepository = categoryRepository;
         this.userRepository = userRepository;
         this.moduleRepository = moduleRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate ( transactionManager );
+        this.readOnlyTransaction.setReadOnly ( true );
+        this.publishedCatalog = publishedCatalog;
+        this.eventPublisher = eventPublisher;
+        this.categoryCourseCounter = categoryCourseCounter;
     }
 
     // ________________________Create__________________________
 
     @Transactional
     public CourseResponseDto createCourse(@Valid CourseCreateDto dto ,
-                                          Authentication authentication) {
+                                          CurrentUser currentUser) {
 
         Objects.requireNonNull ( dto , "Course is required" );
 
-        courseAccessValidation ( dto, authentication );
+        courseAccessValidation ( dto, currentUser );
 
         User instructor = validInstructor ( dto.instructorId () );
         Category category = validCategory ( dto.categoryId () );
@@ -73,15 +115,17 @@ public class CourseService {
         toSave.setStatus ( status );
 
         Course savedCourse = courseRepository.save ( toSave );
+        categoryCourseCounter.courseCreated ( category.getId ( ) , status );
+        eventPublisher.publishEvent ( new CourseChangedEvent ( savedCourse.getId ( ) ) );
         return courseMapper.toCourseDto ( savedCourse );
     }
 
     // ________________________Read__________________________
 
     @Transactional(readOnly = true)
-    public Page<CourseResponseDto> getAllCourses(Pageable pageable) {
-        return courseRepository.findAll ( pageable )
-                .map ( courseMapper::toCourseDto );
+    public Slice<CourseResponseDto> getAllCourses(Pageable pageable , boolean includeTotal) {
+        // Instructors and categories resolve from the second-level cache, so a warm slice is one statement.
+        return toResult ( courseRepository.findAllBy ( pageable ) , pageable , includeTotal , courseRepository::count );
     }
 
     @Transactional(readOnly = true)
@@ -105,25 +149,23 @@ public class CourseService {
                         ErrorCode.COURSE_NOT_FOUND.toString ( ) , "Course with title " + trimmedTitle + " not found" ) );
     }
 
-    @Transactional(readOnly = true)
-    public List<CourseResponseDto> getCoursesByCategory(String category) {
+    // ---- Published catalog reads: served from the in-memory snapshot ----
+
+    public Slice<CourseResponseDto> getCoursesByCategory(String category , Pageable pageable , boolean includeTotal) {
         Objects.requireNonNull ( category , "category is required" );
         String trimmedCategory = category.trim ( );
         if (trimmedCategory.isEmpty ( )) throw new IllegalArgumentException ( "Category cannot be empty" );
 
-        List<Course> courses = courseRepository.findByCategoryNameIgnoreCase ( trimmedCategory );
-        if (courses.isEmpty ( )) {
-            boolean categoryExists = categoryRepository.existsByNameIgnoreCase ( trimmedCategory );
-            if (!categoryExists) {
-                throw new NotFoundException (
-                        ErrorCode.CATEGORY_NOT_FOUND.toString ( ) , "Category " + trimmedCategory + " not found" );
-            }
+        PublishedCatalog catalog = publishedCatalog.current ( );
+        if (!catalog.hasCategory ( trimmedCategory )) {
+            throw new NotFoundException (
+                    ErrorCode.CATEGORY_NOT_FOUND.toString ( ) , "Category " + trimmedCategory + " not found" );
         }
-        return courses.stream ( ).map ( courseMapper::toCourseDto ).toList ( );
+        return toPage ( catalog.byCategory ( trimmedCategory ) , BY_ID , pageable , includeTotal );
     }
 
     @Transactional(readOnly = true)
-    public List<CourseResponseDto> getCoursesByInstructor(String instructorName) {
+    public Slice<CourseResponseDto> getCoursesByInstructor(String instructorName , Pageable pageable , boolean includeTotal) {
         Objects.requireNonNull ( instructorName , "instructor is required" );
         String s = instructorName.trim ( );
         if (s.isEmpty ( )) throw new IllegalArgumentException ( "Instructor cannot be empty" );
@@ -141,27 +183,43 @@ public class CourseService {
             throw new IllegalArgumentException ( "The given user must be an instructor" );
         }
 
-        return courseRepository.findByInstructor ( u ).stream ( ).map ( courseMapper::toCourseDto ).toList ( );
+        return toResult ( courseRepository.findByInstructor ( u , pageable ) , pageable , includeTotal ,
+                () -> courseRepository.countByInstructor ( u ) );
     }
 
     @Transactional(readOnly = true)
-    public List<CourseResponseDto> getCoursesByStatus(String status) {
-        Objects.requireNonNull ( status , "status is required" );
-        String trimmed = status.trim ( );
-        if (trimmed.isEmpty ( )) throw new IllegalArgumentException ( "Status cannot be empty" );
+    public Slice<CourseResponseDto> getCoursesByStatus(String status , Pageable pageable , boolean includeTotal) {
+        Status courseStatus = parseStatus ( status );
 
-        Status courseStatus = Arrays.stream ( Status.values ( ) )
-                .filter ( s -> s.name ( ).equalsIgnoreCase ( trimmed ) )
-                .findFirst ( )
-                .orElseThrow ( () -> new IllegalArgumentException (
-                        "Invalid status '" + status + "'. Must be one of: " +
-                                Arrays.stream ( Status.values ( ) ).map ( Enum::name ).collect ( Collectors.joining ( ", " ) ) ) );
+        return toResult ( courseRepository.findAllByStatus ( courseStatus , pageable ) , pageable , includeTotal ,
+                () -> courseRepository.countByStatus ( courseStatus ) );
+    }
 
-        return courseRepository.findAllByStatus ( courseStatus ).stream ( ).map ( courseMapper::toCourseDto ).toList ( );
+    /**
+     * Streams every course with the given status as newline-delimited JSON. Rows are read
+     * through a database cursor and detached once written, so heap use stays flat however
+     * large the catalog gets. The status is checked before the response is committed.
+     */
+    public StreamingResponseBody streamCoursesByStatus(String status) {
+        Status courseStatus = parseStatus ( status );
+
+        return out -> readOnlyTransaction.executeWithoutResult ( tx -> {
+            try (Stream<Course> courses = courseRepository.streamAllByStatus ( courseStatus )) {
+                Iterator<Course> iterator = courses.iterator ( );
+                while (iterator.hasNext ( )) {
+                    Course course = iterator.next ( );
+                    out.write ( objectMapper.writeValueAsBytes ( courseMapper.toCourseDto ( course ) ) );
+                    out.write ( '\n' );
+                    entityManager.detach ( course );
+                }
+                out.flush ( );
+            } catch (IOException e) {
+                throw new UncheckedIOException ( e );
+            }
+        } );
     }
 
-    @Transactional(readOnly = true)
-    public List<CourseResponseDto> getCoursesByLevel(String level) {
+    public Slice<CourseResponseDto> getCoursesByLevel(String level , Pageable pageable , boolean includeTotal) {
         Objects.requireNonNull ( level , "level is required" );
         String trimmed = level.trim ( );
         if (trimmed.isEmpty ( )) throw new IllegalArgumentException ( "Level cannot be empty" );
@@ -173,30 +231,27 @@ public class CourseService {
                         "Invalid level '" + trimmed + "'. Must be one of: " +
                                 Arrays.stream ( Level.values ( ) ).map ( Enum::name ).collect ( Collectors.joining ( ", " ) ) ) );
 
-        return courseRepository.findByLevel ( courseLevel ).stream ( ).map ( courseMapper::toCourseDto ).toList ( );
+        return toPage ( publishedCatalog.current ( ).byLevel ( courseLevel ) , BY_ID , pageable , includeTotal );
     }
 
-    @Transactional(readOnly = true)
-    public List<CourseResponseDto> getFreeCourses() {
-        return courseRepository.findFreeCourses ( ).stream ( ).map ( courseMapper::toCourseDto ).toList ( );
+    public Slice<CourseResponseDto> getFreeCourses(Pageable pageable , boolean includeTotal) {
+        return toPage ( publishedCatalog.current ( ).priceBetween ( 0 , 0 ) , BY_ID , pageable , includeTotal );
     }
 
-    @Transactional(readOnly = true)
-    public List<CourseResponseDto> getPaidCourses() {
-        return courseRepository.findPaidCourses ( ).stream ( ).map ( courseMapper::toCourseDto ).toList ( );
+    public Slice<CourseResponseDto> getPaidCourses(Pageable pageable , boolean includeTotal) {
+        return toPage ( publishedCatalog.current ( ).priceBetween ( 1 , Long.MAX_VALUE ) , BY_PRICE , pageable , includeTotal );
     }
 
-    @Transactional(readOnly = true)
-    public List<CourseResponseDto> getCoursesByPrice(BigDecimal price) {
+    public Slice<CourseResponseDto> getCoursesByPrice(BigDecimal price , Pageable pageable , boolean includeTotal) {
         Objects.requireNonNull ( price , "price is required" );
         if (price.signum ( ) < 0) throw new IllegalArgumentException ( "Price cannot be negative" );
 
-        BigDecimal normalized = price.setScale ( 2 , RoundingMode.HALF_UP );
-        return courseRepository.findByPrice ( normalized ).stream ( ).map ( courseMapper::toCourseDto ).toList ( );
+        long cents = toCents ( price , RoundingMode.HALF_UP );
+        return toPage ( publishedCatalog.current ( ).priceBetween ( cents , cents ) , BY_ID , pageable , includeTotal );
     }
 
-    @Transactional(readOnly = true)
-    public List<CourseResponseDto> findAllByCoursesWithinRange(BigDecimal from , BigDecimal to) {
+    public Slice<CourseResponseDto> findAllByCoursesWithinRange(BigDecimal from , BigDecimal to ,
+                                                                Pageable pageable , boolean includeTotal) {
         Objects.requireNonNull ( from , "from is required" );
         Objects.requireNonNull ( to , "to is required" );
         if (from.signum ( ) < 0 || to.signum ( ) < 0)
@@ -204,32 +259,184 @@ public class CourseService {
         if (from.compareTo ( to ) > 0)
             throw new IllegalArgumentException ( "Minimum price (" + from + ") must be less than maximum price (" + to + ")" );
 
-        BigDecimal min = from.setScale ( 2 , RoundingMode.DOWN );
-        BigDecimal max = to.setScale ( 2 , RoundingMode.UP );
+        return toPage ( publishedCatalog.current ( ).priceBetween (
+                toCents ( from , RoundingMode.DOWN ) , toCents ( to , RoundingMode.UP ) ) , BY_PRICE , pageable , includeTotal );
+    }
+
+    private static long toCents(BigDecimal price , RoundingMode rounding) {
+        return price.setScale ( 2 , rounding ).unscaledValue ( ).longValueExact ( );
+    }
+
+    // Snapshot listings come in one of two orders; a listing at a single price is in id order too.
+    private static final Sort BY_ID = Sort.by ( "id" );
+    private static final Sort BY_PRICE = Sort.by ( "price" , "id" );
+
+    /**
+     * Same contract as the database reads: a slice unless totals are asked for, which here cost
+     * nothing. The list is already in its {@code natural} order, so a requested sort must be that
+     * order or its reverse (or a leading part of either); anything else is refused rather than ignored.
+     */
+    private static Slice<CourseResponseDto> toPage(List<CourseResponseDto> courses , Sort natural ,
+                                                   Pageable pageable , boolean includeTotal) {
+        Sort sort = pageable.getSort ( ).isSorted ( ) ? pageable.getSort ( ) : natural;
+        boolean reversed = !follows ( sort , natural );
+        if (reversed && !follows ( sort , natural.descending ( ) )) {
+            throw new IllegalArgumentException ( "Cannot sort by '" + sort + "'. This listing can only be sorted by " +
+                    natural.stream ( ).map ( Sort.Order::getProperty ).collect ( Collectors.joining ( ", " ) ) +
+                    ", ascending or descending" );
+        }
+
+        int size = courses.size ( );
+        int from = (int) Math.min ( pageable.getOffset ( ) , size );
+        int to = Math.min ( from + pageable.getPageSize ( ) , size );
+
+        List<CourseResponseDto> content;
+        if (reversed) {
+            List<CourseResponseDto> page = new ArrayList<> ( courses.subList ( size - to , size - from ) );
+            Collections.reverse ( page );
+            content = List.copyOf ( page );
+        } else {
+            content = List.copyOf ( courses.subList ( from , to ) );
+        }
+
+        Pageable served = PageRequest.of ( pageable.getPageNumber ( ) , pageable.getPageSize ( ) , sort );
+        if (!includeTotal) {
+            return new SliceImpl<> ( content , served , to < size );
+        }
+        return new PageImpl<> ( content , served , size );
+    }
+
+    // True when the requested orders are the leading orders of the given sort, property and direction alike.
+    private static boolean follows(Sort requested , Sort order) {
+        Iterator<Sort.Order> expected = order.iterator ( );
+        for (Sort.Order next : requested) {
+            if (!expected.hasNext ( )) {
+                return false;
+            }
+            Sort.Order match = expected.next ( );
+            if (!match.getProperty ( ).equals ( next.getProperty ( ) ) || match.getDirection ( ) != next.getDirection ( )
+                    || next.isIgnoreCase ( )) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final Set<String> SEARCH_SORT_PROPERTIES =
+            Set.of ( "id" , "title" , "price" , "level" , "status" , "createdAt" );
+
+    @Transactional(readOnly = true)
+    public Slice<CourseResponseDto> searchCourses(CourseSearchCriteria criteria , Pageable pageable , boolean includeTotal) {
+        Objects.requireNonNull ( criteria , "criteria is required" );
+
+        if (criteria.minPrice ( ) != null && criteria.maxPrice ( ) != null &&
+                criteria.minPrice ( ).compareTo ( criteria.maxPrice ( ) ) > 0)
+            throw new IllegalArgumentException ( "minPrice must not be greater than maxPrice" );
+
+        for (Sort.Order order : pageable.getSort ( )) {
+            if (!SEARCH_SORT_PROPERTIES.contains ( order.getProperty ( ) ))
+                throw new IllegalArgumentException ( "Cannot sort by '" + order.getProperty ( ) + "'. Must be one of: " +
+                        String.join ( ", " , SEARCH_SORT_PROPERTIES ) );
+        }
+
+        Specification<Course> spec = CourseSpecifications.matching ( criteria );
+
+        return courseRepository.findBy ( spec , query -> {
+            var fetching = query.project ( "instructor" , "category" );
+            return includeTotal ? fetching.page ( pageable ) : fetching.slice ( pageable );
+        } ).map ( courseMapper::toCourseDto );
+    }
+
+    private static final int MAX_SEARCH_TERMS = 8;
+
+    /**
+     * Ranked keyword search over published courses. Every term must match a word in the title,
+     * short description or description by prefix; titles that are merely similar (a typo) match
+     * too. Backed by the GIN indexes from the V6 migration, never by a LIKE scan.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CourseResponseDto> searchCoursesByText(String text , Pageable pageable , boolean includeTotal) {
+        Objects.requireNonNull ( text , "search text is required" );
+
+        List<String> terms = Arrays.stream ( text.toLowerCase ( Locale.ROOT ).split ( "[^\\p{L}\\p{N}]+" ) )
+                .filter ( term -> !term.isEmpty ( ) )
+                .distinct ( )
+                .limit ( MAX_SEARCH_TERMS )
+                .toList ( );
+        if (terms.isEmpty ( )) throw new IllegalArgumentException ( "Search text must contain at least one word" );
+
+        // Terms are letters and digits only, so they can not inject tsquery operators.
+        String tsQuery = terms.stream ( ).map ( term -> term + ":*" ).collect ( Collectors.joining ( " & " ) );
+        String normalized = String.join ( " " , terms );
+
+        List<Long> ids = courseRepository.searchPublishedIdsByText (
+                tsQuery , normalized , pageable.getPageSize ( ) + 1 , pageable.getOffset ( ) );
+        boolean hasNext = ids.size ( ) > pageable.getPageSize ( );
+        List<Long> pageIds = hasNext ? ids.subList ( 0 , pageable.getPageSize ( ) ) : ids;
+
+        Map<Long, Course> byId = courseRepository.findByIdIn ( pageIds ).stream ( )
+                .collect ( Collectors.toMap ( Course::getId , Function.identity ( ) ) );
+        List<CourseResponseDto> ranked = pageIds.stream ( )
+                .map ( byId::get )
+                .filter ( Objects::nonNull )
+                .map ( courseMapper::toCourseDto )
+                .toList ( );
+
+        Pageable unsorted = PageRequest.of ( pageable.getPageNumber ( ) , pageable.getPageSize ( ) );
+        if (!includeTotal) {
+            return new SliceImpl<> ( ranked , unsorted , hasNext );
+        }
+        return PageableExecutionUtils.getPage ( ranked , unsorted ,
+                () -> courseRepository.countPublishedByText ( tsQuery , normalized ) );
+    }
+
+    private Status parseStatus(String status) {
+        Objects.requireNonNull ( status , "status is required" );
+        String trimmed = status.trim ( );
+        if (trimmed.isEmpty ( )) throw new IllegalArgumentException ( "Status cannot be empty" );
 
-        return courseRepository.findAllByCoursesBetween ( min , max ).stream ( ).map ( courseMapper::toCourseDto ).toList ( );
+        return Arrays.stream ( Status.values ( ) )
+                .filter ( s -> s.name ( ).equalsIgnoreCase ( trimmed ) )
+                .findFirst ( )
+                .orElseThrow ( () -> new IllegalArgumentException (
+                        "Invalid status '" + status + "'. Must be one of: " +
+                                Arrays.stream ( Status.values ( ) ).map ( Enum::name ).collect ( Collectors.joining ( ", " ) ) ) );
+    }
+
+    // A slice by default; the count only runs when the caller asks for totals and it can not be inferred.
+    private Slice<CourseResponseDto> toResult(Slice<Course> courses , Pageable pageable ,
+                                              boolean includeTotal , LongSupplier total) {
+        Slice<CourseResponseDto> dtos = courses.map ( courseMapper::toCourseDto );
+        if (!includeTotal) {
+            return dtos;
+        }
+        return PageableExecutionUtils.getPage ( dtos.getContent ( ) , pageable , total );
     }
 
     // ________________________Update__________________________
 
     @Transactional
     public CourseResponseDto updateCourse(Long courseId , @Valid CourseUpdateDto dto ,
-                                          Authentication authentication) {
+                                          CurrentUser currentUser) {
 
         Objects.requireNonNull ( dto , "dto is required" );
         Objects.requireNonNull ( courseId , "course Id is required" );
 
-        Course course = courseRepository.findById ( courseId ).orElseThrow (
+        // Locked so the category and status read below are still current when the counters move.
+        Course course = courseRepository.findByIdForUpdate ( courseId ).orElseThrow (
                 () -> new NotFoundException (
                         ErrorCode.COURSE_NOT_FOUND.toString ( ) , "Course with id " + courseId + " not found" )
         );
 
-        courseUpdateAccessValidation ( course , authentication );
+        courseUpdateAccessValidation ( course , currentUser );
+
+        Long oldCategoryId = course.getCategory ( ).getId ( );
+        Status oldStatus = course.getStatus ( );
 
         if (dto.instructorId () != null) {
 
             var instructor = validInstructor ( dto.instructorId ( ) );
-            isAdmin ( authentication );
+            isAdmin ( currentUser );
             course.setInstructor ( instructor );
 
         }
@@ -266,7 +473,7 @@ public class CourseService {
 
             if (!oldPrice.equals ( newPrice )) {
                 log.warn ( "Price for the course {} changed from {} to {} by user {} " ,
-                        courseId , oldPrice , newPrice , authentication.getName ( ) );
+                        courseId , oldPrice , newPrice , currentUser.getEmail ( ) );
             }
 
             course.setPrice ( newPrice );
@@ -308,30 +515,31 @@ public class CourseService {
         log.info ( "Updating course ID: {}" , courseId );
 
         Course updatedCourse = courseRepository.save ( course );
+        categoryCourseCounter.courseMoved ( oldCategoryId , oldStatus ,
+                updatedCourse.getCategory ( ).getId ( ) , updatedCourse.getStatus ( ) );
+        eventPublisher.publishEvent ( new CourseChangedEvent ( updatedCourse.getId ( ) ) );
         return courseMapper.toCourseDto ( updatedCourse );
     }
 
     // ________________________Archive__________________________
 
     @Transactional
-    public void archiveCourse(Long courseId , Authentication authentication) {
+    public void archiveCourse(Long courseId , CurrentUser currentUser) {
         Objects.requireNonNull ( courseId , "course Id is required" );
 
-        Course course = archiveCourseValidation ( courseId , authentication );
+        Course course = archiveCourseValidation ( courseId , currentUser );
         log.info ( "Archiving course ID: {}" , courseId );
 
+        categoryCourseCounter.courseMoved ( course.getCategory ( ).getId ( ) , course.getStatus ( ) ,
+                course.getCategory ( ).getId ( ) , Status.ARCHIVED );
         course.setStatus ( Status.ARCHIVED );
         courseRepository.save ( course );
+        eventPublisher.publishEvent ( new CourseChangedEvent ( courseId ) );
 
     }
 
 
-    private  void courseAccessValidation(CourseCreateDto dto , Authentication authentication) {
-
-        User currentUser = userRepository.findByEmailIgnoreCase ( authentication.getName ( ) ).orElseThrow (
-                () -> new NotFoundException ( ErrorCode.USER_NOT_FOUND.toString ( ) ,
-                        "User with id: " + authentication.getName ( ) + " not found"
-                ) );
+    private  void courseAccessValidation(CourseCreateDto dto , CurrentUser currentUser) {
 
         if (currentUser.getRole ( ) == Role.INSTRUCTOR
                 && !dto.instructorId ( ).equals ( currentUser.getId ( ) )) {
@@ -354,12 +562,7 @@ public class CourseService {
     }
 
     private void courseUpdateAccessValidation
-            (Course course , Authentication authentication) {
-
-        var currentUser = userRepository.findByEmailIgnoreCase ( authentication.getName ( ) ).orElseThrow (
-                () -> new NotFoundException ( ErrorCode.USER_NOT_FOUND.toString ( ) ,
-                        "User with id: " + authentication.getName ( ) + " not found"
-                ) );
+            (Course course , CurrentUser currentUser) {
 
         if (currentUser.getRole ( ) == Role.ADMIN)
             return;
@@ -386,12 +589,7 @@ public class CourseService {
     }
 
 
-    private void isAdmin(Authentication authentication) {
-
-        var currentUser = userRepository.findByEmailIgnoreCase ( authentication.getName ( ) ).orElseThrow (
-                () -> new NotFoundException ( ErrorCode.USER_NOT_FOUND.toString ( ) ,
-                        "User with id: " + authentication.getName ( ) + " not found"
-                ) );
+    private void isAdmin(CurrentUser currentUser) {
 
         if (currentUser.getRole ( ) != Role.ADMIN) {
             throw new SecurityException ( "Only admins can perform this action" );
@@ -461,18 +659,13 @@ public class CourseService {
         return status;
     }
 
-    private Course archiveCourseValidation(Long id , Authentication authentication) {
-
-        var currentUser = userRepository.findByEmailIgnoreCase ( authentication.getName ( ) ).orElseThrow (
-                () -> new NotFoundException ( ErrorCode.USER_NOT_FOUND.toString ( ) ,
-                        "User with id: " + authentication.getName ( ) + " not found"
-                ) );
+    private Course archiveCourseValidation(Long id , CurrentUser currentUser) {
 
         if (!currentUser.getRole ( ).equals ( Role.ADMIN )) {
             throw new SecurityException ( "Only admins can archive courses" );
         }
 
-        var course = courseRepository.findById ( id ).orElseThrow (
+        var course = courseRepository.findByIdForUpdate ( id ).orElseThrow (
                 () -> new NotFoundException (
                         ErrorCode.COURSE_NOT_FOUND.toString ( ) , "Course with id " + id + " not found" )
         );
@@ -481,7 +674,7 @@ public class CourseService {
             throw new IllegalStateException ( "Course is already archived" );
         }
 
-        if (moduleRepository.findByCourseIdAndIsActive ( course.getId ( ) ).isPresent ( )) {
+        if (moduleRepository.existsByCourseIdAndIsActiveTrue ( course.getId ( ) )) {
             throw new com.example.demo.exception.types.IllegalArgumentException (
                     ErrorCode.COURSE_HAS_ACTIVE_MODULES.toString ( ) ,
                     "Cannot archive course with active modules. Please deactivate or remove active modules first."
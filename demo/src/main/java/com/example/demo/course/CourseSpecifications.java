@@ -0,0 +1,76 @@
+package com.example.demo.course;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the course search as a single WHERE clause. Only the filters that were supplied become
+ * predicates, so each combination compiles to one statement the composite indexes can serve.
+ */
+final class CourseSpecifications {
+
+    private CourseSpecifications() {
+    }
+
+    static Specification<Course> matching(CourseSearchCriteria criteria) {
+
+        List<Specification<Course>> filters = new ArrayList<> ( );
+
+        if (criteria.categoryId ( ) != null) filters.add ( inCategory ( criteria.categoryId ( ) ) );
+        if (hasText ( criteria.category ( ) )) filters.add ( inCategoryNamed ( criteria.category ( ).trim ( ) ) );
+        if (criteria.level ( ) != null) filters.add ( hasLevel ( criteria.level ( ) ) );
+        if (criteria.status ( ) != null) filters.add ( hasStatus ( criteria.status ( ) ) );
+        if (criteria.instructorId ( ) != null) filters.add ( taughtBy ( criteria.instructorId ( ) ) );
+        if (criteria.minPrice ( ) != null) filters.add ( priceAtLeast ( criteria.minPrice ( ) ) );
+        if (criteria.maxPrice ( ) != null) filters.add ( priceAtMost ( criteria.maxPrice ( ) ) );
+        if (hasText ( criteria.title ( ) )) filters.add ( titleStartsWith ( criteria.title ( ).trim ( ) ) );
+
+        return Specification.allOf ( filters );
+    }
+
+    static Specification<Course> inCategory(Long categoryId) {
+        return (root , query , cb) -> cb.equal ( root.get ( "category" ).get ( "id" ) , categoryId );
+    }
+
+    static Specification<Course> inCategoryNamed(String name) {
+        return (root , query , cb) -> cb.equal (
+                cb.lower ( root.join ( "category" ).get ( "name" ) ) , name.toLowerCase ( Locale.ROOT ) );
+    }
+
+    static Specification<Course> hasLevel(Level level) {
+        return (root , query , cb) -> cb.equal ( root.get ( "level" ) , level );
+    }
+
+    static Specification<Course> hasStatus(Status status) {
+        return (root , query , cb) -> cb.equal ( root.get ( "status" ) , status );
+    }
+
+    static Specification<Course> taughtBy(Long instructorId) {
+        return (root , query , cb) -> cb.equal ( root.get ( "instructor" ).get ( "id" ) , instructorId );
+    }
+
+    static Specification<Course> priceAtLeast(BigDecimal min) {
+        return (root , query , cb) -> cb.greaterThanOrEqualTo ( root.get ( "price" ) , min );
+    }
+
+    static Specification<Course> priceAtMost(BigDecimal max) {
+        return (root , query , cb) -> cb.lessThanOrEqualTo ( root.get ( "price" ) , max );
+    }
+
+    // lower(title) LIKE 'prefix%' is served by the text_pattern_ops index on lower(title).
+    static Specification<Course> titleStartsWith(String prefix) {
+        String pattern = prefix.toLowerCase ( Locale.ROOT )
+                .replace ( "\\" , "\\\\" )
+                .replace ( "%" , "\\%" )
+                .replace ( "_" , "\\_" ) + "%";
+        return (root , query , cb) -> cb.like ( cb.lower ( root.get ( "title" ) ) , pattern , '\\' );
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank ( );
+    }
+}
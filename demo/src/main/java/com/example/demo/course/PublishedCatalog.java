@@ -0,0 +1,281 @@
+package com.example.demo.course;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable view of every published course with its secondary indexes. Nothing is ever mutated
+ * after construction, so a snapshot can be read from any thread without locking; changes produce
+ * a new snapshot through {@link #with}, {@link #without} and {@link #replace}.
+ * <p>
+ * Each index is a sorted array of entries. A change merges the changed entries into the indexes
+ * they touch and shares every other array with the previous snapshot, so nothing is re-sorted.
+ * Listings by level and category come back in id order, price queries in price order.
+ * <p>
+ * The snapshot also knows every category name, published courses or not, so an empty category
+ * can be told from an unknown one without a query.
+ */
+final class PublishedCatalog {
+
+    private static final Comparator<Entry> BY_ID = Comparator.comparing ( Entry::id );
+    private static final Comparator<Entry> BY_PRICE = Comparator.comparingLong ( Entry::priceCents ).thenComparing ( BY_ID );
+    private static final Entry[] NONE = new Entry[0];
+
+    static final PublishedCatalog EMPTY = new PublishedCatalog ( NONE , Map.of ( ) , Map.of ( ) , NONE , Map.of ( ) );
+
+    record Entry(CourseResponseDto course , Long instructorId , Long categoryId) {
+
+        Long id() {
+            return course.id ( );
+        }
+
+        long priceCents() {
+            BigDecimal price = course.price ( );
+            return price == null ? 0 : price.setScale ( 2 , RoundingMode.HALF_UP ).unscaledValue ( ).longValue ( );
+        }
+
+        String categoryKey() {
+            return course.categoryName ( ).toLowerCase ( Locale.ROOT );
+        }
+    }
+
+    // Every entry in id order, also used for lookups by id.
+    private final Entry[] entries;
+    private final Map<Level, Entry[]> byLevel;
+    private final Map<String, Entry[]> byCategory;
+
+    // Entries sorted by price, with the matching prices in cents for binary search.
+    private final Entry[] byPrice;
+    private final long[] priceCents;
+
+    // Lower-cased name of every category by id, and the same names as a set for lookups.
+    private final Map<Long, String> categoryNames;
+    private final Set<String> categoryKeys;
+
+    private PublishedCatalog(Entry[] entries , Map<Level, Entry[]> byLevel , Map<String, Entry[]> byCategory ,
+                             Entry[] byPrice , Map<Long, String> categoryNames) {
+        this.entries = entries;
+        this.byLevel = byLevel;
+        this.byCategory = byCategory;
+        this.byPrice = byPrice;
+        this.priceCents = Arrays.stream ( byPrice ).mapToLong ( Entry::priceCents ).toArray ( );
+        this.categoryNames = categoryNames;
+        this.categoryKeys = Set.copyOf ( categoryNames.values ( ) );
+    }
+
+    static PublishedCatalog of(Collection<Entry> published) {
+        return EMPTY.replace ( List.of ( ) , published );
+    }
+
+    PublishedCatalog with(Collection<Entry> changed) {
+        return replace ( List.of ( ) , changed );
+    }
+
+    PublishedCatalog without(Collection<Long> courseIds) {
+        return replace ( courseIds , List.of ( ) );
+    }
+
+    /**
+     * Drops the given courses, then adds or updates the given entries. Only the level and category
+     * indexes that an old or new entry belongs to are rebuilt, each by a single merge.
+     */
+    PublishedCatalog replace(Collection<Long> removedIds , Collection<Entry> changed) {
+
+        // Last one wins if an id is given twice.
+        Map<Long, Entry> added = new LinkedHashMap<> ( );
+        changed.forEach ( e -> added.put ( e.id ( ) , e ) );
+
+        Set<Long> dropped = new HashSet<> ( added.keySet ( ) );
+        dropped.addAll ( removedIds );
+
+        List<Entry> old = dropped.stream ( ).map ( this::find ).filter ( Objects::nonNull ).toList ( );
+        if (old.isEmpty ( ) && added.isEmpty ( )) {
+            return this;
+        }
+
+        Entry[] addedById = added.values ( ).stream ( ).sorted ( BY_ID ).toArray ( Entry[]::new );
+
+        Map<Level, Entry[]> levels = new EnumMap<> ( Level.class );
+        levels.putAll ( byLevel );
+        patchGroups ( levels , e -> e.course ( ).level ( ) , old , addedById , dropped );
+
+        Map<String, Entry[]> categories = new HashMap<> ( byCategory );
+        patchGroups ( categories , Entry::categoryKey , old , addedById , dropped );
+
+        Entry[] addedByPrice = added.values ( ).stream ( ).sorted ( BY_PRICE ).toArray ( Entry[]::new );
+
+        return new PublishedCatalog (
+                merge ( entries , dropped , addedById , BY_ID ) ,
+                levels ,
+                categories ,
+                merge ( byPrice , dropped , addedByPrice , BY_PRICE ) ,
+                categoryNames );
+    }
+
+    /**
+     * Replaces the known category names, keyed by category id.
+     */
+    PublishedCatalog withCategories(Map<Long, String> names) {
+        Map<Long, String> keys = new HashMap<> ( );
+        names.forEach ( (id , name) -> keys.put ( id , name.toLowerCase ( Locale.ROOT ) ) );
+        return new PublishedCatalog ( entries , byLevel , byCategory , byPrice , Map.copyOf ( keys ) );
+    }
+
+    /**
+     * Adds, renames or, given a null name, forgets one category.
+     */
+    PublishedCatalog withCategory(Long categoryId , String name) {
+        Map<Long, String> names = new HashMap<> ( categoryNames );
+        if (name == null) {
+            names.remove ( categoryId );
+        } else {
+            names.put ( categoryId , name );
+        }
+        return withCategories ( names );
+    }
+
+    boolean hasCategory(String categoryName) {
+        return categoryKeys.contains ( categoryName.toLowerCase ( Locale.ROOT ) );
+    }
+
+    List<Long> courseIdsInCategory(Long categoryId) {
+        return Arrays.stream ( entries )
+                .filter ( e -> e.categoryId ( ).equals ( categoryId ) )
+                .map ( Entry::id )
+                .toList ( );
+    }
+
+    List<Long> courseIdsByInstructor(Long instructorId) {
+        return Arrays.stream ( entries )
+                .filter ( e -> e.instructorId ( ).equals ( instructorId ) )
+                .map ( Entry::id )
+                .toList ( );
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    List<CourseResponseDto> byLevel(Level level) {
+        Entry[] group = byLevel.getOrDefault ( level , NONE );
+        return view ( group , 0 , group.length );
+    }
+
+    List<CourseResponseDto> byCategory(String categoryName) {
+        Entry[] group = byCategory.getOrDefault ( categoryName.toLowerCase ( Locale.ROOT ) , NONE );
+        return view ( group , 0 , group.length );
+    }
+
+    /**
+     * Courses priced between the two bounds, inclusive, cheapest first. A null price counts as free.
+     */
+    List<CourseResponseDto> priceBetween(long minCents , long maxCents) {
+        int from = lowerBound ( minCents );
+        int to = maxCents == Long.MAX_VALUE ? priceCents.length : lowerBound ( maxCents + 1 );
+        return view ( byPrice , from , Math.max ( from , to ) );
+    }
+
+    private Entry find(Long id) {
+        int low = 0;
+        int high = entries.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = entries[mid].id ( ).compareTo ( id );
+            if (cmp == 0) {
+                return entries[mid];
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return null;
+    }
+
+    // First index whose price is >= cents.
+    private int lowerBound(long cents) {
+        int low = 0;
+        int high = priceCents.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (priceCents[mid] < cents) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Rebuilds only the groups an old or a new entry falls in; the rest keep their arrays.
+    private static <K> void patchGroups(Map<K, Entry[]> groups , Function<Entry, K> key , List<Entry> old ,
+                                        Entry[] addedById , Set<Long> dropped) {
+
+        Map<K, List<Entry>> addedByKey = Arrays.stream ( addedById )
+                .collect ( Collectors.groupingBy ( key , LinkedHashMap::new , Collectors.toList ( ) ) );
+
+        Set<K> touched = new HashSet<> ( addedByKey.keySet ( ) );
+        old.forEach ( e -> touched.add ( key.apply ( e ) ) );
+
+        for (K k : touched) {
+            Entry[] merged = merge ( groups.getOrDefault ( k , NONE ) , dropped ,
+                    addedByKey.getOrDefault ( k , List.of ( ) ).toArray ( NONE ) , BY_ID );
+            if (merged.length == 0) {
+                groups.remove ( k );
+            } else {
+                groups.put ( k , merged );
+            }
+        }
+    }
+
+    // One pass over a sorted index: skips dropped ids and merges in the additions, already sorted the same way.
+    private static Entry[] merge(Entry[] sorted , Set<Long> dropped , Entry[] added , Comparator<Entry> order) {
+
+        Entry[] out = new Entry[sorted.length + added.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < sorted.length || j < added.length) {
+            if (i < sorted.length && dropped.contains ( sorted[i].id ( ) )) {
+                i++;
+            } else if (j < added.length && (i == sorted.length || order.compare ( added[j] , sorted[i] ) < 0)) {
+                out[n++] = added[j++];
+            } else {
+                out[n++] = sorted[i++];
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf ( out , n );
+    }
+
+    // Read-only list over a range of an index, so paging only touches the requested rows.
+    private static List<CourseResponseDto> view(Entry[] index , int from , int to) {
+        return new AbstractList<> ( ) {
+            @Override
+            public CourseResponseDto get(int position) {
+                Objects.checkIndex ( position , to - from );
+                return index[from + position].course ( );
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.course;
+
+import com.example.demo.category.Category;
+import com.example.demo.category.CategoryChangedEvent;
+import com.example.demo.category.CategoryRepository;
+import com.example.demo.user.UserChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the current {@link PublishedCatalog} snapshot. Readers only dereference the atomic
+ * reference. After a course, category or instructor change commits, the affected courses alone
+ * are reloaded and patched into a new snapshot, which is swapped in. A category change also
+ * refreshes that category's name.
+ */
+@Slf4j
+@Component
+
+public class PublishedCatalogIndex {
+
+    private final CourseRepository courseRepository;
+    private final CourseMapper courseMapper;
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicReference<PublishedCatalog> snapshot = new AtomicReference<> ( );
+
+    public PublishedCatalogIndex(CourseRepository courseRepository , CourseMapper courseMapper ,
+                                 CategoryRepository categoryRepository ,
+                                 PlatformTransactionManager transactionManager , MeterRegistry meterRegistry) {
+
+        this.courseRepository = courseRepository;
+        this.courseMapper = courseMapper;
+        this.categoryRepository = categoryRepository;
+        this.readOnlyTransaction = new TransactionTemplate ( transactionManager );
+        this.readOnlyTransaction.setReadOnly ( true );
+
+        Gauge.builder ( "catalog.published.courses" , snapshot , s -> s.get ( ) == null ? 0 : s.get ( ).size ( ) )
+                .register ( meterRegistry );
+    }
+
+    PublishedCatalog current() {
+        PublishedCatalog catalog = snapshot.get ( );
+        return catalog != null ? catalog : load ( );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        load ( );
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        refresh ( catalog -> catalog.replace ( List.of ( event.courseId ( ) ) ,
+                courseRepository.findById ( event.courseId ( ) )
+                        .filter ( course -> course.getStatus ( ) == Status.PUBLISHED )
+                        .map ( this::toEntry )
+                        .stream ( )
+                        .toList ( ) ) );
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        refresh ( catalog -> catalog.replace ( catalog.courseIdsInCategory ( event.categoryId ( ) ) ,
+                        courseRepository.findByCategoryIdAndStatus ( event.categoryId ( ) , Status.PUBLISHED ).stream ( )
+                                .map ( this::toEntry )
+                                .toList ( ) )
+                .withCategory ( event.categoryId ( ) ,
+                        categoryRepository.findById ( event.categoryId ( ) ).map ( Category::getName ).orElse ( null ) ) );
+    }
+
+    // Course entries carry the instructor's name, so a renamed instructor refreshes their courses.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.userId ( ) == null || current ( ).courseIdsByInstructor ( event.userId ( ) ).isEmpty ( )) {
+            return;
+        }
+
+        refresh ( catalog -> catalog.replace ( catalog.courseIdsByInstructor ( event.userId ( ) ) ,
+                courseRepository.findByInstructorIdAndStatus ( event.userId ( ) , Status.PUBLISHED ).stream ( )
+                        .map ( this::toEntry )
+                        .toList ( ) ) );
+    }
+
+    private synchronized PublishedCatalog load() {
+        PublishedCatalog loaded = snapshot.get ( );
+        if (loaded != null) {
+            return loaded;
+        }
+
+        PublishedCatalog catalog = readOnlyTransaction.execute ( tx -> {
+            Map<Long, String> categories = categoryRepository.findAll ( ).stream ( )
+                    .collect ( Collectors.toMap ( Category::getId , Category::getName ) );
+            try (var courses = courseRepository.streamAllByStatus ( Status.PUBLISHED )) {
+                return PublishedCatalog.of ( courses.map ( this::toEntry ).toList ( ) ).withCategories ( categories );
+            }
+        } );
+
+        snapshot.set ( catalog );
+        log.info ( "Loaded published catalog with {} courses" , catalog.size ( ) );
+        return catalog;
+    }
+
+    /**
+     * Reads what changed and swaps in the patched snapshot under one lock. A listener that reads
+     * later also swaps later, so an older read can never overwrite a newer one.
+     */
+    private synchronized void refresh(UnaryOperator<PublishedCatalog> patch) {
+        PublishedCatalog catalog = current ( );
+        snapshot.set ( readOnlyTransaction.execute ( tx -> patch.apply ( catalog ) ) );
+    }
+
+    private PublishedCatalog.Entry toEntry(Course course) {
+        return new PublishedCatalog.Entry (
+                courseMapper.toCourseDto ( course ) ,
+                course.getInstructor ( ).getId ( ) ,
+                course.getCategory ( ).getId ( )
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.enrollment;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkEnrollmentCreateDto(
+
+        @NotNull(message = "The enrollment must have a reference to a course")
+        @Positive(message = "Course ID must be a positive number")
+        Long courseId ,
+
+        @NotEmpty(message = "At least one student is required")
+        @Size(max = 5000 , message = "At most 5000 students can be enrolled per request")
+        List<@NotNull @Positive(message = "User ID must be a positive number") Long> userIds
+
+) {
+}
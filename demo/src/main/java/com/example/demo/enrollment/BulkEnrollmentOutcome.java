@@ -0,0 +1,12 @@
+package com.example.demo.enrollment;
+
+public enum BulkEnrollmentOutcome {
+
+    ENROLLED,
+    ALREADY_ENROLLED,
+    DUPLICATE_IN_REQUEST,
+    USER_NOT_FOUND,
+    NOT_A_STUDENT,
+    INACTIVE_USER,
+    COURSE_INSTRUCTOR
+}
@@ -0,0 +1,19 @@
+package com.example.demo.enrollment;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk enrollment, with one row per requested user id in request order.
+ */
+public record BulkEnrollmentResultDto(
+
+        Long courseId ,
+        int requested ,
+        int enrolled ,
+        List<Row> rows
+
+) {
+
+    public record Row(Long userId , BulkEnrollmentOutcome outcome , Long enrollmentId) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.enrollment;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Written only through CourseEnrollmentStatsRepository's delta upserts and the reconciliation job.
+@Entity
+@Table(name = "course_enrollment_stats")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+
+public class CourseEnrollmentStats {
+
+    @Id
+    @Column(name = "course_id")
+    private Long courseId;
+
+    @Column(nullable = false)
+    private long enrollments;
+
+    @Column(name = "active_enrollments", nullable = false)
+    private long activeEnrollments;
+
+    @Column(name = "completed_enrollments", nullable = false)
+    private long completedEnrollments;
+
+    @Column(name = "graded_enrollments", nullable = false)
+    private long gradedEnrollments;
+
+    @Column(name = "grade_sum", nullable = false, precision = 20, scale = 2)
+    private BigDecimal gradeSum;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.enrollment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record CourseEnrollmentStatsDto(
+
+        Long courseId ,
+        long enrollments ,
+        long activeEnrollments ,
+        long completedEnrollments ,
+        double completionRate ,
+        BigDecimal averageFinalGrade ,
+        LocalDateTime updatedAt
+
+) {
+}
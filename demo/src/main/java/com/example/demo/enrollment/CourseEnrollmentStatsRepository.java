@@ -0,0 +1,41 @@
+package com.example.demo.enrollment;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+
+public interface CourseEnrollmentStatsRepository extends JpaRepository<CourseEnrollmentStats, Long> {
+
+    // One atomic statement: concurrent enrollments in a course serialize on its row, never lose an update.
+    // The query space keeps Hibernate from evicting every second-level cache region on this native write.
+    // A new row starts with an empty grade histogram (just the format version byte) so grades recorded
+    // before the next reconciliation are kept.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_enrollment_stats"))
+    @Query(value = "INSERT INTO course_enrollment_stats AS s (course_id, enrollments, active_enrollments, " +
+            "completed_enrollments, graded_enrollments, grade_sum, grade_histogram, updated_at) " +
+            "VALUES (:courseId, :enrollments, :active, :completed, :graded, :gradeSum, decode('01', 'hex'), now()) " +
+            "ON CONFLICT (course_id) DO UPDATE SET " +
+            "enrollments = s.enrollments + EXCLUDED.enrollments, " +
+            "active_enrollments = s.active_enrollments + EXCLUDED.active_enrollments, " +
+            "completed_enrollments = s.completed_enrollments + EXCLUDED.completed_enrollments, " +
+            "graded_enrollments = s.graded_enrollments + EXCLUDED.graded_enrollments, " +
+            "grade_sum = s.grade_sum + EXCLUDED.grade_sum, " +
+            "updated_at = now()",
+            nativeQuery = true)
+    int applyDelta(@Param("courseId") Long courseId ,
+                   @Param("enrollments") long enrollments ,
+                   @Param("active") long active ,
+                   @Param("completed") long completed ,
+                   @Param("graded") long graded ,
+                   @Param("gradeSum") BigDecimal gradeSum);
+}
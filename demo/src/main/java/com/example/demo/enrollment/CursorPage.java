@@ -0,0 +1,16 @@
+package com.example.demo.enrollment;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated listing. Pass {@code nextCursor} back as {@code cursor}
+ * to read the following slice; it is null on the last one.
+ */
+public record CursorPage<T> (
+
+        List<T> items,
+        String nextCursor,
+        boolean hasNext
+
+) {
+}
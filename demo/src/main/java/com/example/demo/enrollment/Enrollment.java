@@ -23,7 +23,8 @@ import java.time.LocalDateTime;
 public class Enrollment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "enrollment_seq")
+    @SequenceGenerator(name = "enrollment_seq", sequenceName = "enrollment_seq", allocationSize = 50)
     private Long id ;
 
     @ManyToOne (fetch = FetchType.LAZY)
@@ -34,7 +35,7 @@ public class Enrollment {
     @JoinColumn(name = "course_id")
     private Course course ;
 
-    @Column
+    @Column(nullable = false)
     private LocalDateTime dateOfEnrollment = LocalDateTime.now() ;
 
     @Column
@@ -1,15 +1,18 @@
 package com.example.demo.enrollment;
 
+import com.example.demo.security.CurrentUser;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/enrollments")
@@ -33,12 +36,26 @@ public class EnrollmentController {
     @PreAuthorize("hasAnyRole('ADMIN', 'STUDENT', 'INSTRUCTOR')")
     public ResponseEntity<EnrollmentResponseDto> createEnrollment(
             @Valid @RequestBody EnrollmentCreateDto dto,
-            Authentication authentication) {
+            CurrentUser currentUser) {
 
-        EnrollmentResponseDto response = enrollmentService.createEnrollment(dto, authentication);
+        EnrollmentResponseDto response = enrollmentService.createEnrollment(dto, currentUser);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Enrolls many students in one course and reports the outcome per student.
+     * - Instructors can enroll students in their courses
+     * - Admins can enroll anyone in any course
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<BulkEnrollmentResultDto> createEnrollments(
+            @Valid @RequestBody BulkEnrollmentCreateDto dto,
+            CurrentUser currentUser) {
+
+        return ResponseEntity.ok(enrollmentService.createEnrollments(dto, currentUser));
+    }
+
     // ========== UPDATE ENROLLMENT ==========
 
     /**
@@ -52,9 +69,9 @@ public class EnrollmentController {
     public ResponseEntity<EnrollmentResponseDto> updateEnrollment(
             @PathVariable Long id,
             @Valid @RequestBody EnrollmentUpdateDto dto,
-            Authentication authentication) {
+            CurrentUser currentUser) {
 
-        EnrollmentResponseDto response = enrollmentService.updateEnrollment(id, dto, authentication);
+        EnrollmentResponseDto response = enrollmentService.updateEnrollment(id, dto, currentUser);
         return ResponseEntity.ok(response);
     }
 
@@ -70,9 +87,9 @@ public class EnrollmentController {
     @PreAuthorize("hasAnyRole('ADMIN', 'STUDENT')")
     public ResponseEntity<EnrollmentResponseDto> cancelEnrollment(
             @PathVariable Long id,
-            Authentication authentication) {
+            CurrentUser currentUser) {
 
-        EnrollmentResponseDto response = enrollmentService.cancelEnrollment(id, authentication);
+        EnrollmentResponseDto response = enrollmentService.cancelEnrollment(id, currentUser);
         return ResponseEntity.ok(response);
     }
 
@@ -86,9 +103,9 @@ public class EnrollmentController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Page<EnrollmentResponseDto>> getAllEnrollments(
             @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC) Pageable pageable,
-            Authentication authentication) {
+            CurrentUser currentUser) {
 
-        Page<EnrollmentResponseDto> enrollments = enrollmentService.getAllEnrollments(pageable, authentication);
+        Page<EnrollmentResponseDto> enrollments = enrollmentService.getAllEnrollments(pageable, currentUser);
         return ResponseEntity.ok(enrollments);
     }
 
@@ -102,9 +119,9 @@ public class EnrollmentController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<EnrollmentResponseDto> getEnrollmentById(
             @PathVariable Long id,
-            Authentication authentication) {
+            CurrentUser currentUser) {
 
-        EnrollmentResponseDto enrollment = enrollmentService.getEnrollmentById(id, authentication);
+        EnrollmentResponseDto enrollment = enrollmentService.getEnrollmentById(id, currentUser);
         return ResponseEntity.ok(enrollment);
     }
 
@@ -119,10 +136,10 @@ public class EnrollmentController {
     public ResponseEntity<Page<EnrollmentResponseDto>> getEnrollmentsByStudentId(
             @PathVariable Long userId,
             @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC) Pageable pageable,
-            Authentication authentication) {
+            CurrentUser currentUser) {
 
         Page<EnrollmentResponseDto> enrollments = enrollmentService.getEnrollmentsByStudentId(
-                userId, pageable, authentication);
+                userId, pageable, currentUser);
         return ResponseEntity.ok(enrollments);
     }
 
@@ -136,10 +153,10 @@ public class EnrollmentController {
     public ResponseEntity<Page<EnrollmentResponseDto>> getEnrollmentsByInstructorId(
             @PathVariable Long instructorId,
             @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC) Pageable pageable,
-            Authentication authentication) {
+            CurrentUser currentUser) {
 
         Page<EnrollmentResponseDto> enrollments = enrollmentService.getEnrollmentsByInstructorId(
-                instructorId, pageable, authentication);
+                instructorId, pageable, currentUser);
         return ResponseEntity.ok(enrollments);
     }
 
@@ -154,10 +171,142 @@ public class EnrollmentController {
     public ResponseEntity<Page<EnrollmentResponseDto>> getEnrollmentsByCourseId(
             @PathVariable Long courseId,
             @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC) Pageable pageable,
-            Authentication authentication) {
+            CurrentUser currentUser) {
 
         Page<EnrollmentResponseDto> enrollments = enrollmentService.getEnrollmentsByCourseId(
-                courseId, pageable, authentication);
+                courseId, pageable, currentUser);
         return ResponseEntity.ok(enrollments);
     }
-}
\ No newline at end of file
+
+    // ========== GRADE DISTRIBUTIONS ==========
+
+    /**
+     * Grade percentiles and histogram of a course.
+     * - Only the course's instructor and admins can view
+     */
+    @GetMapping("/course/{courseId}/grades")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<GradeDistributionDto> getCourseGradeDistribution(
+            @PathVariable Long courseId,
+            CurrentUser currentUser) {
+
+        return ResponseEntity.ok(enrollmentService.getCourseGradeDistribution(courseId, currentUser));
+    }
+
+    /**
+     * Grade distribution across all of an instructor's courses.
+     * - Instructors can view their own
+     * - Admins can view any instructor's
+     */
+    @GetMapping("/instructor/{instructorId}/grades")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<GradeDistributionDto> getInstructorGradeDistribution(
+            @PathVariable Long instructorId,
+            CurrentUser currentUser) {
+
+        return ResponseEntity.ok(enrollmentService.getInstructorGradeDistribution(instructorId, currentUser));
+    }
+
+    /**
+     * Grade distribution across all courses of a category.
+     * - Admins only
+     */
+    @GetMapping("/category/{categoryId}/grades")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<GradeDistributionDto> getCategoryGradeDistribution(@PathVariable Long categoryId) {
+        return ResponseEntity.ok(enrollmentService.getCategoryGradeDistribution(categoryId));
+    }
+
+    // ========== GRADEBOOK EXPORT ==========
+
+    /**
+     * Streams every enrollment of a course as CSV or NDJSON ({@code ?format=ndjson}).
+     * - Only the course's instructor and admins can export
+     */
+    @GetMapping("/course/{courseId}/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<StreamingResponseBody> exportCourseGradebook(
+            @PathVariable Long courseId,
+            @RequestParam(defaultValue = "csv") String format,
+            CurrentUser currentUser) {
+
+        GradebookFormat gradebookFormat = GradebookFormat.parse(format);
+        return gradebook(enrollmentService.exportCourseGradebook(courseId, gradebookFormat, currentUser),
+                "course-" + courseId, gradebookFormat);
+    }
+
+    /**
+     * Streams the enrollments of all of an instructor's courses as CSV or NDJSON.
+     * - Instructors can export their own gradebook
+     * - Admins can export any instructor's
+     */
+    @GetMapping("/instructor/{instructorId}/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<StreamingResponseBody> exportInstructorGradebook(
+            @PathVariable Long instructorId,
+            @RequestParam(defaultValue = "csv") String format,
+            CurrentUser currentUser) {
+
+        GradebookFormat gradebookFormat = GradebookFormat.parse(format);
+        return gradebook(enrollmentService.exportInstructorGradebook(instructorId, gradebookFormat, currentUser),
+                "instructor-" + instructorId, gradebookFormat);
+    }
+
+    private ResponseEntity<StreamingResponseBody> gradebook(StreamingResponseBody body, String name,
+                                                            GradebookFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("gradebook-" + name + "." + format.extension())
+                                .build().toString())
+                .body(body);
+    }
+
+    // ========== CURSOR READ OPERATIONS ==========
+
+    /**
+     * Keyset-paginated variant of the student listing, newest first.
+     * Stays as fast on the last page as on the first and runs no count query.
+     */
+    @GetMapping("/student/{userId}/cursor")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPage<EnrollmentResponseDto>> getEnrollmentsByStudentIdCursor(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            CurrentUser currentUser) {
+
+        return ResponseEntity.ok(enrollmentService.getEnrollmentsByStudentIdAfter(
+                userId, cursor, size, currentUser));
+    }
+
+    /**
+     * Keyset-paginated variant of the instructor listing, newest first.
+     */
+    @GetMapping("/instructor/{instructorId}/cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<CursorPage<EnrollmentResponseDto>> getEnrollmentsByInstructorIdCursor(
+            @PathVariable Long instructorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            CurrentUser currentUser) {
+
+        return ResponseEntity.ok(enrollmentService.getEnrollmentsByInstructorIdAfter(
+                instructorId, cursor, size, currentUser));
+    }
+
+    /**
+     * Keyset-paginated variant of the course listing, newest first.
+     */
+    @GetMapping("/course/{courseId}/cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<CursorPage<EnrollmentResponseDto>> getEnrollmentsByCourseIdCursor(
+            @PathVariable Long courseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            CurrentUser currentUser) {
+
+        return ResponseEntity.ok(enrollmentService.getEnrollmentsByCourseIdAfter(
+                courseId, cursor, size, currentUser));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demo.enrollment;
+
+import com.example.demo.exception.model.ErrorCode;
+import com.example.demo.exception.types.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last enrollment returned, in (dateOfEnrollment desc, id desc) order.
+ * Sent to clients as an opaque URL-safe token.
+ */
+record EnrollmentCursor(LocalDateTime dateOfEnrollment , Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    static EnrollmentCursor of(EnrollmentResponseDto enrollment) {
+        return new EnrollmentCursor ( enrollment.dateOfEnrollment ( ) , enrollment.id ( ) );
+    }
+
+    String encode() {
+        String raw = dateOfEnrollment + SEPARATOR + id;
+        return Base64.getUrlEncoder ( ).withoutPadding ( ).encodeToString ( raw.getBytes ( StandardCharsets.UTF_8 ) );
+    }
+
+    /**
+     * Returns null for a missing cursor, meaning the first slice.
+     */
+    static EnrollmentCursor decode(String token) {
+
+        if (token == null || token.isBlank ( )) {
+            return null;
+        }
+
+        try {
+            String raw = new String ( Base64.getUrlDecoder ( ).decode ( token ) , StandardCharsets.UTF_8 );
+            int separator = raw.lastIndexOf ( SEPARATOR );
+            return new EnrollmentCursor (
+                    LocalDateTime.parse ( raw.substring ( 0 , separator ) ) ,
+                    Long.parseLong ( raw.substring ( separator + 1 ) )
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException ( ErrorCode.INVALID_INPUT.toString ( ) , "Invalid pagination cursor" );
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.enrollment;
 
 import com.example.demo.user.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,43 +9,102 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 
 public interface EnrollmentRepository extends JpaRepository<Enrollment,Long> {
 
-    @Query ("SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END " +
-            "FROM Enrollment e " +
-            "WHERE e.user.id=:user_id AND e.course.id=:course_id")
+    @Query (value = "SELECT EXISTS (SELECT 1 FROM enrollment " +
+            "WHERE user_id = :user_id AND course_id = :course_id)",
+            nativeQuery = true)
 
     boolean existsByUserIdAndCourseId(@Param ( "user_id" ) Long userId,
                                       @Param ( "course_id" ) Long courseId);
 
-    Page<Enrollment> findByUser_Id(Long userId , Pageable pageable);
+    // ---- Read views: one query per page, only the columns EnrollmentResponseDto needs ----
 
-    Page<Enrollment> findByCourseId(Long courseId , Pageable pageable);
+    String VIEW = "SELECT new com.example.demo.enrollment.EnrollmentResponseDto(" +
+            "e.id, concat(u.firstName, ' ', u.lastName), c.title, e.dateOfEnrollment, " +
+            "e.isActive, e.progress, e.completionDate, e.finalGrade) " +
+            "FROM Enrollment e JOIN e.user u JOIN e.course c ";
 
+    @Query(value = VIEW,
+            countQuery = "SELECT count(e) FROM Enrollment e")
+    Page<EnrollmentResponseDto> findAllViews(Pageable pageable);
 
-    @Query("SELECT e FROM Enrollment e join Course c " +
-            " on e.course.id = c.id" +
-            " where c.instructor.id =:instructorId" +
-            " order by e.dateOfEnrollment desc "
-    )
-    Page<Enrollment> findByInstructorId(Long instructorId , Pageable pageable);
+    @Query(value = VIEW + "WHERE u.id = :userId",
+            countQuery = "SELECT count(e) FROM Enrollment e WHERE e.user.id = :userId")
+    Page<EnrollmentResponseDto> findViewsByStudent(@Param("userId") Long userId , Pageable pageable);
+
+    @Query(value = VIEW + "WHERE c.id = :courseId",
+            countQuery = "SELECT count(e) FROM Enrollment e WHERE e.course.id = :courseId")
+    Page<EnrollmentResponseDto> findViewsByCourse(@Param("courseId") Long courseId , Pageable pageable);
+
+    @Query(value = VIEW + "WHERE c.instructor.id = :instructorId ORDER BY e.dateOfEnrollment DESC",
+            countQuery = "SELECT count(e) FROM Enrollment e WHERE e.course.instructor.id = :instructorId")
+    Page<EnrollmentResponseDto> findViewsByInstructor(@Param("instructorId") Long instructorId , Pageable pageable);
+
+    // Bulk enrollment: which of these students already hold an enrollment in the course, in one query.
+    @Query("SELECT e.user.id FROM Enrollment e WHERE e.course.id = :courseId AND e.user.id IN :userIds")
+    Set<Long> findEnrolledUserIds(@Param("courseId") Long courseId , @Param("userIds") Collection<Long> userIds);
 
     @Query ("select e.course.instructor.email from Enrollment e where e.id = :enrollmentId ")
     String findInstructorEmailByEnrollmentId (@Param ( "enrollmentId" ) Long enrollmentId );
 
-    @Query("SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END " +
-            "FROM Enrollment e " +
-            "WHERE e.user.id = :userId " +
-            "AND e.course.instructor.id = :instructorId")
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM enrollment e " +
+            "JOIN course c ON c.id = e.course_id " +
+            "WHERE e.user_id = :userId " +
+            "AND c.instructor_id = :instructorId)",
+            nativeQuery = true)
     boolean existsByUserIdAndInstructorId(@Param("userId") Long userId,
                                           @Param("instructorId") Long instructorId);
-}
-
-
-
 
+    // ---- Keyset pages, newest first on (dateOfEnrollment, id); no count query ----
+
+    @Query(VIEW +
+            "WHERE u.id = :userId " +
+            "ORDER BY e.dateOfEnrollment DESC, e.id DESC")
+    List<EnrollmentResponseDto> findFirstByStudent(@Param("userId") Long userId , Limit limit);
+
+    @Query(VIEW +
+            "WHERE u.id = :userId " +
+            "AND (e.dateOfEnrollment < :date OR (e.dateOfEnrollment = :date AND e.id < :id)) " +
+            "ORDER BY e.dateOfEnrollment DESC, e.id DESC")
+    List<EnrollmentResponseDto> findByStudentAfter(@Param("userId") Long userId ,
+                                        @Param("date") LocalDateTime date ,
+                                        @Param("id") Long id ,
+                                        Limit limit);
+
+    @Query(VIEW +
+            "WHERE c.id = :courseId " +
+            "ORDER BY e.dateOfEnrollment DESC, e.id DESC")
+    List<EnrollmentResponseDto> findFirstByCourse(@Param("courseId") Long courseId , Limit limit);
+
+    @Query(VIEW +
+            "WHERE c.id = :courseId " +
+            "AND (e.dateOfEnrollment < :date OR (e.dateOfEnrollment = :date AND e.id < :id)) " +
+            "ORDER BY e.dateOfEnrollment DESC, e.id DESC")
+    List<EnrollmentResponseDto> findByCourseAfter(@Param("courseId") Long courseId ,
+                                       @Param("date") LocalDateTime date ,
+                                       @Param("id") Long id ,
+                                       Limit limit);
+
+    @Query(VIEW +
+            "WHERE c.instructor.id = :instructorId " +
+            "ORDER BY e.dateOfEnrollment DESC, e.id DESC")
+    List<EnrollmentResponseDto> findFirstByInstructor(@Param("instructorId") Long instructorId , Limit limit);
+
+    @Query(VIEW +
+            "WHERE c.instructor.id = :instructorId " +
+            "AND (e.dateOfEnrollment < :date OR (e.dateOfEnrollment = :date AND e.id < :id)) " +
+            "ORDER BY e.dateOfEnrollment DESC, e.id DESC")
+    List<EnrollmentResponseDto> findByInstructorAfter(@Param("instructorId") Long instructorId ,
+                                           @Param("date") LocalDateTime date ,
+                                           @Param("id") Long id ,
+                                           Limit limit);
+}
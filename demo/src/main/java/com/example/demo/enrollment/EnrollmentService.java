@@ -11,47 +11,64 @@ import com.example.demo.exception.types.InActiveException;
 import com.example.demo.exception.types.InvalidRoleException;
 import com.example.demo.exception.types.NotFoundException;
 import com.example.demo.course.CourseRepository;
+import com.example.demo.security.CurrentUser;
 import com.example.demo.user.UserRepository;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class EnrollmentService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final EnrollmentMapper enrollmentMapper;
     private final EnrollmentRepository enrollmentRepository;
+    private final GradebookExporter gradebookExporter;
+    private final EnrollmentStatsService enrollmentStatsService;
 
     public EnrollmentService(UserRepository userRepository, CourseRepository courseRepository,
-                             EnrollmentMapper enrollmentMapper, EnrollmentRepository enrollmentRepository) {
+                             EnrollmentMapper enrollmentMapper, EnrollmentRepository enrollmentRepository,
+                             GradebookExporter gradebookExporter, EnrollmentStatsService enrollmentStatsService) {
         this.userRepository = userRepository;
         this.courseRepository = courseRepository;
         this.enrollmentMapper = enrollmentMapper;
         this.enrollmentRepository = enrollmentRepository;
+        this.gradebookExporter = gradebookExporter;
+        this.enrollmentStatsService = enrollmentStatsService;
     }
 
     // ========== CREATE ENROLLMENT ==========
 
     @Transactional
-    public EnrollmentResponseDto createEnrollment(@Valid EnrollmentCreateDto dto, Authentication authentication) {
+    public EnrollmentResponseDto createEnrollment(@Valid EnrollmentCreateDto dto, CurrentUser currentUser) {
         Objects.requireNonNull(dto, "Enrollment cannot be null");
-        Objects.requireNonNull(authentication, "Authentication cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
 
         log.info("Starting enrollment creation for studentId: {}, courseId: {}", dto.userId(), dto.courseId());
 
 
-        User currentUser = getCurrentUser(authentication);
         validateEnrollmentCreationOwnership(dto, currentUser);
 
 
@@ -65,7 +82,7 @@ public class EnrollmentService {
 
 
         User student = validateUserForEnrollment(dto);
-        Course course = validateCourseForEnrollment(dto);
+        Course course = validateCourseForEnrollment(dto.courseId());
 
 
         if (student.getId().equals(course.getInstructor().getId())) {
@@ -79,6 +96,7 @@ public class EnrollmentService {
         toSave.setUser(student);
         toSave.setCourse(course);
         Enrollment saved = enrollmentRepository.save(toSave);
+        enrollmentStatsService.recordChange(course.getId(), EnrollmentStatsService.Counters.NONE, saved);
 
         log.info("Enrollment created with id: {} for user id: {} in course id: {} by user: {}",
                 saved.getId(), student.getId(), course.getId(), currentUser.getEmail());
@@ -86,13 +104,88 @@ public class EnrollmentService {
         return enrollmentMapper.toEnrollmentResponseDto(saved);
     }
 
+    /**
+     * Enrolls a cohort in one course. The course and the caller are checked once; all students are
+     * loaded with one IN query and existing enrollments found with another, then the new rows are
+     * inserted in JDBC batches. Students that can not be enrolled are reported per row, not thrown.
+     */
+    @Transactional
+    public BulkEnrollmentResultDto createEnrollments(@Valid BulkEnrollmentCreateDto dto, CurrentUser currentUser) {
+        Objects.requireNonNull(dto, "Bulk enrollment cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
+
+        Course course = validateCourseForEnrollment(dto.courseId());
+
+        if (currentUser.getRole() != Role.ADMIN && currentUser.getRole() != Role.INSTRUCTOR) {
+            throw new AccessDeniedException("Not authorized to create bulk enrollments");
+        }
+        if (currentUser.getRole() == Role.INSTRUCTOR && !course.getInstructor().getId().equals(currentUser.getId())) {
+            throw new AccessDeniedException("Instructors can only enroll students in their own courses");
+        }
+
+        Set<Long> requestedIds = new LinkedHashSet<>(dto.userIds());
+        Map<Long, User> users = userRepository.findAllById(requestedIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Set<Long> alreadyEnrolled = enrollmentRepository.findEnrolledUserIds(course.getId(), requestedIds);
+
+        List<BulkEnrollmentResultDto.Row> rows = new ArrayList<>(dto.userIds().size());
+        Map<Integer, Enrollment> toSave = new LinkedHashMap<>();
+        Set<Long> seen = new HashSet<>();
+
+        for (Long userId : dto.userIds()) {
+            BulkEnrollmentOutcome outcome = bulkOutcome(userId, users.get(userId), course, alreadyEnrolled, seen);
+
+            if (outcome == BulkEnrollmentOutcome.ENROLLED) {
+                Enrollment enrollment = enrollmentMapper.toEnrollment(new EnrollmentCreateDto(userId, course.getId()));
+                enrollment.setUser(users.get(userId));
+                enrollment.setCourse(course);
+                toSave.put(rows.size(), enrollment);
+            }
+            rows.add(new BulkEnrollmentResultDto.Row(userId, outcome, null));
+        }
+
+        // Ids come from the pooled sequence, so saveAll goes out as batched inserts.
+        enrollmentRepository.saveAll(toSave.values());
+        enrollmentStatsService.recordNewEnrollments(course.getId(), toSave.values());
+        toSave.forEach((index, enrollment) -> rows.set(index,
+                new BulkEnrollmentResultDto.Row(enrollment.getUser().getId(), BulkEnrollmentOutcome.ENROLLED, enrollment.getId())));
+
+        log.info("Bulk enrollment into course id: {} by user: {}: {} of {} enrolled",
+                course.getId(), currentUser.getEmail(), toSave.size(), dto.userIds().size());
+
+        return new BulkEnrollmentResultDto(course.getId(), dto.userIds().size(), toSave.size(), rows);
+    }
+
+    private BulkEnrollmentOutcome bulkOutcome(Long userId, User user, Course course,
+                                              Set<Long> alreadyEnrolled, Set<Long> seen) {
+        if (!seen.add(userId)) {
+            return BulkEnrollmentOutcome.DUPLICATE_IN_REQUEST;
+        }
+        if (user == null) {
+            return BulkEnrollmentOutcome.USER_NOT_FOUND;
+        }
+        if (user.getId().equals(course.getInstructor().getId())) {
+            return BulkEnrollmentOutcome.COURSE_INSTRUCTOR;
+        }
+        if (!Role.STUDENT.equals(user.getRole())) {
+            return BulkEnrollmentOutcome.NOT_A_STUDENT;
+        }
+        if (!user.isActive()) {
+            return BulkEnrollmentOutcome.INACTIVE_USER;
+        }
+        if (alreadyEnrolled.contains(userId)) {
+            return BulkEnrollmentOutcome.ALREADY_ENROLLED;
+        }
+        return BulkEnrollmentOutcome.ENROLLED;
+    }
+
     // ========== UPDATE ENROLLMENT ==========
 
     @Transactional
-    public EnrollmentResponseDto updateEnrollment(Long id, @Valid EnrollmentUpdateDto dto, Authentication authentication) {
+    public EnrollmentResponseDto updateEnrollment(Long id, @Valid EnrollmentUpdateDto dto, CurrentUser currentUser) {
         Objects.requireNonNull(id, "Enrollment id cannot be null");
         Objects.requireNonNull(dto, "Update data cannot be null");
-        Objects.requireNonNull(authentication, "Authentication cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
 
         log.info("Updating enrollment with id: {}", id);
 
@@ -103,13 +196,14 @@ public class EnrollmentService {
                         "Enrollment with id " + id + " not found"
                 ));
 
-        User currentUser = getCurrentUser(authentication);
+
         validateEnrollmentUpdateOwnership(enrollment, currentUser);
 
 
         BigDecimal oldGrade = enrollment.getFinalGrade();
         Progress oldProgress = enrollment.getProgress();
         Boolean oldIsActive = enrollment.getIsActive();
+        EnrollmentStatsService.Counters oldCounters = EnrollmentStatsService.Counters.of(enrollment);
 
 
         if (enrollment.getProgress() == Progress.COMPLETED) {
@@ -139,6 +233,7 @@ public class EnrollmentService {
 
         enrollment.setUpdatedAt(LocalDateTime.now());
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        enrollmentStatsService.recordChange(savedEnrollment.getCourse().getId(), oldCounters, savedEnrollment);
 
         logEnrollmentUpdate(savedEnrollment, currentUser.getEmail(), oldGrade, oldProgress, oldIsActive);
 
@@ -148,9 +243,9 @@ public class EnrollmentService {
     // ========== CANCEL ENROLLMENT ==========
 
     @Transactional
-    public EnrollmentResponseDto cancelEnrollment(Long id, Authentication authentication) {
+    public EnrollmentResponseDto cancelEnrollment(Long id, CurrentUser currentUser) {
         Objects.requireNonNull(id, "Enrollment id cannot be null");
-        Objects.requireNonNull(authentication, "Authentication cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
 
         log.info("Canceling enrollment with id: {}", id);
 
@@ -162,7 +257,6 @@ public class EnrollmentService {
                 ));
 
 
-        User currentUser = getCurrentUser(authentication);
         validateEnrollmentCancellationOwnership(enrollment, currentUser);
 
 
@@ -176,6 +270,7 @@ public class EnrollmentService {
 
 
         Progress oldProgress = enrollment.getProgress();
+        EnrollmentStatsService.Counters oldCounters = EnrollmentStatsService.Counters.of(enrollment);
 
 
         enrollment.setProgress(Progress.CANCELLED);
@@ -183,6 +278,7 @@ public class EnrollmentService {
         enrollment.setUpdatedAt(LocalDateTime.now());
 
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        enrollmentStatsService.recordChange(savedEnrollment.getCourse().getId(), oldCounters, savedEnrollment);
 
         log.info("Enrollment [{}] cancelled by user [{}]. Previous status: {}",
                 savedEnrollment.getId(), currentUser.getEmail(), oldProgress);
@@ -193,10 +289,8 @@ public class EnrollmentService {
     // ========== READ OPERATIONS ==========
 
     @Transactional(readOnly = true)
-    public Page<EnrollmentResponseDto> getAllEnrollments(Pageable pageable, Authentication authentication) {
-        Objects.requireNonNull(authentication, "Authentication cannot be null");
-
-        User currentUser = getCurrentUser(authentication);
+    public Page<EnrollmentResponseDto> getAllEnrollments(Pageable pageable, CurrentUser currentUser) {
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
 
 
         if (currentUser.getRole() != Role.ADMIN) {
@@ -204,14 +298,13 @@ public class EnrollmentService {
         }
 
         log.debug("Admin {} viewing all enrollments", currentUser.getEmail());
-        return enrollmentRepository.findAll(pageable)
-                .map(enrollmentMapper::toEnrollmentResponseDto);
+        return enrollmentRepository.findAllViews(pageable);
     }
 
     @Transactional(readOnly = true)
-    public EnrollmentResponseDto getEnrollmentById(Long id, Authentication authentication) {
+    public EnrollmentResponseDto getEnrollmentById(Long id, CurrentUser currentUser) {
         Objects.requireNonNull(id, "Enrollment id cannot be null");
-        Objects.requireNonNull(authentication, "Authentication cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
 
         log.debug("Fetching enrollment with id: {}", id);
 
@@ -223,7 +316,6 @@ public class EnrollmentService {
                 ));
 
 
-        User currentUser = getCurrentUser(authentication);
         validateEnrollmentViewOwnership(enrollment, currentUser);
 
         return enrollmentMapper.toEnrollmentResponseDto(enrollment);
@@ -231,12 +323,36 @@ public class EnrollmentService {
 
     @Transactional(readOnly = true)
     public Page<EnrollmentResponseDto> getEnrollmentsByStudentId(Long userId, Pageable pageable,
-                                                                 Authentication authentication) {
+                                                                 CurrentUser currentUser) {
         Objects.requireNonNull(userId, "User id cannot be null");
-        Objects.requireNonNull(authentication, "Authentication cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
 
         log.debug("Fetching enrollments for userId: {}", userId);
 
+        validateStudentEnrollmentsView(userId, currentUser);
+
+        return enrollmentRepository.findViewsByStudent(userId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<EnrollmentResponseDto> getEnrollmentsByStudentIdAfter(Long userId, String cursor, int size,
+                                                                           CurrentUser currentUser) {
+        Objects.requireNonNull(userId, "User id cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
+
+        validateStudentEnrollmentsView(userId, currentUser);
+
+        EnrollmentCursor after = EnrollmentCursor.decode(cursor);
+        Limit limit = Limit.of(cursorPageSize(size) + 1);
+
+        List<EnrollmentResponseDto> rows = after == null
+                ? enrollmentRepository.findFirstByStudent(userId, limit)
+                : enrollmentRepository.findByStudentAfter(userId, after.dateOfEnrollment(), after.id(), limit);
+
+        return toCursorPage(rows, size);
+    }
+
+    private void validateStudentEnrollmentsView(Long userId, CurrentUser currentUser) {
 
         User targetStudent = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException(
@@ -254,21 +370,41 @@ public class EnrollmentService {
         }
 
 
-        User currentUser = getCurrentUser(authentication);
         validateStudentEnrollmentsViewAccess(targetStudent, currentUser);
-
-        return enrollmentRepository.findByUser_Id(userId, pageable)
-                .map(enrollmentMapper::toEnrollmentResponseDto);
     }
 
     @Transactional(readOnly = true)
     public Page<EnrollmentResponseDto> getEnrollmentsByInstructorId(Long instructorId, Pageable pageable,
-                                                                    Authentication authentication) {
+                                                                    CurrentUser currentUser) {
         Objects.requireNonNull(instructorId, "Instructor id cannot be null");
-        Objects.requireNonNull(authentication, "Authentication cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
 
         log.debug("Fetching enrollments for instructorId: {}", instructorId);
 
+        validateInstructorEnrollmentsView(instructorId, currentUser);
+
+        return enrollmentRepository.findViewsByInstructor(instructorId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<EnrollmentResponseDto> getEnrollmentsByInstructorIdAfter(Long instructorId, String cursor,
+                                                                              int size, CurrentUser currentUser) {
+        Objects.requireNonNull(instructorId, "Instructor id cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
+
+        validateInstructorEnrollmentsView(instructorId, currentUser);
+
+        EnrollmentCursor after = EnrollmentCursor.decode(cursor);
+        Limit limit = Limit.of(cursorPageSize(size) + 1);
+
+        List<EnrollmentResponseDto> rows = after == null
+                ? enrollmentRepository.findFirstByInstructor(instructorId, limit)
+                : enrollmentRepository.findByInstructorAfter(instructorId, after.dateOfEnrollment(), after.id(), limit);
+
+        return toCursorPage(rows, size);
+    }
+
+    private void validateInstructorEnrollmentsView(Long instructorId, CurrentUser currentUser) {
 
         User targetInstructor = userRepository.findById(instructorId)
                 .orElseThrow(() -> new NotFoundException(
@@ -286,23 +422,43 @@ public class EnrollmentService {
         }
 
 
-        User currentUser = getCurrentUser(authentication);
         if (currentUser.getRole() != Role.ADMIN && !currentUser.getId().equals(instructorId)) {
             throw new AccessDeniedException("Can only view your own instructor enrollments");
         }
-
-        return enrollmentRepository.findByInstructorId(instructorId, pageable)
-                .map(enrollmentMapper::toEnrollmentResponseDto);
     }
 
     @Transactional(readOnly = true)
     public Page<EnrollmentResponseDto> getEnrollmentsByCourseId(Long courseId, Pageable pageable,
-                                                                Authentication authentication) {
+                                                                CurrentUser currentUser) {
         Objects.requireNonNull(courseId, "Course id cannot be null");
-        Objects.requireNonNull(authentication, "Authentication cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
 
         log.debug("Fetching enrollments for courseId: {}", courseId);
 
+        validateCourseEnrollmentsView(courseId, currentUser);
+
+        return enrollmentRepository.findViewsByCourse(courseId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<EnrollmentResponseDto> getEnrollmentsByCourseIdAfter(Long courseId, String cursor, int size,
+                                                                          CurrentUser currentUser) {
+        Objects.requireNonNull(courseId, "Course id cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
+
+        validateCourseEnrollmentsView(courseId, currentUser);
+
+        EnrollmentCursor after = EnrollmentCursor.decode(cursor);
+        Limit limit = Limit.of(cursorPageSize(size) + 1);
+
+        List<EnrollmentResponseDto> rows = after == null
+                ? enrollmentRepository.findFirstByCourse(courseId, limit)
+                : enrollmentRepository.findByCourseAfter(courseId, after.dateOfEnrollment(), after.id(), limit);
+
+        return toCursorPage(rows, size);
+    }
+
+    private void validateCourseEnrollmentsView(Long courseId, CurrentUser currentUser) {
 
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new NotFoundException(
@@ -311,17 +467,97 @@ public class EnrollmentService {
                 ));
 
 
-        User currentUser = getCurrentUser(authentication);
         validateCourseEnrollmentsViewAccess(course, currentUser);
+    }
 
-        return enrollmentRepository.findByCourseId(courseId, pageable)
-                .map(enrollmentMapper::toEnrollmentResponseDto);
+    // ========== GRADEBOOK EXPORT ==========
+
+    /**
+     * Access is checked here, before the response is committed; the returned body then streams
+     * every enrollment of the course from a JDBC cursor.
+     */
+    @Transactional(readOnly = true)
+    public StreamingResponseBody exportCourseGradebook(Long courseId, GradebookFormat format, CurrentUser currentUser) {
+        Objects.requireNonNull(courseId, "Course id cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
+
+        validateCourseEnrollmentsView(courseId, currentUser);
+
+        log.info("Gradebook export ({}) of course id: {} by user: {}", format, courseId, currentUser.getEmail());
+        return gradebookExporter.byCourse(courseId, format);
     }
 
+    @Transactional(readOnly = true)
+    public StreamingResponseBody exportInstructorGradebook(Long instructorId, GradebookFormat format,
+                                                           CurrentUser currentUser) {
+        Objects.requireNonNull(instructorId, "Instructor id cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
 
+        validateInstructorEnrollmentsView(instructorId, currentUser);
 
+        log.info("Gradebook export ({}) of instructor id: {} by user: {}", format, instructorId, currentUser.getEmail());
+        return gradebookExporter.byInstructor(instructorId, format);
+    }
+
+    // ========== COURSE STATISTICS ==========
+
+    @Transactional(readOnly = true)
+    public CourseEnrollmentStatsDto getCourseStats(Long courseId, CurrentUser currentUser) {
+        Objects.requireNonNull(courseId, "Course id cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
+
+        validateCourseEnrollmentsView(courseId, currentUser);
+
+        return enrollmentStatsService.getCourseStats(courseId);
+    }
+
+    // ========== GRADE DISTRIBUTIONS ==========
 
-    private void validateEnrollmentCreationOwnership(EnrollmentCreateDto dto, User currentUser) {
+    @Transactional(readOnly = true)
+    public GradeDistributionDto getCourseGradeDistribution(Long courseId, CurrentUser currentUser) {
+        Objects.requireNonNull(courseId, "Course id cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
+
+        validateCourseEnrollmentsView(courseId, currentUser);
+
+        return enrollmentStatsService.getCourseGradeDistribution(courseId);
+    }
+
+    @Transactional(readOnly = true)
+    public GradeDistributionDto getInstructorGradeDistribution(Long instructorId, CurrentUser currentUser) {
+        Objects.requireNonNull(instructorId, "Instructor id cannot be null");
+        Objects.requireNonNull(currentUser, "Current user cannot be null");
+
+        validateInstructorEnrollmentsView(instructorId, currentUser);
+
+        return enrollmentStatsService.getInstructorGradeDistribution(instructorId);
+    }
+
+    @Transactional(readOnly = true)
+    public GradeDistributionDto getCategoryGradeDistribution(Long categoryId) {
+        return enrollmentStatsService.getCategoryGradeDistribution(categoryId);
+    }
+
+    private int cursorPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+    }
+
+    // Rows were fetched with one extra, which only tells whether another slice exists.
+    private CursorPage<EnrollmentResponseDto> toCursorPage(List<EnrollmentResponseDto> rows, int size) {
+
+        int pageSize = cursorPageSize(size);
+        boolean hasNext = rows.size() > pageSize;
+        List<EnrollmentResponseDto> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = hasNext ? EnrollmentCursor.of(page.get(page.size() - 1)).encode() : null;
+
+        return new CursorPage<>(List.copyOf(page), nextCursor, hasNext);
+    }
+
+
+
+
+    private void validateEnrollmentCreationOwnership(EnrollmentCreateDto dto, CurrentUser currentUser) {
 
         if (currentUser.getRole() == Role.ADMIN) {
             return;
@@ -353,7 +589,7 @@ public class EnrollmentService {
     }
 
 
-    private void validateEnrollmentUpdateOwnership(Enrollment enrollment, User currentUser) {
+    private void validateEnrollmentUpdateOwnership(Enrollment enrollment, CurrentUser currentUser) {
 
         if (currentUser.getRole() == Role.ADMIN) {
             return;
@@ -372,7 +608,7 @@ public class EnrollmentService {
     }
 
 
-    private void validateEnrollmentCancellationOwnership(Enrollment enrollment, User currentUser) {
+    private void validateEnrollmentCancellationOwnership(Enrollment enrollment, CurrentUser currentUser) {
 
         if (currentUser.getRole() == Role.ADMIN) {
             return;
@@ -391,7 +627,7 @@ public class EnrollmentService {
     }
 
 
-    private void validateEnrollmentViewOwnership(Enrollment enrollment, User currentUser) {
+    private void validateEnrollmentViewOwnership(Enrollment enrollment, CurrentUser currentUser) {
 
         if (currentUser.getRole() == Role.ADMIN) {
             return;
@@ -417,7 +653,7 @@ public class EnrollmentService {
     }
 
 
-    private void validateStudentEnrollmentsViewAccess(User targetStudent, User currentUser) {
+    private void validateStudentEnrollmentsViewAccess(User targetStudent, CurrentUser currentUser) {
 
         if (currentUser.getRole() == Role.ADMIN) {
             return;
@@ -445,7 +681,7 @@ public class EnrollmentService {
     }
 
 
-    private void validateCourseEnrollmentsViewAccess(Course course, User currentUser) {
+    private void validateCourseEnrollmentsViewAccess(Course course, CurrentUser currentUser) {
 
         if (currentUser.getRole() == Role.ADMIN) {
             return;
@@ -634,15 +870,15 @@ public class EnrollmentService {
     }
 
 
-    private Course validateCourseForEnrollment(EnrollmentCreateDto dto) {
-        log.debug("Validating course with id: {}", dto.courseId());
+    private Course validateCourseForEnrollment(Long courseId) {
+        log.debug("Validating course with id: {}", courseId);
 
-        Course course = courseRepository.findById(dto.courseId())
+        Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> {
-                    log.error("Course not found with id: {}", dto.courseId());
+                    log.error("Course not found with id: {}", courseId);
                     return new NotFoundException(
                             ErrorCode.COURSE_NOT_FOUND.toString(),
-                            "Course with id " + dto.courseId() + " not found"
+                            "Course with id " + courseId + " not found"
                     );
                 });
 
@@ -666,13 +902,4 @@ public class EnrollmentService {
 
         return course;
     }
-
-
-    private User getCurrentUser(Authentication authentication) {
-        return userRepository.findByEmailIgnoreCase(authentication.getName())
-                .orElseThrow(() -> new NotFoundException(
-                        ErrorCode.USER_NOT_FOUND.toString(),
-                        "User with email " + authentication.getName() + " not found"
-                ));
-    }
-}
\ No newline at end of file
+}
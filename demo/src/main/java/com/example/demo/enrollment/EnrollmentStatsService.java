@@ -0,0 +1,369 @@
+package com.example.demo.enrollment;
+
+import com.example.demo.category.CategoryRepository;
+import com.example.demo.course.CourseRepository;
+import com.example.demo.exception.model.ErrorCode;
+import com.example.demo.exception.types.NotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Per-course enrollment statistics. EnrollmentService reports every change as a delta, applied in
+ * its own transaction, so reads are a single primary-key lookup. A scheduled job recomputes the
+ * counters from the enrollment table a chunk of courses at a time, corrects and reports any drift.
+ * <p>
+ * Each course also keeps a {@link GradeHistogram} for grade percentiles. It changes only when a
+ * grade does, and category or instructor distributions are the sum of their courses' histograms.
+ */
+@Slf4j
+@Service
+
+public class EnrollmentStatsService {
+
+    // Locks the chunk's stats rows first: a concurrent delta either committed before the recount
+    // (and is counted) or waits on the lock and lands on top of the corrected values.
+    private static final String LOCK_CHUNK =
+            "SELECT course_id FROM course_enrollment_stats WHERE course_id > ? AND course_id <= ? FOR UPDATE";
+
+    private static final String RECOUNT_CHUNK =
+            "SELECT c.id, " +
+            "count(e.id) AS enrollments, " +
+            "count(e.id) FILTER (WHERE e.is_active) AS active, " +
+            "count(e.id) FILTER (WHERE e.progress = 'COMPLETED') AS completed, " +
+            "count(e.final_grade) AS graded, " +
+            "coalesce(sum(e.final_grade), 0) AS grade_sum, " +
+            "s.course_id IS NOT NULL AS tracked, " +
+            "coalesce(s.enrollments, 0) <> count(e.id) " +
+            "OR coalesce(s.active_enrollments, 0) <> count(e.id) FILTER (WHERE e.is_active) " +
+            "OR coalesce(s.completed_enrollments, 0) <> count(e.id) FILTER (WHERE e.progress = 'COMPLETED') " +
+            "OR coalesce(s.graded_enrollments, 0) <> count(e.final_grade) " +
+            "OR coalesce(s.grade_sum, 0) <> coalesce(sum(e.final_grade), 0) AS drifted " +
+            "FROM course c " +
+            "LEFT JOIN enrollment e ON e.course_id = c.id " +
+            "LEFT JOIN course_enrollment_stats s ON s.course_id = c.id " +
+            "WHERE c.id > ? AND c.id <= ? " +
+            "GROUP BY c.id, s.course_id, s.enrollments, s.active_enrollments, s.completed_enrollments, " +
+            "s.graded_enrollments, s.grade_sum";
+
+    private static final String OVERWRITE =
+            "INSERT INTO course_enrollment_stats (course_id, enrollments, active_enrollments, completed_enrollments, " +
+            "graded_enrollments, grade_sum, updated_at) VALUES (?, ?, ?, ?, ?, ?, now()) " +
+            "ON CONFLICT (course_id) DO UPDATE SET enrollments = EXCLUDED.enrollments, " +
+            "active_enrollments = EXCLUDED.active_enrollments, completed_enrollments = EXCLUDED.completed_enrollments, " +
+            "graded_enrollments = EXCLUDED.graded_enrollments, grade_sum = EXCLUDED.grade_sum, updated_at = now()";
+
+    private static final String RECOUNT_HISTOGRAMS =
+            "SELECT course_id, round(final_grade * 10)::int AS bin, count(*) AS graded FROM enrollment " +
+            "WHERE course_id > ? AND course_id <= ? AND final_grade IS NOT NULL GROUP BY course_id, bin";
+
+    private static final String CHUNK_HISTOGRAMS =
+            "SELECT course_id, grade_histogram FROM course_enrollment_stats WHERE course_id > ? AND course_id <= ?";
+
+    private static final String LOCK_HISTOGRAM =
+            "SELECT grade_histogram FROM course_enrollment_stats WHERE course_id = ? FOR UPDATE";
+
+    private static final String WRITE_HISTOGRAM =
+            "UPDATE course_enrollment_stats SET grade_histogram = ? WHERE course_id = ?";
+
+    private static final String COURSE_HISTOGRAM =
+            "SELECT grade_histogram FROM course_enrollment_stats WHERE course_id = ? AND grade_histogram IS NOT NULL";
+
+    private static final String CATEGORY_HISTOGRAMS =
+            "SELECT s.grade_histogram FROM course_enrollment_stats s JOIN course c ON c.id = s.course_id " +
+            "WHERE c.category_id = ? AND s.grade_histogram IS NOT NULL";
+
+    private static final String INSTRUCTOR_HISTOGRAMS =
+            "SELECT s.grade_histogram FROM course_enrollment_stats s JOIN course c ON c.id = s.course_id " +
+            "WHERE c.instructor_id = ? AND s.grade_histogram IS NOT NULL";
+
+    private static final int HISTOGRAM_BUCKET_WIDTH = 10;
+
+    private final CourseEnrollmentStatsRepository statsRepository;
+    private final CourseRepository courseRepository;
+    private final CategoryRepository categoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final Counter driftedCourses;
+    private final int chunkSize;
+
+    public EnrollmentStatsService(CourseEnrollmentStatsRepository statsRepository , CourseRepository courseRepository ,
+                                  CategoryRepository categoryRepository , JdbcTemplate jdbcTemplate , PlatformTransactionManager transactionManager ,
+                                  MeterRegistry meterRegistry ,
+                                  @Value("${enrollment.stats.reconcile.chunk-size:500}") int chunkSize) {
+        this.statsRepository = statsRepository;
+        this.courseRepository = courseRepository;
+        this.categoryRepository = categoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate ( transactionManager );
+        this.chunkSize = chunkSize;
+        this.driftedCourses = Counter.builder ( "enrollment.stats.drift" )
+                .description ( "Courses whose enrollment statistics were corrected by reconciliation" )
+                .register ( meterRegistry );
+    }
+
+    @Transactional(readOnly = true)
+    public CourseEnrollmentStatsDto getCourseStats(Long courseId) {
+        Objects.requireNonNull ( courseId , "Course id cannot be null" );
+
+        return statsRepository.findById ( courseId )
+                .map ( EnrollmentStatsService::toDto )
+                .orElseGet ( () -> {
+                    if (!courseRepository.existsById ( courseId )) {
+                        throw new NotFoundException (
+                                ErrorCode.COURSE_NOT_FOUND.toString ( ) , "Course with id " + courseId + " not found" );
+                    }
+                    return new CourseEnrollmentStatsDto ( courseId , 0 , 0 , 0 , 0 , null , null );
+                } );
+    }
+
+    @Transactional(readOnly = true)
+    public GradeDistributionDto getCourseGradeDistribution(Long courseId) {
+        Objects.requireNonNull ( courseId , "Course id cannot be null" );
+
+        if (!courseRepository.existsById ( courseId )) {
+            throw new NotFoundException (
+                    ErrorCode.COURSE_NOT_FOUND.toString ( ) , "Course with id " + courseId + " not found" );
+        }
+        return distribution ( COURSE_HISTOGRAM , courseId );
+    }
+
+    @Transactional(readOnly = true)
+    public GradeDistributionDto getCategoryGradeDistribution(Long categoryId) {
+        Objects.requireNonNull ( categoryId , "Category id cannot be null" );
+
+        if (!categoryRepository.existsById ( categoryId )) {
+            throw new NotFoundException (
+                    ErrorCode.CATEGORY_NOT_FOUND.toString ( ) , "Category with id " + categoryId + " not found" );
+        }
+        return distribution ( CATEGORY_HISTOGRAMS , categoryId );
+    }
+
+    // Callers check the instructor exists and may be viewed, see EnrollmentService.
+    @Transactional(readOnly = true)
+    public GradeDistributionDto getInstructorGradeDistribution(Long instructorId) {
+        Objects.requireNonNull ( instructorId , "Instructor id cannot be null" );
+        return distribution ( INSTRUCTOR_HISTOGRAMS , instructorId );
+    }
+
+    private GradeDistributionDto distribution(String sql , Long id) {
+        GradeHistogram merged = new GradeHistogram ( );
+        jdbcTemplate.query ( sql , rs -> {
+            merged.merge ( GradeHistogram.decode ( rs.getBytes ( 1 ) ) );
+        } , id );
+
+        return new GradeDistributionDto (
+                merged.total ( ) ,
+                merged.quantile ( 0.25 ) ,
+                merged.quantile ( 0.5 ) ,
+                merged.quantile ( 0.75 ) ,
+                merged.quantile ( 0.9 ) ,
+                merged.buckets ( HISTOGRAM_BUCKET_WIDTH )
+        );
+    }
+
+    /**
+     * Applies the difference between an enrollment's counters before a change (see
+     * {@link Counters#of}) and its state now. Must run inside the transaction that writes it.
+     */
+    void recordChange(Long courseId , Counters before , Enrollment after) {
+        apply ( courseId , Counters.of ( after ).minus ( before ) );
+
+        BigDecimal oldGrade = before.graded == 1 ? before.gradeSum : null;
+        BigDecimal newGrade = after.getFinalGrade ( );
+        if (oldGrade == null ? newGrade != null : newGrade == null || oldGrade.compareTo ( newGrade ) != 0) {
+            moveGrade ( courseId , oldGrade , newGrade );
+        }
+    }
+
+    // The delta upsert above already holds the row lock, so this read-modify-write can not race
+    // another grade change in the course. Rows created by the upsert start with an empty histogram;
+    // one that is still NULL predates histograms and has not been built by reconciliation yet,
+    // which will count this grade from the enrollment table.
+    private void moveGrade(Long courseId , BigDecimal oldGrade , BigDecimal newGrade) {
+        List<byte[]> stored = jdbcTemplate.query ( LOCK_HISTOGRAM , (rs , rowNum) -> rs.getBytes ( 1 ) , courseId );
+        if (stored.isEmpty ( ) || stored.get ( 0 ) == null) {
+            return;
+        }
+
+        GradeHistogram histogram = GradeHistogram.decode ( stored.get ( 0 ) );
+        if (oldGrade != null) {
+            histogram.remove ( oldGrade );
+        }
+        if (newGrade != null) {
+            histogram.add ( newGrade );
+        }
+        jdbcTemplate.update ( WRITE_HISTOGRAM , histogram.encode ( ) , courseId );
+    }
+
+    void recordNewEnrollments(Long courseId , Collection<Enrollment> created) {
+        Counters total = Counters.NONE;
+        for (Enrollment enrollment : created) {
+            total = total.plus ( Counters.of ( enrollment ) );
+        }
+        apply ( courseId , total );
+    }
+
+    private void apply(Long courseId , Counters delta) {
+        if (!delta.isZero ( )) {
+            statsRepository.applyDelta ( courseId , delta.enrollments , delta.active , delta.completed ,
+                    delta.graded , delta.gradeSum );
+        }
+    }
+
+    // ---- Reconciliation ----
+
+    @Scheduled(initialDelayString = "${enrollment.stats.reconcile.initial-delay:60000}",
+            fixedDelayString = "${enrollment.stats.reconcile.interval:3600000}")
+    public void reconcile() {
+
+        Long maxCourseId = jdbcTemplate.queryForObject ( "SELECT max(id) FROM course" , Long.class );
+        if (maxCourseId == null) {
+            return;
+        }
+
+        long drifted = 0;
+        for (long from = 0; from < maxCourseId; from += chunkSize) {
+            long lower = from;
+            long upper = from + chunkSize;
+            Long corrected = transaction.execute ( tx -> reconcileChunk ( lower , upper ) );
+            drifted += corrected == null ? 0 : corrected;
+        }
+
+        if (drifted > 0) {
+            log.warn ( "Enrollment statistics drifted for {} courses; corrected from the enrollment table" , drifted );
+        } else {
+            log.debug ( "Enrollment statistics reconciled, no drift" );
+        }
+    }
+
+    // Course ids in (lower, upper]. Returns how many courses drifted.
+    private long reconcileChunk(long lower , long upper) {
+
+        jdbcTemplate.queryForList ( LOCK_CHUNK , Long.class , lower , upper );
+
+        List<Object[]> corrections = jdbcTemplate.query ( RECOUNT_CHUNK , (rs , rowNum) -> {
+            boolean tracked = rs.getBoolean ( "tracked" );
+            boolean drifted = rs.getBoolean ( "drifted" );
+            long enrollments = rs.getLong ( "enrollments" );
+            // Courses without enrollments need no row until their first one.
+            if (!drifted || (!tracked && enrollments == 0)) {
+                return null;
+            }
+            log.warn ( "Enrollment statistics for course {} drifted, recounting" , rs.getLong ( "id" ) );
+            return new Object[] { rs.getLong ( "id" ) , enrollments , rs.getLong ( "active" ) ,
+                    rs.getLong ( "completed" ) , rs.getLong ( "graded" ) , rs.getBigDecimal ( "grade_sum" ) };
+        } , lower , upper ).stream ( ).filter ( Objects::nonNull ).toList ( );
+
+        Set<Long> drifted = new HashSet<> ( );
+        if (!corrections.isEmpty ( )) {
+            jdbcTemplate.batchUpdate ( OVERWRITE , corrections );
+            corrections.forEach ( row -> drifted.add ( (Long) row[0] ) );
+        }
+
+        drifted.addAll ( reconcileHistograms ( lower , upper ) );
+        driftedCourses.increment ( drifted.size ( ) );
+        return drifted.size ( );
+    }
+
+    // Runs after the counters so every course with enrollments has a row. A NULL histogram is
+    // built here for the first time and does not count as drift.
+    private Set<Long> reconcileHistograms(long lower , long upper) {
+
+        Map<Long, GradeHistogram> recounted = new HashMap<> ( );
+        jdbcTemplate.query ( RECOUNT_HISTOGRAMS , rs -> {
+            recounted.computeIfAbsent ( rs.getLong ( "course_id" ) , id -> new GradeHistogram ( ) )
+                    .addToBin ( rs.getInt ( "bin" ) , rs.getInt ( "graded" ) );
+        } , lower , upper );
+
+        Set<Long> drifted = new HashSet<> ( );
+        List<Object[]> writes = jdbcTemplate.query ( CHUNK_HISTOGRAMS , (rs , rowNum) -> {
+            long courseId = rs.getLong ( "course_id" );
+            byte[] stored = rs.getBytes ( "grade_histogram" );
+            GradeHistogram actual = recounted.getOrDefault ( courseId , new GradeHistogram ( ) );
+            if (stored != null && GradeHistogram.decode ( stored ).sameAs ( actual )) {
+                return null;
+            }
+            if (stored != null) {
+                log.warn ( "Grade histogram for course {} drifted, rebuilding" , courseId );
+                drifted.add ( courseId );
+            }
+            return new Object[] { actual.encode ( ) , courseId };
+        } , lower , upper ).stream ( ).filter ( Objects::nonNull ).toList ( );
+
+        if (!writes.isEmpty ( )) {
+            jdbcTemplate.batchUpdate ( WRITE_HISTOGRAM , writes );
+        }
+        return drifted;
+    }
+
+    private static CourseEnrollmentStatsDto toDto(CourseEnrollmentStats stats) {
+        double completionRate = stats.getEnrollments ( ) == 0
+                ? 0
+                : (double) stats.getCompletedEnrollments ( ) / stats.getEnrollments ( );
+        BigDecimal average = stats.getGradedEnrollments ( ) == 0
+                ? null
+                : stats.getGradeSum ( ).divide ( BigDecimal.valueOf ( stats.getGradedEnrollments ( ) ) , 2 , RoundingMode.HALF_UP );
+
+        return new CourseEnrollmentStatsDto (
+                stats.getCourseId ( ) ,
+                stats.getEnrollments ( ) ,
+                stats.getActiveEnrollments ( ) ,
+                stats.getCompletedEnrollments ( ) ,
+                completionRate ,
+                average ,
+                stats.getUpdatedAt ( )
+        );
+    }
+
+    /**
+     * What one enrollment contributes to its course's counters. {@link #NONE} stands for an
+     * enrollment that did not exist yet.
+     */
+    record Counters(long enrollments , long active , long completed , long graded , BigDecimal gradeSum) {
+
+        static final Counters NONE = new Counters ( 0 , 0 , 0 , 0 , BigDecimal.ZERO );
+
+        static Counters of(Enrollment e) {
+            boolean graded = e.getFinalGrade ( ) != null;
+            return new Counters (
+                    1 ,
+                    Boolean.TRUE.equals ( e.getIsActive ( ) ) ? 1 : 0 ,
+                    e.getProgress ( ) == Progress.COMPLETED ? 1 : 0 ,
+                    graded ? 1 : 0 ,
+                    graded ? e.getFinalGrade ( ) : BigDecimal.ZERO
+            );
+        }
+
+        Counters plus(Counters other) {
+            return new Counters ( enrollments + other.enrollments , active + other.active , completed + other.completed ,
+                    graded + other.graded , gradeSum.add ( other.gradeSum ) );
+        }
+
+        Counters minus(Counters other) {
+            return new Counters ( enrollments - other.enrollments , active - other.active , completed - other.completed ,
+                    graded - other.graded , gradeSum.subtract ( other.gradeSum ) );
+        }
+
+        boolean isZero() {
+            return enrollments == 0 && active == 0 && completed == 0 && graded == 0 && gradeSum.signum ( ) == 0;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.enrollment;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Grade percentiles (to within 0.05) and a histogram in buckets of 10 points, [0,10) ... [90,100].
+ */
+public record GradeDistributionDto(
+
+        long gradedEnrollments ,
+        BigDecimal p25 ,
+        BigDecimal median ,
+        BigDecimal p75 ,
+        BigDecimal p90 ,
+        List<Long> histogram
+
+) {
+}
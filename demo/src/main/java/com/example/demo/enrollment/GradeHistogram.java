@@ -0,0 +1,154 @@
+package com.example.demo.enrollment;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Grade distribution over 0..100 in fixed bins of 0.1, so quantiles are exact to within 0.05.
+ * Unlike a t-digest or KLL sketch it supports removal, which regrades need, and merging two
+ * histograms is a single pass over 1001 ints.
+ * <p>
+ * Persisted sparsely: a version byte, then (gap to the next non-empty bin, count) varint pairs,
+ * which is a few hundred bytes for a typical course.
+ */
+final class GradeHistogram {
+
+    private static final int BINS = 1001;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final int[] counts = new int[BINS];
+    private long total;
+
+    static GradeHistogram decode(byte[] encoded) {
+        GradeHistogram histogram = new GradeHistogram ( );
+        if (encoded == null || encoded.length == 0) {
+            return histogram;
+        }
+        if (encoded[0] != FORMAT_VERSION) {
+            throw new IllegalStateException ( "Unknown grade histogram format " + encoded[0] );
+        }
+
+        int[] position = { 1 };
+        int bin = -1;
+        while (position[0] < encoded.length) {
+            bin += readVarint ( encoded , position );
+            int count = readVarint ( encoded , position );
+            histogram.counts[bin] = count;
+            histogram.total += count;
+        }
+        return histogram;
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream ( 64 );
+        out.write ( FORMAT_VERSION );
+        int previous = -1;
+        for (int bin = 0; bin < BINS; bin++) {
+            if (counts[bin] != 0) {
+                writeVarint ( out , bin - previous );
+                writeVarint ( out , counts[bin] );
+                previous = bin;
+            }
+        }
+        return out.toByteArray ( );
+    }
+
+    static int binOf(BigDecimal grade) {
+        int bin = grade.movePointRight ( 1 ).setScale ( 0 , RoundingMode.HALF_UP ).intValueExact ( );
+        if (bin < 0 || bin >= BINS) {
+            throw new IllegalArgumentException ( "Grade must be between 0 and 100" );
+        }
+        return bin;
+    }
+
+    void add(BigDecimal grade) {
+        addToBin ( binOf ( grade ) , 1 );
+    }
+
+    void remove(BigDecimal grade) {
+        int bin = binOf ( grade );
+        if (counts[bin] > 0) {
+            addToBin ( bin , -1 );
+        }
+    }
+
+    void addToBin(int bin , int count) {
+        counts[bin] += count;
+        total += count;
+    }
+
+    void merge(GradeHistogram other) {
+        for (int bin = 0; bin < BINS; bin++) {
+            counts[bin] += other.counts[bin];
+        }
+        total += other.total;
+    }
+
+    long total() {
+        return total;
+    }
+
+    /**
+     * Nearest-rank quantile, e.g. 0.5 for the median; null when there are no grades.
+     */
+    BigDecimal quantile(double q) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max ( 1 , (long) Math.ceil ( q * total ) );
+        long seen = 0;
+        for (int bin = 0; bin < BINS; bin++) {
+            seen += counts[bin];
+            if (seen >= rank) {
+                return BigDecimal.valueOf ( bin , 1 );
+            }
+        }
+        return BigDecimal.valueOf ( BINS - 1 , 1 );
+    }
+
+    /**
+     * Counts per bucket of {@code width} grade points; the last bucket includes 100.
+     */
+    List<Long> buckets(int width) {
+        int binsPerBucket = width * 10;
+        int bucketCount = (BINS - 1) / binsPerBucket;
+        List<Long> buckets = new ArrayList<> ( bucketCount );
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            long sum = 0;
+            int end = bucket == bucketCount - 1 ? BINS : (bucket + 1) * binsPerBucket;
+            for (int bin = bucket * binsPerBucket; bin < end; bin++) {
+                sum += counts[bin];
+            }
+            buckets.add ( sum );
+        }
+        return buckets;
+    }
+
+    boolean sameAs(GradeHistogram other) {
+        return total == other.total && Arrays.equals ( counts , other.counts );
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out , int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write ( (value & 0x7F) | 0x80 );
+            value >>>= 7;
+        }
+        out.write ( value );
+    }
+
+    private static int readVarint(byte[] in , int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in[position[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.demo.enrollment;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Writes a gradebook straight from a forward-only JDBC cursor into the response. Rows are never
+ * mapped to entities or collected: each one is written as it arrives, {@code fetchSize} at a time,
+ * on a single connection held by a read-only transaction (PostgreSQL only streams inside one).
+ * Callers check access before handing the body to the response.
+ */
+@Component
+
+class GradebookExporter {
+
+    private static final String SELECT =
+            "SELECT e.id, u.id AS student_id, u.first_name, u.last_name, u.email, c.id AS course_id, c.title, " +
+            "e.date_of_enrollment, e.progress, e.completion_date, e.final_grade, e.is_active " +
+            "FROM enrollment e " +
+            "JOIN users u ON u.id = e.user_id " +
+            "JOIN course c ON c.id = e.course_id ";
+
+    // Same order as the keyset listings, so it is read straight off idx_enrollment_course_date_id.
+    private static final String BY_COURSE = SELECT +
+            "WHERE e.course_id = ? ORDER BY e.date_of_enrollment DESC, e.id DESC";
+
+    private static final String BY_INSTRUCTOR = SELECT +
+            "WHERE c.instructor_id = ? ORDER BY c.id, e.date_of_enrollment DESC, e.id DESC";
+
+    private static final String[] COLUMNS = {
+            "enrollmentId" , "studentId" , "studentName" , "studentEmail" , "courseId" , "courseTitle" ,
+            "dateOfEnrollment" , "progress" , "completionDate" , "finalGrade" , "isActive"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    GradebookExporter(DataSource dataSource , PlatformTransactionManager transactionManager , ObjectMapper objectMapper ,
+                      @Value("${enrollment.export.fetch-size:1000}") int fetchSize) {
+
+        this.jdbcTemplate = new JdbcTemplate ( dataSource );
+        this.jdbcTemplate.setFetchSize ( fetchSize );
+        this.readOnlyTransaction = new TransactionTemplate ( transactionManager );
+        this.readOnlyTransaction.setReadOnly ( true );
+        this.objectMapper = objectMapper;
+    }
+
+    StreamingResponseBody byCourse(Long courseId , GradebookFormat format) {
+        return out -> export ( BY_COURSE , courseId , format , out );
+    }
+
+    StreamingResponseBody byInstructor(Long instructorId , GradebookFormat format) {
+        return out -> export ( BY_INSTRUCTOR , instructorId , format , out );
+    }
+
+    private void export(String sql , Long id , GradebookFormat format , OutputStream out) throws IOException {
+
+        RowWriter writer = format == GradebookFormat.CSV ? new CsvRowWriter ( out ) : new JsonRowWriter ( out );
+
+        try {
+            readOnlyTransaction.executeWithoutResult ( tx ->
+                    jdbcTemplate.query ( sql , (RowCallbackHandler) rs -> {
+                        try {
+                            writer.write ( rs );
+                        } catch (IOException e) {
+                            throw new UncheckedIOException ( e );
+                        }
+                    } , id ) );
+        } catch (UncheckedIOException e) {
+            throw e.getCause ( );
+        }
+        writer.finish ( );
+    }
+
+    private interface RowWriter {
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter ( new OutputStreamWriter ( out , StandardCharsets.UTF_8 ) );
+            this.writer.write ( String.join ( "," , COLUMNS ) );
+            this.writer.write ( "\r\n" );
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            writer.write ( String.valueOf ( rs.getLong ( "id" ) ) );
+            writer.write ( ',' );
+            writer.write ( String.valueOf ( rs.getLong ( "student_id" ) ) );
+            writer.write ( ',' );
+            writer.write ( cell ( rs.getString ( "first_name" ) + " " + rs.getString ( "last_name" ) ) );
+            writer.write ( ',' );
+            writer.write ( cell ( rs.getString ( "email" ) ) );
+            writer.write ( ',' );
+            writer.write ( String.valueOf ( rs.getLong ( "course_id" ) ) );
+            writer.write ( ',' );
+            writer.write ( cell ( rs.getString ( "title" ) ) );
+            writer.write ( ',' );
+            writer.write ( timestamp ( rs.getTimestamp ( "date_of_enrollment" ) ) );
+            writer.write ( ',' );
+            writer.write ( cell ( rs.getString ( "progress" ) ) );
+            writer.write ( ',' );
+            writer.write ( timestamp ( rs.getTimestamp ( "completion_date" ) ) );
+            writer.write ( ',' );
+            BigDecimal grade = rs.getBigDecimal ( "final_grade" );
+            writer.write ( grade == null ? "" : grade.toPlainString ( ) );
+            writer.write ( ',' );
+            Object active = rs.getObject ( "is_active" );
+            writer.write ( active == null ? "" : active.toString ( ) );
+            writer.write ( "\r\n" );
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush ( );
+        }
+
+        private static String timestamp(Timestamp value) {
+            return value == null ? "" : value.toLocalDateTime ( ).toString ( );
+        }
+
+        // RFC 4180 quoting; a leading formula character is neutralised so spreadsheets show it as text.
+        private static String cell(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (!value.isEmpty ( ) && "=+-@".indexOf ( value.charAt ( 0 ) ) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf ( ',' ) >= 0 || value.indexOf ( '"' ) >= 0
+                    || value.indexOf ( '\n' ) >= 0 || value.indexOf ( '\r' ) >= 0) {
+                return '"' + value.replace ( "\"" , "\"\"" ) + '"';
+            }
+            return value;
+        }
+    }
+
+    private final class JsonRowWriter implements RowWriter {
+
+        private final JsonGenerator json;
+
+        private JsonRowWriter(OutputStream out) throws IOException {
+            this.json = objectMapper.getFactory ( ).createGenerator ( out , JsonEncoding.UTF8 );
+            this.json.setRootValueSeparator ( null );
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject ( );
+            json.writeNumberField ( COLUMNS[0] , rs.getLong ( "id" ) );
+            json.writeNumberField ( COLUMNS[1] , rs.getLong ( "student_id" ) );
+            json.writeStringField ( COLUMNS[2] , rs.getString ( "first_name" ) + " " + rs.getString ( "last_name" ) );
+            json.writeStringField ( COLUMNS[3] , rs.getString ( "email" ) );
+            json.writeNumberField ( COLUMNS[4] , rs.getLong ( "course_id" ) );
+            json.writeStringField ( COLUMNS[5] , rs.getString ( "title" ) );
+            writeTimestamp ( COLUMNS[6] , rs.getTimestamp ( "date_of_enrollment" ) );
+            json.writeStringField ( COLUMNS[7] , rs.getString ( "progress" ) );
+            writeTimestamp ( COLUMNS[8] , rs.getTimestamp ( "completion_date" ) );
+            json.writeFieldName ( COLUMNS[9] );
+            BigDecimal grade = rs.getBigDecimal ( "final_grade" );
+            if (grade == null) json.writeNull ( ); else json.writeNumber ( grade );
+            json.writeFieldName ( COLUMNS[10] );
+            Object active = rs.getObject ( "is_active" );
+            if (active == null) json.writeNull ( ); else json.writeBoolean ( rs.getBoolean ( "is_active" ) );
+            json.writeEndObject ( );
+            json.writeRaw ( '\n' );
+        }
+
+        @Override
+        public void finish() throws IOException {
+            json.flush ( );
+        }
+
+        private void writeTimestamp(String field , Timestamp value) throws IOException {
+            if (value == null) {
+                json.writeNullField ( field );
+            } else {
+                json.writeStringField ( field , value.toLocalDateTime ( ).toString ( ) );
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.enrollment;
+
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+public enum GradebookFormat {
+
+    CSV(new MediaType ( "text" , "csv" ) , "csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON , "ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    GradebookFormat(MediaType mediaType , String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() { return mediaType; }
+
+    public String extension() { return extension; }
+
+    public static GradebookFormat parse(String format) {
+        return Arrays.stream ( values ( ) )
+                .filter ( f -> f.name ( ).equalsIgnoreCase ( format == null ? "" : format.trim ( ) ) )
+                .findFirst ( )
+                .orElseThrow ( () -> new IllegalArgumentException (
+                        "Invalid format '" + format + "'. Must be one of: " +
+                                Arrays.stream ( values ( ) ).map ( Enum::name ).collect ( Collectors.joining ( ", " ) ) ) );
+    }
+}
@@ -5,11 +5,15 @@ import com.example.demo.exception.types.InActiveException;
 import com.example.demo.exception.types.InvalidOperationException;
 import com.example.demo.exception.types.InvalidRoleException;
 import com.example.demo.exception.types.LastAdminException;
+import com.example.demo.exception.types.ServiceUnavailableException;
+import com.example.demo.exception.types.TooManyRequestsException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.validation.FieldError;
@@ -146,6 +150,34 @@ public class ApiExceptionHandler {
         return pd;
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleServiceUnavailable(ServiceUnavailableException ex,
+                                                                  HttpServletRequest req) {
+        ProblemDetail pd = ProblemDetail.forStatus(ex.getStatus());
+        pd.setTitle(ex.getClass().getSimpleName());
+        pd.setDetail(ex.getMessage());
+        pd.setProperty("path", req.getRequestURI());
+        pd.setProperty("timestamp", Instant.now());
+        pd.setProperty ( "code", ex.getCode() );
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(pd);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ProblemDetail> handleTooManyRequests(TooManyRequestsException ex,
+                                                               HttpServletRequest req) {
+        ProblemDetail pd = ProblemDetail.forStatus(ex.getStatus());
+        pd.setTitle(ex.getClass().getSimpleName());
+        pd.setDetail(ex.getMessage());
+        pd.setProperty("path", req.getRequestURI());
+        pd.setProperty("timestamp", Instant.now());
+        pd.setProperty ( "code", ex.getCode() );
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(pd);
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus
     public ProblemDetail handleUnknown(Exception ex, HttpServletRequest req) {
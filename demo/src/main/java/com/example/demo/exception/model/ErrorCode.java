@@ -38,7 +38,12 @@ public enum ErrorCode {
     INACTIVE_COURSE,
     ENROLLMENT_ALREADY_INACTIVE,
     USERNAME_ALREADY_TAKEN,
-    USERNAME_ALREADY_EXISTS
+    USERNAME_ALREADY_EXISTS,
+    PASSWORD_HASHING_BUSY,
+    INVALID_REFRESH_TOKEN,
+    REFRESH_TOKEN_REUSED,
+    TOO_MANY_LOGIN_ATTEMPTS,
+    USER_IMPORT_BUSY
     ;
 
 
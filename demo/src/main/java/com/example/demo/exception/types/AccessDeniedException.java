@@ -1,13 +1,14 @@
 package com.example.demo.exception.types;
 
 import com.example.demo.exception.base.AppException;
+import com.example.demo.exception.model.ErrorCode;
 import org.springframework.http.HttpStatus;
 
 
 
 
 public class AccessDeniedException extends AppException {
-    public AccessDeniedException(String code) {
-        super( HttpStatus.FORBIDDEN, code, message);
+    public AccessDeniedException(String message) {
+        super( HttpStatus.FORBIDDEN, ErrorCode.ACCESS_DENIED.toString(), message);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package com.example.demo.exception.types;
+
+import com.example.demo.exception.base.AppException;
+import org.springframework.http.HttpStatus;
+
+public class ServiceUnavailableException extends AppException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String code , String message , long retryAfterSeconds) {
+        super ( HttpStatus.SERVICE_UNAVAILABLE , code , message );
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
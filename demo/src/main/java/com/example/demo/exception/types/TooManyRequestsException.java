@@ -0,0 +1,16 @@
+package com.example.demo.exception.types;
+
+import com.example.demo.exception.base.AppException;
+import org.springframework.http.HttpStatus;
+
+public class TooManyRequestsException extends AppException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String code , String message , long retryAfterSeconds) {
+        super ( HttpStatus.TOO_MANY_REQUESTS , code , message );
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
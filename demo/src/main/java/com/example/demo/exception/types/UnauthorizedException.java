@@ -0,0 +1,10 @@
+package com.example.demo.exception.types;
+
+import com.example.demo.exception.base.AppException;
+import org.springframework.http.HttpStatus;
+
+public class UnauthorizedException extends AppException {
+    public UnauthorizedException(String code , String message) {
+        super ( HttpStatus.UNAUTHORIZED , code , message );
+    }
+}
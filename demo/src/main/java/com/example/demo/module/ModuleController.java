@@ -1,5 +1,6 @@
 package com.example.demo.module;
 
+import com.example.demo.security.CurrentUser;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,7 +9,6 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -29,9 +29,9 @@ public class ModuleController {
     @PreAuthorize ("hasAnyRole('ADMIN', 'INSTRUCTOR')")
 
     public ResponseEntity <ModuleResponseDto> createModule (@Valid @RequestBody ModuleCreationDto dto ,
-                                                            Authentication authentication) {
+                                                            CurrentUser currentUser) {
 
-        return ResponseEntity.status ( HttpStatus.CREATED ).body ( moduleService.createModule (dto ,authentication) );
+        return ResponseEntity.status ( HttpStatus.CREATED ).body ( moduleService.createModule (dto ,currentUser) );
     }
 
 
@@ -63,9 +63,9 @@ public class ModuleController {
 
     public ResponseEntity <ModuleResponseDto> updateCourse( @PathVariable Long id ,
                                                             @Valid @RequestBody ModuleUpdateDto dto ,
-                                                            Authentication authentication) {
+                                                            CurrentUser currentUser) {
 
-        return ResponseEntity.ok ( moduleService.updateModule ( id , dto , authentication ) );
+        return ResponseEntity.ok ( moduleService.updateModule ( id , dto , currentUser ) );
     }
 
     //     ________________________Delete__________________________
@@ -74,9 +74,9 @@ public class ModuleController {
     @PreAuthorize ("hasAnyRole('ADMIN', 'INSTRUCTOR')")
 
     public ResponseEntity <Void> archiveModule (@PathVariable Long id ,
-                                                Authentication authentication) {
+                                                CurrentUser currentUser) {
 
-        moduleService.archiveModule (id , authentication );
+        moduleService.archiveModule (id , currentUser );
         return ResponseEntity.noContent().build();
     }
 
@@ -7,7 +7,8 @@ import java.util.Objects;
 @Component
 public class ModuleMapper {
 
-    public ModuleResponseDto toModuleResponseDto(Module m) {
+    // position is the module's 1-based place among its course's active modules, null once archived.
+    public ModuleResponseDto toModuleResponseDto(Module m, Integer position) {
 
         Objects.requireNonNull(m, "Module cannot be null");
 
@@ -16,7 +17,7 @@ public class ModuleMapper {
                 m.getId (),
                 m.getTitle (),
                 m.getDescription (),
-                m.getOrderIndex (),
+                position,
                 m.getIsActive (),
                 m.getCourse ().getTitle (),
                 m.getCreatedAt ()
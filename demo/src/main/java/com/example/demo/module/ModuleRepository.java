@@ -2,11 +2,16 @@ package com.example.demo.module;
 import com.example.demo.user.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,7 +24,9 @@ public interface ModuleRepository extends JpaRepository<Module,Long> {
     @Query("select m from Module m order by m.course.id asc , m.orderIndex asc ")
     Page<Module> findAllModulesOrdered(Pageable pageable);
 
-    boolean existsByTitleIgnoreCaseAndCourseId(String title , Long courseId);
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM module WHERE course_id = :courseId " +
+            "AND lower(title) = lower(:title))", nativeQuery = true)
+    boolean existsByTitleIgnoreCaseAndCourseId(@Param("title") String title , @Param("courseId") Long courseId);
 
     @Query("select max (m.orderIndex) from Module m where m.course.id =:id ")
     Integer findLastOrderIndexByCourseId (@Param("id") Long id);
@@ -28,14 +35,54 @@ public interface ModuleRepository extends JpaRepository<Module,Long> {
             " order by  m.orderIndex asc , m.isActive ")
     Page<Module> findByCourseId(@Param ( "course_id" ) Long courseId , Pageable pageable);
 
-    boolean existsByTitleIgnoreCaseAndCourseIdAndIdNot(String trimmedTitle , Long courseId , Long id  );
-
-
-    List<Module> findByCourseIdAndIsActiveTrueOrderByOrderIndexAsc(Long courseId);
-
-    @Query ("select distinct m.course.id from Module m where m.course.id =:course_id and " +
-            "m.isActive =true")
-    Optional<java.lang.Module> findByCourseIdAndIsActive(@Param ( "course_id" ) Long courseId );
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM module WHERE course_id = :courseId " +
+            "AND lower(title) = lower(:title) AND id <> :id)", nativeQuery = true)
+    boolean existsByTitleIgnoreCaseAndCourseIdAndIdNot(@Param("title") String trimmedTitle ,
+                                                       @Param("courseId") Long courseId ,
+                                                       @Param("id") Long id  );
+
+
+    // ---- Sparse ranks; callers hold the course row lock (CourseRepository.findByIdForUpdate) ----
+
+    // Ranks of the active modules either side of a 1-based position, ignoring the module being moved.
+    @Query(value = "SELECT order_index FROM module " +
+            "WHERE course_id = :courseId AND is_active = true AND id <> :moduleId " +
+            "ORDER BY order_index LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Integer> findActiveRanks(@Param("courseId") Long courseId , @Param("moduleId") Long moduleId ,
+                                  @Param("offset") int offset , @Param("limit") int limit);
+
+    // Nearest ranks below and above a given one among all of a course's modules, archived ones too,
+    // since ux_module_course_order covers every row.
+    @Query(value = "SELECT max(order_index) FROM module " +
+            "WHERE course_id = :courseId AND id <> :moduleId AND order_index < :rank", nativeQuery = true)
+    Integer findRankBelow(@Param("courseId") Long courseId , @Param("moduleId") Long moduleId ,
+                          @Param("rank") int rank);
+
+    @Query(value = "SELECT min(order_index) FROM module " +
+            "WHERE course_id = :courseId AND id <> :moduleId AND order_index > :rank", nativeQuery = true)
+    Integer findRankAbove(@Param("courseId") Long courseId , @Param("moduleId") Long moduleId ,
+                          @Param("rank") int rank);
+
+    // 1-based positions of the given modules among their courses' active modules, as updates take them.
+    // Archived modules have none and are left out; each count is a range on idx_module_course_active_order.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "module"))
+    @Query(value = "SELECT m.id, (SELECT count(*) FROM module o WHERE o.course_id = m.course_id " +
+            "AND o.is_active = true AND o.order_index < m.order_index) + 1 " +
+            "FROM module m WHERE m.id IN (:ids) AND m.is_active = true", nativeQuery = true)
+    List<Object[]> findActivePositions(@Param("ids") Collection<Long> ids);
+
+    // Spreads a course's ranks back out to multiples of the gap, keeping their order, in one statement.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "module"))
+    @Query(value = "UPDATE module m SET order_index = r.rn * :gap " +
+            "FROM (SELECT id, row_number() OVER (ORDER BY order_index, id) AS rn " +
+            "FROM module WHERE course_id = :courseId) r " +
+            "WHERE m.id = r.id", nativeQuery = true)
+    int rebalanceRanks(@Param("courseId") Long courseId , @Param("gap") int gap);
+
+    @Query (value = "SELECT EXISTS (SELECT 1 FROM module WHERE course_id = :course_id " +
+            "AND is_active = true)", nativeQuery = true)
+    boolean existsByCourseIdAndIsActiveTrue(@Param ( "course_id" ) Long courseId );
 
 
     @Query ("select m.course.instructor.id from Module m ")
@@ -10,6 +10,7 @@ public record ModuleResponseDto(
 
         String description ,
 
+        // The same 1-based position ModuleUpdateDto.orderIndex takes, not the stored rank.
         Integer orderIndex ,
 
         Boolean isActive ,
@@ -6,21 +6,20 @@ import com.example.demo.exception.model.ErrorCode;
 import com.example.demo.exception.types.DuplicateResourceException;
 import com.example.demo.exception.types.NotFoundException;
 import com.example.demo.course.CourseRepository;
+import com.example.demo.security.CurrentUser;
 import com.example.demo.user.Role;
-import com.example.demo.user.User;
-import com.example.demo.user.UserCreationDto;
-import com.example.demo.user.UserRepository;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Slf4j
@@ -31,28 +30,23 @@ public class ModuleService {
     private final ModuleRepository moduleRepository;
     private final ModuleMapper moduleMapper;
     private final CourseRepository courseRepository;
-    private  final UserRepository userRepository;
 
 
 //     ________________________Create__________________________
 
     @Transactional
     public ModuleResponseDto createModule(@Valid ModuleCreationDto dto ,
-                                          Authentication authentication) {
+                                          CurrentUser currentUser) {
 
         Objects.requireNonNull ( dto , "module cannot be null" );
 
-        var curruntUser = getCurrentUser ( authentication );
-        validateCurrentUserActivation (  curruntUser );
-        validateModuleOwnershipForCreate ( dto , curruntUser );
+        validateCurrentUserActivation (  currentUser );
+        validateModuleOwnershipForCreate ( dto , currentUser );
 
 
         Long courseId = dto.courseId ( );
 
-        Integer lastOrderIndex = moduleRepository.findLastOrderIndexByCourseId ( courseId );
-        Integer orderIndex = lastOrderIndex == null ? 1 : lastOrderIndex + 1;
-
-        Course existingCourse = courseRepository.findById ( courseId ).orElseThrow (
+        Course existingCourse = courseRepository.findByIdForUpdate ( courseId ).orElseThrow (
                 () -> new NotFoundException (
                         ErrorCode.COURSE_NOT_FOUND.toString ( ) ,
                         "The course is not found , please enter a valid course"
@@ -78,10 +72,10 @@ public class ModuleService {
 
         Module toSave = moduleMapper.toModule ( dto );
         toSave.setCourse ( existingCourse );
-        toSave.setOrderIndex ( orderIndex );
+        toSave.setOrderIndex ( rankAtEnd ( courseId ) );
 
         Module savedModule = moduleRepository.save ( toSave );
-        return moduleMapper.toModuleResponseDto ( savedModule );
+        return toResponse ( savedModule );
 
 
     }
@@ -92,8 +86,7 @@ public class ModuleService {
     @Transactional(readOnly = true)
     public Page<ModuleResponseDto> getAllModulesOrdered(Pageable pageable) {
 
-        return moduleRepository.findAllModulesOrdered ( pageable )
-                .map ( moduleMapper::toModuleResponseDto  );
+        return withPositions ( moduleRepository.findAllModulesOrdered ( pageable ) );
 
     }
 
@@ -101,7 +94,7 @@ public class ModuleService {
     public ModuleResponseDto getModuleById(Long id) {
         Objects.requireNonNull ( id , "id is required" );
         return moduleRepository.findById ( id )
-                .map ( moduleMapper::toModuleResponseDto )
+                .map ( this::toResponse )
                 .orElseThrow ( () -> new NotFoundException (
                         ErrorCode.MODULE_NOT_FOUND.toString ( ) , "Module with the id " + id + " not found" ) );
     }
@@ -119,9 +112,7 @@ public class ModuleService {
                 )
         );
 
-        return moduleRepository.findByCourseId ( courseId , pageable )
-                .map ( moduleMapper::toModuleResponseDto
-                );
+        return withPositions ( moduleRepository.findByCourseId ( courseId , pageable ) );
 
     }
 
@@ -131,7 +122,7 @@ public class ModuleService {
     @Transactional
     public ModuleResponseDto updateModule(Long id,
                                           @Valid ModuleUpdateDto dto ,
-                                          Authentication authentication)
+                                          CurrentUser currentUser)
 
     {
         Objects.requireNonNull(id, "id is required");
@@ -141,15 +132,12 @@ public class ModuleService {
                 new NotFoundException(ErrorCode.MODULE_NOT_FOUND.toString(),
                         "Module with id " + id + " not found"));
 
-        var curruntUser = getCurrentUser ( authentication );
-        validateCurrentUserActivation (  curruntUser );
-        validateModuleOwnershipForUpdate ( id , curruntUser );
+        validateCurrentUserActivation (  currentUser );
+        validateModuleOwnershipForUpdate ( id , currentUser );
 
 
         Long originalCourseId = toUpdate.getCourse().getId();
         boolean courseChanged = false;
-        boolean orderChanged = false;
-        boolean reactivated = false;
 
         if (dto.title() != null) {
             String trimmedTitle = dto.title().replaceAll("\\s+", " ").trim();
@@ -175,13 +163,13 @@ public class ModuleService {
 
         if (dto.courseId() != null && !dto.courseId().equals(originalCourseId)) {
 
-           if (! curruntUser.getRole ().equals ( Role.ADMIN )) {
+           if (! currentUser.getRole ().equals ( Role.ADMIN )) {
                throw new SecurityException (
                        "Only admins can move modules between courses"
                );
            }
 
-            Course newCourse = courseRepository.findById(dto.courseId())
+            Course newCourse = courseRepository.findByIdForUpdate(dto.courseId())
                     .orElseThrow(() -> new NotFoundException(
                             ErrorCode.COURSE_NOT_FOUND.toString(),
                             "Course with id " + dto.courseId() + " not found"));
@@ -191,73 +179,125 @@ public class ModuleService {
             courseChanged = true;
         }
 
-        if (dto.orderIndex() != null) {
-            orderChanged = true;
-            toUpdate.setOrderIndex(999999);
-        }
-
         if (dto.isActive() != null) {
             if (!dto.isActive()) {
                 throw new IllegalArgumentException("Please use the delete endpoint");
             }
 
+            // A reactivated module takes its old rank back, no other row moves.
+            toUpdate.setIsActive(true);
+        }
 
-            if (!toUpdate.getIsActive()) {
-                toUpdate.setIsActive(true);
-                reactivated = true;
+        Long targetCourseId = toUpdate.getCourse().getId();
+
+        if (dto.orderIndex() != null) {
+            if (!courseChanged) {
+                lockCourse(targetCourseId);
             }
+            toUpdate.setOrderIndex(rankAtPosition(targetCourseId, id, dto.orderIndex()));
+        } else if (courseChanged) {
+            toUpdate.setOrderIndex(rankAtEnd(targetCourseId));
         }
 
+        // save merges, since a rebalance may have detached toUpdate.
         Module updatedModule = moduleRepository.save(toUpdate);
 
+        log.info("Updating module with ID: {}", id);
+        return toResponse(updatedModule);
+    }
 
-        if (courseChanged) {
-            reorderModulesInCourse(originalCourseId);
-            if (orderChanged) {
-                insertModuleAtPosition(updatedModule, dto.orderIndex());
-            } else {
-                reorderModulesInCourse(updatedModule.getCourse().getId());
-            }
-        } else if (orderChanged) {
-            insertModuleAtPosition(updatedModule, dto.orderIndex());
-        } else if (reactivated) {
+    // ________________________Ordering__________________________
 
-            reorderModulesInCourse(updatedModule.getCourse().getId());
-        }
+    // order_index is a sparse rank. Inserts and moves take the midpoint of their new neighbours and
+    // write one row; only when two neighbours run out of room is the course rebalanced, in one UPDATE.
+    // Every caller holds the course row lock, so concurrent edits to one course are serialized.
 
-        log.info("Updating module with ID: {}", id);
-        return moduleMapper.toModuleResponseDto(updatedModule);
+    private static final int RANK_GAP = 1024;
+
+    private void lockCourse(Long courseId) {
+        courseRepository.findByIdForUpdate(courseId).orElseThrow(() -> new NotFoundException(
+                ErrorCode.COURSE_NOT_FOUND.toString(), "Course with id " + courseId + " not found"));
     }
 
-    private void insertModuleAtPosition(Module module, Integer targetPosition) {
+    private int rankAtEnd(Long courseId) {
+        Integer last = moduleRepository.findLastOrderIndexByCourseId(courseId);
+        if (last == null) {
+            return RANK_GAP;
+        }
+        if (last > Integer.MAX_VALUE - RANK_GAP) {
+            moduleRepository.rebalanceRanks(courseId, RANK_GAP);
+            last = moduleRepository.findLastOrderIndexByCourseId(courseId);
+        }
+        return last + RANK_GAP;
+    }
 
-        List<Module> activeModules = moduleRepository.findByCourseIdAndIsActiveTrueOrderByOrderIndexAsc(
-                module.getCourse().getId());
+    // position is 1-based among the course's other active modules; past the end means append.
+    private int rankAtPosition(Long courseId, Long moduleId, int position) {
 
+        Integer rank = midpointRank(courseId, moduleId, position);
+        if (rank == null) {
+            moduleRepository.rebalanceRanks(courseId, RANK_GAP);
+            rank = midpointRank(courseId, moduleId, position);
+        }
+        if (rank == null) {
+            throw new IllegalStateException("Could not place module " + moduleId + " at position " + position);
+        }
+        return rank;
+    }
 
-        activeModules.removeIf(m -> m.getId().equals(module.getId()));
+    // The position picks an active neighbour; the midpoint is then taken against the nearest rank of
+    // any module on the other side, because archived modules still hold their ranks.
+    private Integer midpointRank(Long courseId, Long moduleId, int position) {
 
-        int insertIndex = Math.max(0, Math.min(targetPosition - 1, activeModules.size()));
-        activeModules.add(insertIndex, module);
+        long low;
+        long high;
+
+        if (position == 1) {
+            List<Integer> first = moduleRepository.findActiveRanks(courseId, moduleId, 0, 1);
+            if (first.isEmpty()) {
+                return rankAtEnd(courseId);
+            }
+            Integer below = moduleRepository.findRankBelow(courseId, moduleId, first.get(0));
+            low = below == null ? 0 : below;
+            high = first.get(0);
+        } else {
+            List<Integer> before = moduleRepository.findActiveRanks(courseId, moduleId, position - 2, 1);
+            if (before.isEmpty()) {
+                return rankAtEnd(courseId);
+            }
+            Integer above = moduleRepository.findRankAbove(courseId, moduleId, before.get(0));
+            low = before.get(0);
+            high = above == null ? low + 2L * RANK_GAP : above;
+        }
 
-        for (int i = 0; i < activeModules.size(); i++) {
-            activeModules.get(i).setOrderIndex(i + 1);
+        if (high - low < 2 || high > Integer.MAX_VALUE) {
+            return null;
         }
-        moduleRepository.saveAll(activeModules);
+        return (int) (low + (high - low) / 2);
+    }
+
+    // Responses carry the position, not the rank, so a client can send back the orderIndex it read.
+    // A page costs one extra statement for all of its positions.
+
+    private ModuleResponseDto toResponse(Module module) {
+        return withPositions(new PageImpl<>(List.of(module))).getContent().get(0);
     }
 
-    private void reorderModulesInCourse(Long courseId) {
-        List<Module> activeModules = moduleRepository.findByCourseIdAndIsActiveTrueOrderByOrderIndexAsc(courseId);
-        for (int i = 0; i < activeModules.size(); i++) {
-            activeModules.get(i).setOrderIndex(i + 1);
+    private Page<ModuleResponseDto> withPositions(Page<Module> modules) {
+        Map<Long, Integer> positions = new HashMap<>();
+        List<Long> ids = modules.stream().map(Module::getId).toList();
+        if (!ids.isEmpty()) {
+            for (Object[] row : moduleRepository.findActivePositions(ids)) {
+                positions.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+            }
         }
-        moduleRepository.saveAll(activeModules);
+        return modules.map(m -> moduleMapper.toModuleResponseDto(m, positions.get(m.getId())));
     }
 
     // ________________________Delete__________________________
 
     @Transactional
-    public void archiveModule(Long moduleId , Authentication authentication) {
+    public void archiveModule(Long moduleId , CurrentUser currentUser) {
 
         Objects.requireNonNull ( moduleId , "Module Id is required" );
 
@@ -267,19 +307,16 @@ public class ModuleService {
                         "Module with id " + moduleId + " not found" ) );
 
 
-        var curruntUser = getCurrentUser ( authentication );
-        validateCurrentUserActivation (  curruntUser );
-        validateModuleOwnershipForArchive ( module , curruntUser );
+        validateCurrentUserActivation (  currentUser );
+        validateModuleOwnershipForArchive ( module , currentUser );
 
         if (!module.getIsActive ( )) {
             throw new IllegalStateException ( "Module is already archived" );
         }
 
-        Long courseId = module.getCourse ( ).getId ( );
+        // Ranks are sparse, so the remaining modules keep theirs and nothing is renumbered.
         module.setIsActive ( false );
         moduleRepository.save ( module );
-
-        reorderModulesInCourse ( courseId );
     }
 
 
@@ -287,19 +324,7 @@ public class ModuleService {
 
 
 
-    private User getCurrentUser (Authentication authentication) {
-
-      return userRepository.findByEmailIgnoreCase ( authentication.getName ( ) ).orElseThrow (
-              () -> new NotFoundException (
-                      ErrorCode.USER_NOT_FOUND.toString () ,
-                      "User with email " + authentication.getName ( ) + " not found"
-              )
-      );
-
-
-    }
-
-    private void validateCurrentUserActivation ( User user) {
+    private void validateCurrentUserActivation ( CurrentUser user) {
 
       if (! user.isActive ())
           throw new IllegalStateException (
@@ -308,7 +333,7 @@ public class ModuleService {
 
     }
 
-    private void validateModuleOwnershipForCreate (ModuleCreationDto dto, User currentUser) {
+    private void validateModuleOwnershipForCreate (ModuleCreationDto dto, CurrentUser currentUser) {
 
 
         if (currentUser.getRole ().equals ( Role.ADMIN ))
@@ -322,7 +347,7 @@ public class ModuleService {
         }
     }
 
-    private void validateModuleOwnershipForUpdate ( Long id , User currentUser) {
+    private void validateModuleOwnershipForUpdate ( Long id , CurrentUser currentUser) {
 
 
         if (currentUser.getRole ().equals ( Role.ADMIN ))
@@ -338,7 +363,7 @@ public class ModuleService {
 
     }
 
-    private void validateModuleOwnershipForArchive (Module module , User currentUser) {
+    private void validateModuleOwnershipForArchive (Module module , CurrentUser currentUser) {
 
         String currentUserEmail = currentUser.getEmail ( );
         String instructorEmail = module.getCourse().getInstructor().getEmail();
@@ -0,0 +1,62 @@
+package com.example.demo.security;
+
+import com.example.demo.user.Role;
+import com.example.demo.user.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the fields authentication needs, which is what CustomUserDetailsService
+ * caches. Holding the managed {@link User} instead would share one mutable entity between requests.
+ */
+public record CachedUserDetails(
+
+        Long id ,
+        String email ,
+        String password ,
+        Role role ,
+        boolean active ,
+        boolean locked
+
+) implements UserDetails {
+
+    static CachedUserDetails of(User user) {
+        return new CachedUserDetails ( user.getId ( ) , user.getEmail ( ) , user.getPassword ( ) , user.getRole ( ) ,
+                user.isActive ( ) , user.isLocked ( ) );
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of ( new SimpleGrantedAuthority ( "ROLE_" + role.name ( ) ) );
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return !locked;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return active;
+    }
+
+    // Keeps the hash out of toString, e.g. when the principal is logged.
+    @Override
+    public String toString() {
+        return "CachedUserDetails[id=" + id + ", email=" + email + ", role=" + role + "]";
+    }
+}
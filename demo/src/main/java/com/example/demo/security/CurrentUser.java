@@ -0,0 +1,35 @@
+package com.example.demo.security;
+
+import com.example.demo.user.Role;
+import com.example.demo.user.User;
+import lombok.Value;
+
+/**
+ * The authenticated caller, resolved once per request from the principal the security
+ * filter already built. Controllers receive it as a handler argument and pass it down.
+ */
+@Value
+
+public class CurrentUser {
+
+    Long id;
+    String email;
+    Role role;
+    boolean active;
+
+    public static CurrentUser of(User user) {
+        return new CurrentUser ( user.getId ( ) , user.getEmail ( ) , user.getRole ( ) , user.isActive ( ) );
+    }
+
+    public static CurrentUser of(CachedUserDetails details) {
+        return new CurrentUser ( details.id ( ) , details.email ( ) , details.role ( ) , details.active ( ) );
+    }
+
+    public static CurrentUser of(JwtUserPrincipal principal) {
+        return new CurrentUser ( principal.id ( ) , principal.email ( ) , principal.role ( ) , principal.active ( ) );
+    }
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+}
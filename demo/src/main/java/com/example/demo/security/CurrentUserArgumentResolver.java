@@ -0,0 +1,76 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.model.ErrorCode;
+import com.example.demo.exception.types.NotFoundException;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+@Component
+@RequiredArgsConstructor
+
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String ATTRIBUTE = CurrentUser.class.getName ( );
+
+    private final UserRepository userRepository;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return CurrentUser.class.equals ( parameter.getParameterType ( ) );
+    }
+
+    @Override
+    public CurrentUser resolveArgument(@NonNull MethodParameter parameter ,
+                                       ModelAndViewContainer mavContainer ,
+                                       @NonNull NativeWebRequest webRequest ,
+                                       WebDataBinderFactory binderFactory) {
+
+        Object cached = webRequest.getAttribute ( ATTRIBUTE , RequestAttributes.SCOPE_REQUEST );
+        if (cached instanceof CurrentUser currentUser) {
+            return currentUser;
+        }
+
+        CurrentUser currentUser = resolve ( SecurityContextHolder.getContext ( ).getAuthentication ( ) );
+        webRequest.setAttribute ( ATTRIBUTE , currentUser , RequestAttributes.SCOPE_REQUEST );
+        return currentUser;
+    }
+
+    private CurrentUser resolve(Authentication authentication) {
+
+        if (authentication == null || !authentication.isAuthenticated ( )) {
+            throw new AuthenticationCredentialsNotFoundException ( "No authenticated user for this request" );
+        }
+
+        Object principal = authentication.getPrincipal ( );
+
+        if (principal instanceof JwtUserPrincipal jwtUserPrincipal) {
+            return CurrentUser.of ( jwtUserPrincipal );
+        }
+
+        if (principal instanceof CachedUserDetails details) {
+            return CurrentUser.of ( details );
+        }
+
+        if (principal instanceof User user) {
+            return CurrentUser.of ( user );
+        }
+
+        User user = userRepository.findByEmailIgnoreCase ( authentication.getName ( ) ).orElseThrow (
+                () -> new NotFoundException ( ErrorCode.USER_NOT_FOUND.toString ( ) ,
+                        "User with email " + authentication.getName ( ) + " not found" ) );
+
+        return CurrentUser.of ( user );
+    }
+}
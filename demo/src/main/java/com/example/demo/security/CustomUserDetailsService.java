@@ -1,22 +1,87 @@
 package com.example.demo.security;
 
+import com.example.demo.user.User;
+import com.example.demo.user.UserChangedEvent;
 import com.example.demo.user.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
 
 @Service
-@RequiredArgsConstructor
 
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<String, CachedUserDetails> userCache;
+    private final Counter invalidations;
+
+    public CustomUserDetailsService(UserRepository userRepository ,
+                                    ApplicationEventPublisher eventPublisher ,
+                                    MeterRegistry meterRegistry ,
+                                    @Value("${user-details.cache.maximum-size:10000}") long maximumSize ,
+                                    @Value("${user-details.cache.ttl:300000}") long ttl) {
+
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.userCache = Caffeine.newBuilder ( )
+                .maximumSize ( maximumSize )
+                .expireAfterWrite ( Duration.ofMillis ( ttl ) )
+                .recordStats ( )
+                .build ( );
+        this.invalidations = Counter.builder ( "user.details.cache.invalidations" )
+                .description ( "Entries evicted because the user changed" )
+                .register ( meterRegistry );
+
+        CaffeineCacheMetrics.monitor ( meterRegistry , userCache , "userDetails" );
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
+        return userCache.get ( username , email -> userRepository.findByEmail ( email )
+                .map ( CachedUserDetails::of )
+                .orElseThrow ( () -> new UsernameNotFoundException ( "User not found with email: " + username ) ) );
+    }
+
+    /**
+     * Called on a successful login whose stored hash was made with a lower BCrypt strength
+     * than the one currently configured, so the cost factor can be raised without a reset.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user , String newPassword) {
+        User existing = userRepository.findByEmail ( user.getUsername ( ) )
+                .orElseThrow ( () -> new UsernameNotFoundException ( "User not found with email: " + user.getUsername ( ) ) );
+
+        existing.setPassword ( newPassword );
+        User saved = userRepository.save ( existing );
+        eventPublisher.publishEvent ( new UserChangedEvent ( saved ) );
+        return CachedUserDetails.of ( saved );
+    }
+
+    // After commit, so a concurrent reload can not put the pre-update row back into the cache.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict ( event.previousEmail ( ) );
+        evict ( event.email ( ) );
+    }
+
+    private void evict(String email) {
+        if (email != null && userCache.asMap ( ).remove ( email ) != null) {
+            invalidations.increment ( );
+        }
     }
 }
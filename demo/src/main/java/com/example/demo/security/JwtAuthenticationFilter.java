@@ -1,13 +1,16 @@
 package com.example.demo.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -22,6 +25,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final TokenRevocationList tokenRevocationList;
+
+    @Value("${jwt.stateless:true}")
+    private boolean stateless;
 
 
     @Override
@@ -39,12 +47,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String jwt = authHeader.substring ( 7 );
-        final String userEmail = jwtService.extractUsername ( jwt );
+        final Claims claims = jwtService.extractVerifiedClaims ( jwt );
+        final String userEmail = claims.getSubject ( );
+
+        // Refresh tokens are only good at /api/auth/refresh, never as a bearer credential.
+        if (jwtService.isRefreshToken ( claims ) || tokenRevocationList.isRevoked ( claims )) {
+            filterChain.doFilter ( request , response );
+            return;
+        }
 
         if (userEmail != null && SecurityContextHolder.getContext ( ).getAuthentication ( ) == null) {
-            var userDetails = this.userDetailsService.loadUserByUsername ( userEmail );
+            var userDetails = resolveUserDetails ( claims , userEmail );
 
-            if (jwtService.isTokenValid ( jwt , userDetails )) {
+            if (userDetails != null && jwtService.isTokenValid ( claims , userDetails )) {
                 var authToken = new UsernamePasswordAuthenticationToken (
                         userDetails ,
                         null ,
@@ -60,5 +75,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
 
     }
-}
 
+    // In stateless mode the principal comes from the signed claims; tokens without them still use the lookup.
+    private UserDetails resolveUserDetails(Claims claims , String userEmail) {
+
+        if (stateless) {
+            JwtUserPrincipal principal = JwtUserPrincipal.fromClaims ( claims );
+
+            if (principal != null) {
+                boolean current = principal.active ( ) &&
+                        tokenVersionRegistry.isCurrent ( principal.id ( ) , principal.tokenVersion ( ) );
+                return current ? principal : null;
+            }
+        }
+
+        return this.userDetailsService.loadUserByUsername ( userEmail );
+    }
+}
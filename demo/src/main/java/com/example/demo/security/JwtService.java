@@ -1,17 +1,29 @@
 package com.example.demo.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import com.example.demo.user.User;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -20,6 +32,10 @@ import java.util.stream.Collectors;
 
 public class JwtService {
 
+    static final String TOKEN_TYPE_CLAIM = "typ";
+    static final String ACCESS_TOKEN_TYPE = "access";
+    static final String REFRESH_TOKEN_TYPE = "refresh";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
@@ -29,18 +45,54 @@ public class JwtService {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
 
+    @Value("${jwt.claims-cache.maximum-size:10000}")
+    private long claimsCacheMaximumSize;
+
+    @Value("${jwt.claims-cache.ttl:300000}")
+    private long claimsCacheTtl;
+
+    private SecretKey signInKey;
+
+    private JwtParser jwtParser;
+
+    // Verified claims keyed by the SHA-256 digest of the compact token, never the token itself.
+    private Cache<String, Claims> verifiedClaims;
+
+    @PostConstruct
+    void init() {
+        this.signInKey = Keys.hmacShaKeyFor ( Decoders.BASE64.decode ( secretKey.trim ( ) ) );
+        this.jwtParser = Jwts.parser ( )
+                .verifyWith ( signInKey )
+                .build ( );
+        this.verifiedClaims = Caffeine.newBuilder ( )
+                .maximumSize ( claimsCacheMaximumSize )
+                .expireAfter ( new ClaimsExpiry ( TimeUnit.MILLISECONDS.toNanos ( claimsCacheTtl ) ) )
+                .build ( );
+    }
+
     private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode ( secretKey );
-        return Keys.hmacShaKeyFor ( keyBytes );
+        return signInKey;
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser ( )
+        return extractVerifiedClaims ( token );
+    }
 
-                .verifyWith ( getSignInKey ( ) )
-                .build ( )
-                .parseSignedClaims ( token )
-                .getPayload ( );
+    /**
+     * Parses and verifies the token once. A token seen again while still cached skips
+     * signature verification entirely; entries never outlive the token's own expiration.
+     */
+    public Claims extractVerifiedClaims(String token) {
+        final String key = digest ( token );
+
+        Claims cached = verifiedClaims.getIfPresent ( key );
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = jwtParser.parseSignedClaims ( token ).getPayload ( );
+        verifiedClaims.put ( key , claims );
+        return claims;
     }
 
     public <T> T extractClaim(String token , Function<Claims, T> claimsResolver) {
@@ -60,24 +112,47 @@ public class JwtService {
         return extractExpiration ( token ).before ( new Date ( ) );
     }
 
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration ( ).before ( new Date ( ) );
+    }
+
     public boolean isTokenValid(String token , UserDetails userDetails) {
-        final String username = extractUsername ( token );
-        return (username.equals ( userDetails.getUsername ( ) ) && !isTokenExpired ( token ));
+        return isTokenValid ( extractAllClaims ( token ) , userDetails );
+    }
+
+    public boolean isTokenValid(Claims claims , UserDetails userDetails) {
+        final String username = claims.getSubject ( );
+        return (username.equals ( userDetails.getUsername ( ) ) && !isTokenExpired ( claims ));
+    }
+
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN_TYPE.equals ( claims.get ( TOKEN_TYPE_CLAIM ) );
     }
 
     private String buildToken(
             Map<String, Object> extraClaims ,
             UserDetails userDetails ,
-            long expiration
+            long expiration ,
+            String tokenType
     ) {
         String roles = userDetails.getAuthorities ( ).stream ( )
                 .map ( GrantedAuthority::getAuthority )
                 .collect ( Collectors.joining ( "," ) );
 
         extraClaims.put ( "roles" , roles );
+        extraClaims.put ( TOKEN_TYPE_CLAIM , tokenType );
+
+        if (userDetails instanceof User user) {
+            extraClaims.put ( JwtUserPrincipal.USER_ID_CLAIM , user.getId ( ) );
+            extraClaims.put ( JwtUserPrincipal.ROLE_CLAIM , user.getRole ( ).name ( ) );
+            extraClaims.put ( JwtUserPrincipal.ACTIVE_CLAIM , user.isActive ( ) );
+            // From the row the role was read from, never from the registry, so the two always match.
+            extraClaims.put ( JwtUserPrincipal.TOKEN_VERSION_CLAIM , user.getTokenVersion ( ) );
+        }
 
         return Jwts.builder ( )
                 .claims ( extraClaims )
+                .id ( UUID.randomUUID ( ).toString ( ) )
                 .subject ( userDetails.getUsername ( ) )
                 .issuedAt ( new Date ( System.currentTimeMillis ( ) ) )
                 .expiration ( new Date ( System.currentTimeMillis ( ) + expiration ) )
@@ -90,13 +165,43 @@ public class JwtService {
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken( extraClaims, userDetails, jwtExpiration );
+        return buildToken( extraClaims, userDetails, jwtExpiration, ACCESS_TOKEN_TYPE );
     }
 
     public String generateRefreshToken(UserDetails userDetails) {
-       return buildToken (new HashMap<>(), userDetails, refreshExpiration);
+       return buildToken (new HashMap<>(), userDetails, refreshExpiration, REFRESH_TOKEN_TYPE);
     }
 
-}
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance ( "SHA-256" );
+            return HexFormat.of ( ).formatHex ( sha256.digest ( token.getBytes ( StandardCharsets.US_ASCII ) ) );
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException ( "SHA-256 is not available" , e );
+        }
+    }
 
+    private record ClaimsExpiry(long ttlNanos) implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key , Claims claims , long currentTime) {
+            Date expiration = claims.getExpiration ( );
+            if (expiration == null) {
+                return ttlNanos;
+            }
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos ( expiration.getTime ( ) - System.currentTimeMillis ( ) );
+            return Math.max ( 0 , Math.min ( ttlNanos , untilExpiry ) );
+        }
+
+        @Override
+        public long expireAfterUpdate(String key , Claims claims , long currentTime , long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key , Claims claims , long currentTime , long currentDuration) {
+            return currentDuration;
+        }
+    }
 
+}
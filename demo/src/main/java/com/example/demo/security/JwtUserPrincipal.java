@@ -0,0 +1,74 @@
+package com.example.demo.security;
+
+import com.example.demo.user.Role;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal rebuilt from the signed claims of an access token, so authenticated
+ * requests do not have to load the users row.
+ */
+public record JwtUserPrincipal(
+
+        Long id ,
+        String email ,
+        Role role ,
+        boolean active ,
+        int tokenVersion
+
+) implements UserDetails {
+
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLE_CLAIM = "role";
+    static final String ACTIVE_CLAIM = "active";
+    static final String TOKEN_VERSION_CLAIM = "ver";
+
+    /**
+     * Returns null for tokens issued before these claims existed; callers fall back to a lookup.
+     */
+    static JwtUserPrincipal fromClaims(Claims claims) {
+
+        Object id = claims.get ( USER_ID_CLAIM );
+        Object role = claims.get ( ROLE_CLAIM );
+        Object active = claims.get ( ACTIVE_CLAIM );
+        Object version = claims.get ( TOKEN_VERSION_CLAIM );
+
+        if (!(id instanceof Number) || !(role instanceof String) ||
+                !(active instanceof Boolean) || !(version instanceof Number)) {
+            return null;
+        }
+
+        return new JwtUserPrincipal (
+                ((Number) id).longValue ( ) ,
+                claims.getSubject ( ) ,
+                Role.valueOf ( (String) role ) ,
+                (Boolean) active ,
+                ((Number) version).intValue ( )
+        );
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of ( new SimpleGrantedAuthority ( "ROLE_" + role.name ( ) ) );
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return active;
+    }
+}
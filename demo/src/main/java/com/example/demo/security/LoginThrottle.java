@@ -0,0 +1,196 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.model.ErrorCode;
+import com.example.demo.exception.types.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token-bucket throttle for login attempts, keyed by normalized email and by client IP. It runs
+ * before any password verification does.
+ * <p>
+ * Buckets live in fixed-size arrays of packed longs, so an attack on random emails can not grow
+ * memory. Each key hashes to two slots; the key's own bucket always holds at least as many tokens
+ * as the fuller of the two, so a single collision can not lock out an unrelated account. Slots
+ * are only ever updated by CAS and refill lazily from their last-touched time.
+ */
+@Component
+
+public class LoginThrottle {
+
+    private final Dimension byEmail;
+    private final Dimension byIp;
+
+    public LoginThrottle(MeterRegistry meterRegistry ,
+                         @Value("${login.throttle.slots:65536}") int slots ,
+                         @Value("${login.throttle.email.capacity:5}") int emailCapacity ,
+                         @Value("${login.throttle.email.refill-per-minute:5}") int emailRefillPerMinute ,
+                         @Value("${login.throttle.ip.capacity:50}") int ipCapacity ,
+                         @Value("${login.throttle.ip.refill-per-minute:50}") int ipRefillPerMinute) {
+
+        this.byEmail = new Dimension ( "email" , slots , emailCapacity , emailRefillPerMinute , meterRegistry );
+        this.byIp = new Dimension ( "ip" , slots , ipCapacity , ipRefillPerMinute , meterRegistry );
+    }
+
+    /**
+     * Takes one attempt from both the email and the IP bucket. Both are checked before either is
+     * charged, so a request refused by one dimension does not use up the other. If either is
+     * empty, throws 429 with the number of seconds until that bucket has a token again.
+     */
+    public void acquire(String email , String clientIp) {
+        acquire ( email , clientIp , System.currentTimeMillis ( ) );
+    }
+
+    void acquire(String email , String clientIp , long now) {
+
+        String emailKey = email.trim ( ).toLowerCase ( Locale.ROOT );
+
+        long emailWait = byEmail.waitMillis ( emailKey , now );
+        long ipWait = clientIp == null ? 0 : byIp.waitMillis ( clientIp , now );
+
+        // A racing request can empty a bucket between the check and the take; it is refused the same way.
+        if (emailWait == 0 && ipWait == 0) {
+            if (!byEmail.take ( emailKey , now )) {
+                emailWait = 1;
+            } else if (clientIp != null && !byIp.take ( clientIp , now )) {
+                ipWait = 1;
+            }
+        }
+
+        long waitMillis = Math.max ( emailWait , ipWait );
+        if (waitMillis > 0) {
+            throw new TooManyRequestsException (
+                    ErrorCode.TOO_MANY_LOGIN_ATTEMPTS.toString ( ) ,
+                    "Too many login attempts, please try again later" ,
+                    Math.max ( 1 , (waitMillis + 999) / 1000 )
+            );
+        }
+    }
+
+    private static final class Dimension {
+
+        // Slot layout: upper 40 bits hold the last refill in ms since BASE, lower 24 bits hold tokens * ONE.
+        private static final int TOKEN_BITS = 24;
+        private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+        private static final long ONE = 1L << 8;
+        private static final long BASE = System.currentTimeMillis ( ) - 1;
+
+        private final AtomicLongArray slots;
+        private final long capacity;
+        private final long refillPerMinute;
+        private final Counter rejections;
+
+        private Dimension(String name , int slotCount , int capacity , int refillPerMinute , MeterRegistry meterRegistry) {
+
+            this.slots = new AtomicLongArray ( slotCount );
+            this.capacity = Math.min ( capacity * ONE , TOKEN_MASK );
+            this.refillPerMinute = refillPerMinute * ONE;
+
+            this.rejections = Counter.builder ( "login.throttle.rejections" )
+                    .tag ( "dimension" , name )
+                    .register ( meterRegistry );
+
+            Gauge.builder ( "login.throttle.limited.slots" , this , Dimension::limitedSlots )
+                    .tag ( "dimension" , name )
+                    .description ( "Slots currently below full capacity" )
+                    .register ( meterRegistry );
+        }
+
+        /**
+         * Returns 0 when the key has a token, otherwise the milliseconds until it has one. Takes nothing.
+         */
+        private long waitMillis(String key , long now) {
+
+            long hash = hash ( key );
+            long available = Math.max ( tokens ( slots.get ( first ( hash ) ) , now ) ,
+                    tokens ( slots.get ( second ( hash ) ) , now ) );
+
+            if (available < ONE) {
+                rejections.increment ( );
+                return Math.max ( 1 , ((ONE - available) * 60_000 + refillPerMinute - 1) / refillPerMinute );
+            }
+            return 0;
+        }
+
+        // Charges both of the key's slots; succeeds if either still had a token.
+        private boolean take(String key , long now) {
+
+            long hash = hash ( key );
+            int first = first ( hash );
+            int second = second ( hash );
+
+            boolean taken = take ( first , now );
+            if (second != first) {
+                taken |= take ( second , now );
+            }
+            if (!taken) {
+                rejections.increment ( );
+            }
+            return taken;
+        }
+
+        private int first(long hash) {
+            return (int) Math.floorMod ( hash , (long) slots.length ( ) );
+        }
+
+        private int second(long hash) {
+            return (int) Math.floorMod ( Long.rotateLeft ( hash , 32 ) * 0x9E3779B97F4A7C15L , (long) slots.length ( ) );
+        }
+
+        private boolean take(int slot , long now) {
+            while (true) {
+                long current = slots.get ( slot );
+                long available = tokens ( current , now );
+                if (available < ONE) {
+                    return false;
+                }
+                long updated = ((now - BASE) << TOKEN_BITS) | (available - ONE);
+                if (slots.compareAndSet ( slot , current , updated )) {
+                    return true;
+                }
+            }
+        }
+
+        // An untouched slot is a full bucket; anything else refills from its stored time.
+        private long tokens(long packed , long now) {
+            if (packed == 0) {
+                return capacity;
+            }
+            long elapsed = Math.max ( 0 , now - BASE - (packed >>> TOKEN_BITS) );
+            // Whole-number arithmetic, so a full interval always yields a whole token.
+            long refilled = (packed & TOKEN_MASK) + elapsed * refillPerMinute / 60_000;
+            return Math.min ( capacity , refilled );
+        }
+
+        private double limitedSlots() {
+            long now = System.currentTimeMillis ( );
+            int limited = 0;
+            for (int i = 0; i < slots.length ( ); i++) {
+                long packed = slots.get ( i );
+                if (packed != 0 && tokens ( packed , now ) < capacity) {
+                    limited++;
+                }
+            }
+            return limited;
+        }
+
+        private static long hash(String key) {
+            long h = 0xCBF29CE484222325L;
+            for (byte b : key.getBytes ( StandardCharsets.UTF_8 )) {
+                h ^= b;
+                h *= 0x100000001B3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
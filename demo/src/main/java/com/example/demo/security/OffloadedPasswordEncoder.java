@@ -0,0 +1,121 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.model.ErrorCode;
+import com.example.demo.exception.types.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs password hashing and verification on a dedicated bounded pool instead of the servlet
+ * thread. Once the pool and its queue are full, callers are turned away with a 503 straight
+ * away rather than piling up behind BCrypt work.
+ */
+public class OffloadedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejections;
+
+    public OffloadedPasswordEncoder(PasswordEncoder delegate , int threads , int queueCapacity ,
+                                    long timeoutMillis , long retryAfterSeconds , MeterRegistry meterRegistry) {
+
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor (
+                threads , threads ,
+                0L , TimeUnit.MILLISECONDS ,
+                new ArrayBlockingQueue<> ( queueCapacity ) ,
+                new CustomizableThreadFactory ( "password-hash-" ) ,
+                new ThreadPoolExecutor.AbortPolicy ( )
+        );
+
+        this.encodeTimer = Timer.builder ( "password.hash.latency" ).tag ( "operation" , "encode" )
+                .register ( meterRegistry );
+        this.matchesTimer = Timer.builder ( "password.hash.latency" ).tag ( "operation" , "matches" )
+                .register ( meterRegistry );
+        this.rejections = Counter.builder ( "password.hash.rejections" )
+                .description ( "Hashing requests turned away because the pool was saturated" )
+                .register ( meterRegistry );
+
+        Gauge.builder ( "password.hash.queue.depth" , executor , e -> e.getQueue ( ).size ( ) )
+                .register ( meterRegistry );
+        Gauge.builder ( "password.hash.active" , executor , ThreadPoolExecutor::getActiveCount )
+                .register ( meterRegistry );
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit ( () -> encodeTimer.record ( () -> delegate.encode ( rawPassword ) ) );
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword , String encodedPassword) {
+        return submit ( () -> matchesTimer.record ( () -> delegate.matches ( rawPassword , encodedPassword ) ) );
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding ( encodedPassword );
+    }
+
+    private <T> T submit(Callable<T> task) {
+
+        Future<T> future;
+        try {
+            future = executor.submit ( task );
+        } catch (RejectedExecutionException e) {
+            rejections.increment ( );
+            throw busy ( );
+        }
+
+        try {
+            return future.get ( timeoutMillis , TimeUnit.MILLISECONDS );
+        } catch (TimeoutException e) {
+            future.cancel ( true );
+            rejections.increment ( );
+            throw busy ( );
+        } catch (InterruptedException e) {
+            future.cancel ( true );
+            Thread.currentThread ( ).interrupt ( );
+            throw busy ( );
+        } catch (ExecutionException e) {
+            if (e.getCause ( ) instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException ( "Password hashing failed" , e.getCause ( ) );
+        }
+    }
+
+    private ServiceUnavailableException busy() {
+        return new ServiceUnavailableException (
+                ErrorCode.PASSWORD_HASHING_BUSY.toString ( ) ,
+                "Authentication service is busy, please retry shortly" ,
+                retryAfterSeconds
+        );
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown ( );
+    }
+}
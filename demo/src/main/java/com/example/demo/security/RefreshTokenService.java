@@ -0,0 +1,89 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.model.ErrorCode;
+import com.example.demo.exception.types.UnauthorizedException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+
+public class RefreshTokenService {
+
+    private final JwtService jwtService;
+    private final TokenRevocationList tokenRevocationList;
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    /**
+     * Verifies a refresh token and spends it, so it can be exchanged exactly once.
+     * Presenting a token that was already spent means it leaked: every token issued
+     * to that user is invalidated by bumping the token version.
+     */
+    @Transactional
+    public JwtUserPrincipal consume(String refreshToken) {
+
+        Claims claims;
+        try {
+            claims = jwtService.extractVerifiedClaims ( refreshToken );
+        } catch (JwtException | IllegalArgumentException e) {
+            throw invalid ( );
+        }
+
+        JwtUserPrincipal principal = JwtUserPrincipal.fromClaims ( claims );
+
+        if (!jwtService.isRefreshToken ( claims ) || claims.getId ( ) == null || principal == null) {
+            throw invalid ( );
+        }
+
+        if (!principal.active ( ) ||
+                !tokenVersionRegistry.isCurrent ( principal.id ( ) , principal.tokenVersion ( ) )) {
+            throw invalid ( );
+        }
+
+        if (!tokenRevocationList.markUsed ( claims.getId ( ) , principal.id ( ) , claims.getExpiration ( ) )) {
+            log.warn ( "Refresh token reuse detected for user {}, revoking all sessions" , principal.id ( ) );
+            tokenVersionRegistry.bumpNow ( principal.id ( ) );
+            throw new UnauthorizedException (
+                    ErrorCode.REFRESH_TOKEN_REUSED.toString ( ) ,
+                    "Refresh token has already been used. Please sign in again."
+            );
+        }
+
+        return principal;
+    }
+
+    /**
+     * Revokes an access or refresh token until it expires. Tokens that no longer verify, and old
+     * tokens without an id, are ignored: there is nothing left to revoke.
+     */
+    @Transactional
+    public void revoke(String token) {
+
+        Claims claims;
+        try {
+            claims = jwtService.extractVerifiedClaims ( token );
+        } catch (JwtException | IllegalArgumentException e) {
+            return;
+        }
+
+        if (claims.getId ( ) == null) {
+            return;
+        }
+
+        JwtUserPrincipal principal = JwtUserPrincipal.fromClaims ( claims );
+        tokenRevocationList.markUsed ( claims.getId ( ) , principal == null ? null : principal.id ( ) ,
+                claims.getExpiration ( ) );
+    }
+
+    private UnauthorizedException invalid() {
+        return new UnauthorizedException (
+                ErrorCode.INVALID_REFRESH_TOKEN.toString ( ) ,
+                "Refresh token is invalid or expired. Please sign in again."
+        );
+    }
+}
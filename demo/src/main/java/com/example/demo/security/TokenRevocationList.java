@@ -0,0 +1,226 @@
+package com.example.demo.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revoked and already-used token ids, kept as Bloom filters bucketed by token expiry.
+ * A lookup hashes into the single bucket that matches the token's own expiration, so a
+ * negative answer costs a few bit reads and no query. Only a positive is confirmed against
+ * revoked_tokens. When the wheel comes back round to a bucket, its epoch has expired and the
+ * bucket is cleared for reuse, so memory stays fixed however many tokens are revoked.
+ * <p>
+ * Entries come from spent refresh tokens and from logout, which revokes the access token too.
+ * Revocations made on other instances are picked up from the table on a short fixed delay.
+ */
+@Slf4j
+@Component
+
+public class TokenRevocationList {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Bucket[] wheel;
+    private final long bucketSpanMillis;
+    private final int bitsPerBucket;
+    private final int hashFunctions;
+
+    private volatile Instant syncedUpTo = Instant.EPOCH;
+
+    private final Counter filterPositives;
+    private final Counter confirmedRevocations;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository ,
+                               MeterRegistry meterRegistry ,
+                               @Value("${jwt.refresh-expiration}") long refreshExpiration ,
+                               @Value("${jwt.revocation.bucket-span:3600000}") long bucketSpanMillis ,
+                               @Value("${jwt.revocation.bits-per-bucket:65536}") int bitsPerBucket ,
+                               @Value("${jwt.revocation.hash-functions:4}") int hashFunctions) {
+
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.bucketSpanMillis = bucketSpanMillis;
+        this.bitsPerBucket = bitsPerBucket;
+        this.hashFunctions = hashFunctions;
+
+        // One spare slot so the bucket being written is never the one about to be recycled.
+        int buckets = (int) (refreshExpiration / bucketSpanMillis) + 2;
+        this.wheel = new Bucket[buckets];
+        for (int i = 0; i < buckets; i++) {
+            wheel[i] = new Bucket ( bitsPerBucket );
+        }
+
+        this.filterPositives = Counter.builder ( "jwt.revocation.filter.positives" )
+                .description ( "Lookups the Bloom filter could not rule out" )
+                .register ( meterRegistry );
+        this.confirmedRevocations = Counter.builder ( "jwt.revocation.confirmed" )
+                .description ( "Filter positives confirmed as revoked by the database" )
+                .register ( meterRegistry );
+    }
+
+    /**
+     * Records the token id as spent. Returns false when it was already recorded, meaning the
+     * token is being replayed.
+     */
+    @Transactional
+    public boolean markUsed(String jti , Long userId , Date expiration) {
+        int inserted = revokedTokenRepository.insertIfAbsent ( jti , userId , expiration.toInstant ( ) );
+        remember ( jti , expiration.getTime ( ) );
+        return inserted > 0;
+    }
+
+    public boolean isRevoked(Claims claims) {
+
+        String jti = claims.getId ( );
+        Date expiration = claims.getExpiration ( );
+
+        if (jti == null || expiration == null || !mightContain ( jti , expiration.getTime ( ) )) {
+            return false;
+        }
+
+        filterPositives.increment ( );
+        boolean revoked = revokedTokenRepository.existsById ( jti );
+        if (revoked) {
+            confirmedRevocations.increment ( );
+        }
+        return revoked;
+    }
+
+    // Reloads revocations that are still live, as the filters are lost on restart.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        Instant now = Instant.now ( );
+        var live = revokedTokenRepository.findByExpiresAtAfter ( now );
+        syncedUpTo = now;
+        live.forEach ( token -> remember ( token.getJti ( ) , token.getExpiresAt ( ).toEpochMilli ( ) ) );
+        log.info ( "Loaded {} live token revocations" , live.size ( ) );
+    }
+
+    // Looks back a little past the last sync, so a revocation committed while it ran is not missed.
+    @Scheduled(initialDelayString = "${jwt.revocation.sync-interval:30000}",
+            fixedDelayString = "${jwt.revocation.sync-interval:30000}")
+    @Transactional(readOnly = true)
+    public void syncRecent() {
+        Instant now = Instant.now ( );
+        revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter ( syncedUpTo.minusSeconds ( 60 ) , now )
+                .forEach ( token -> remember ( token.getJti ( ) , token.getExpiresAt ( ).toEpochMilli ( ) ) );
+        syncedUpTo = now;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        revokedTokenRepository.deleteExpired ( Instant.now ( ) );
+    }
+
+    private void remember(String jti , long expiresAtMillis) {
+
+        long epoch = expiresAtMillis / bucketSpanMillis;
+        Bucket bucket = bucketFor ( epoch );
+
+        if (bucket.epoch != epoch) {
+            synchronized (bucket) {
+                if (bucket.epoch > epoch) {
+                    // Already recycled for a later window, so this token has expired and the parser rejects it.
+                    return;
+                }
+                if (bucket.epoch != epoch) {
+                    bucket.reset ( epoch );
+                }
+            }
+        }
+
+        long hash1 = hash ( jti , 0x9E3779B97F4A7C15L );
+        long hash2 = hash ( jti , 0xC2B2AE3D27D4EB4FL );
+        for (int i = 0; i < hashFunctions; i++) {
+            bucket.set ( index ( hash1 , hash2 , i ) );
+        }
+    }
+
+    private boolean mightContain(String jti , long expiresAtMillis) {
+
+        long epoch = expiresAtMillis / bucketSpanMillis;
+        Bucket bucket = bucketFor ( epoch );
+
+        if (bucket.epoch != epoch) {
+            return false;
+        }
+
+        long hash1 = hash ( jti , 0x9E3779B97F4A7C15L );
+        long hash2 = hash ( jti , 0xC2B2AE3D27D4EB4FL );
+        for (int i = 0; i < hashFunctions; i++) {
+            if (!bucket.get ( index ( hash1 , hash2 , i ) )) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Bucket bucketFor(long epoch) {
+        return wheel[(int) Math.floorMod ( epoch , (long) wheel.length )];
+    }
+
+    private int index(long hash1 , long hash2 , int i) {
+        return (int) Math.floorMod ( hash1 + i * hash2 , (long) bitsPerBucket );
+    }
+
+    // FNV-1a over the id bytes, finished with the MurmurHash3 64-bit mixer.
+    private static long hash(String value , long seed) {
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (byte b : value.getBytes ( StandardCharsets.UTF_8 )) {
+            h ^= b;
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Bucket {
+
+        private final AtomicLongArray bits;
+        private volatile long epoch = Long.MIN_VALUE;
+
+        private Bucket(int size) {
+            this.bits = new AtomicLongArray ( (size + 63) / 64 );
+        }
+
+        private void reset(long newEpoch) {
+            for (int i = 0; i < bits.length ( ); i++) {
+                bits.set ( i , 0L );
+            }
+            epoch = newEpoch;
+        }
+
+        private void set(int bit) {
+            int word = bit >>> 6;
+            long mask = 1L << (bit & 63);
+            long current;
+            do {
+                current = bits.get ( word );
+                if ((current & mask) != 0) {
+                    return;
+                }
+            } while (!bits.compareAndSet ( word , current , current | mask ));
+        }
+
+        private boolean get(int bit) {
+            return (bits.get ( bit >>> 6 ) & (1L << (bit & 63))) != 0;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.security;
+
+/**
+ * A user's token version as committed by {@link TokenVersionRegistry#bump}.
+ */
+public record TokenVersionChangedEvent(
+
+        Long userId ,
+        int version
+
+) {
+}
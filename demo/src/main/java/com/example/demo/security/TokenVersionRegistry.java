@@ -0,0 +1,88 @@
+package com.example.demo.security;
+
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user token versions, persisted in users.token_version and mirrored here so the request path
+ * never queries for them. Bumping a user's version invalidates every token issued before the
+ * change. Users that were never bumped are not stored and are at version 0.
+ * <p>
+ * The bump is written in the transaction that changes the user and reaches this table only after
+ * that commits, so a token can never carry the new version with the old role. Other instances
+ * pick bumps up on the next {@link #refresh()}.
+ */
+@Slf4j
+@Component
+
+public class TokenVersionRegistry implements SmartInitializingSingleton {
+
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<> ( );
+
+    public TokenVersionRegistry(UserRepository userRepository , ApplicationEventPublisher eventPublisher ,
+                                EntityManagerFactory entityManagerFactory) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public int currentVersion(Long userId) {
+        return versions.getOrDefault ( userId , 0 );
+    }
+
+    public boolean isCurrent(Long userId , int tokenVersion) {
+        return tokenVersion >= currentVersion ( userId );
+    }
+
+    /**
+     * Increments the user's version. Must run inside the transaction that changes the user.
+     */
+    public void bump(Long userId) {
+        userRepository.incrementTokenVersion ( userId );
+        eventPublisher.publishEvent ( new TokenVersionChangedEvent ( userId , userRepository.findTokenVersion ( userId ) ) );
+    }
+
+    // For callers whose own transaction is about to roll back, e.g. on refresh token reuse.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void bumpNow(Long userId) {
+        bump ( userId );
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokenVersionChanged(TokenVersionChangedEvent event) {
+        versions.merge ( event.userId ( ) , event.version ( ) , Math::max );
+        // The cached entity still holds the version it was loaded with.
+        entityManagerFactory.getCache ( ).evict ( User.class , event.userId ( ) );
+    }
+
+    // Seeded before the web server starts, so no request is checked against an empty table.
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh ( );
+        log.info ( "Loaded token versions for {} users" , versions.size ( ) );
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.token-version.refresh-interval:30000}")
+    public void refresh() {
+        List<Object[]> rows = userRepository.findBumpedTokenVersions ( );
+        for (Object[] row : rows) {
+            versions.merge ( ((Number) row[0]).longValue ( ) , ((Number) row[1]).intValue ( ) , Math::max );
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.user;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffers last-login timestamps in memory and writes them out as one batched UPDATE on a fixed
+ * delay, instead of a full entity update inside every login transaction. Repeated logins by the
+ * same user between flushes collapse into a single row write.
+ */
+@Slf4j
+@Component
+
+public class LastLoginRecorder {
+
+    private static final String UPDATE_LAST_LOGIN =
+            "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<> ( );
+    private final Counter flushedRows;
+
+    public LastLoginRecorder(JdbcTemplate jdbcTemplate , EntityManagerFactory entityManagerFactory ,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.flushedRows = Counter.builder ( "user.last-login.flushed" )
+                .description ( "Last-login rows written by the background flusher" )
+                .register ( meterRegistry );
+
+        Gauge.builder ( "user.last-login.pending" , pending , Map::size )
+                .register ( meterRegistry );
+    }
+
+    public void record(Long userId , LocalDateTime loginAt) {
+        pending.merge ( userId , loginAt , (current , incoming) -> incoming.isAfter ( current ) ? incoming : current );
+    }
+
+    @Scheduled(fixedDelayString = "${user.last-login.flush-interval:5000}")
+    public void flush() {
+
+        if (pending.isEmpty ( )) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<> ( pending.size ( ) );
+
+        for (Long userId : pending.keySet ( )) {
+            LocalDateTime loginAt = pending.remove ( userId );
+            if (loginAt != null) {
+                Timestamp timestamp = Timestamp.valueOf ( loginAt );
+                batch.add ( new Object[] { timestamp , userId , timestamp } );
+            }
+        }
+
+        if (batch.isEmpty ( )) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate ( UPDATE_LAST_LOGIN , batch );
+            flushedRows.increment ( batch.size ( ) );
+            // The rows changed behind Hibernate's back, so drop them from the second-level cache.
+            for (Object[] row : batch) {
+                entityManagerFactory.getCache ( ).evict ( User.class , row[1] );
+            }
+        } catch (RuntimeException e) {
+            // Put the entries back so the next run retries them, keeping anything newer recorded since.
+            for (Object[] row : batch) {
+                record ( (Long) row[1] , ((Timestamp) row[0]).toLocalDateTime ( ) );
+            }
+            log.warn ( "Failed to flush {} last-login updates, will retry" , batch.size ( ) , e );
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush ( );
+    }
+}
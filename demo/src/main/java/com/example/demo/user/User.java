@@ -5,6 +5,8 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.security.core.GrantedAuthority;
@@ -17,6 +19,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
@@ -25,7 +29,8 @@ import java.util.List;
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 50)
@@ -55,9 +60,14 @@ public class User implements UserDetails {
     @Builder.Default
     private boolean locked = false;
 
-    @Column(name = "last_login")
+    // Written only by LastLoginRecorder's guarded UPDATE; a full-entity save must never carry a stale value back.
+    @Column(name = "last_login", insertable = false, updatable = false)
     private LocalDateTime lastLogin;
 
+    // Only ever incremented in SQL, see UserRepository.incrementTokenVersion.
+    @Column(name = "token_version", nullable = false, insertable = false, updatable = false)
+    private int tokenVersion;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -110,8 +120,4 @@ public class User implements UserDetails {
     public String getFullName() {
         return firstName + " " + lastName;
     }
-
-    public void updateLastLogin() {
-        this.lastLogin = LocalDateTime.now();
-    }
 }
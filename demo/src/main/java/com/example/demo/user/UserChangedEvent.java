@@ -0,0 +1,18 @@
+package com.example.demo.user;
+
+/**
+ * Published whenever a persisted user changes in a way that cached copies must not outlive.
+ * previousEmail differs from email only when the update changed the address.
+ */
+public record UserChangedEvent(
+
+        Long userId ,
+        String previousEmail ,
+        String email
+
+) {
+
+    public UserChangedEvent(User user) {
+        this ( user.getId ( ) , user.getEmail ( ) , user.getEmail ( ) );
+    }
+}
@@ -1,26 +1,50 @@
 package com.example.demo.user;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import com.example.demo.security.CurrentUser;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/api/users")
 
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
 
-    public UserController( UserService userService) {
+    public UserController( UserService userService , UserImportService userImportService) {
         this.userService = userService;
+        this.userImportService = userImportService;
+    }
+
+    /**
+     * Streams a CSV (header line first) or NDJSON body of users into the database, e.g.
+     * {@code curl -H 'Content-Type: text/csv' --data-binary @users.csv /api/users/import}.
+     * Hashing bounds the rate, about 10 users per second per core at BCrypt strength 10.
+     */
+    @PostMapping(value = "/import", consumes = { "text/csv" , MediaType.APPLICATION_NDJSON_VALUE })
+    @PreAuthorize ( "hasRole('ADMIN')" )
+
+    public ResponseEntity<UserImportResultDto> importUsers(HttpServletRequest request) throws IOException {
+
+        UserImportService.Format format = MediaType.parseMediaType ( request.getContentType ( ) )
+                .isCompatibleWith ( MediaType.APPLICATION_NDJSON )
+                ? UserImportService.Format.NDJSON
+                : UserImportService.Format.CSV;
+
+        return ResponseEntity.ok ( userImportService.importUsers ( request.getInputStream ( ) , format ) );
     }
 
     @GetMapping
@@ -70,13 +94,13 @@ public class UserController {
 
 
     @GetMapping("/{id}")
-    public ResponseEntity <UserResponseDto> getUserById (@PathVariable Long id , Authentication authentication) {
-        return ResponseEntity.ok ( userService.getUserById ( id , authentication ) );
+    public ResponseEntity <UserResponseDto> getUserById (@PathVariable Long id , CurrentUser currentUser) {
+        return ResponseEntity.ok ( userService.getUserById ( id , currentUser ) );
     }
 
     @GetMapping("/email/{email}")
-    public ResponseEntity<UserResponseDto> getUserByEmail(@PathVariable String email , Authentication authentication) {
-        return ResponseEntity.ok ( userService.getUserByEmail ( email , authentication ) );
+    public ResponseEntity<UserResponseDto> getUserByEmail(@PathVariable String email , CurrentUser currentUser) {
+        return ResponseEntity.ok ( userService.getUserByEmail ( email , currentUser ) );
     }
 
     @PostMapping
@@ -91,8 +115,8 @@ public class UserController {
     @PutMapping("/password_update/{id}")
     public ResponseEntity<Void> updateUserPassword(@PathVariable Long id,
                                                    @Valid @RequestBody UserPasswordUpdateDto dto,
-                                                   Authentication authentication) {
-        userService.updatePassword(id, dto, authentication);
+                                                   CurrentUser currentUser) {
+        userService.updatePassword(id, dto, currentUser);
         return ResponseEntity.noContent().build();
     }
 
@@ -100,14 +124,14 @@ public class UserController {
     @PutMapping("/{id}")
     public ResponseEntity<UserResponseDto> updateUser(@PathVariable Long id ,
                                                       @Valid @RequestBody UserUpdateDto userUpdateDto,
-                                                      Authentication authentication) {
+                                                      CurrentUser currentUser) {
 
-        return ResponseEntity.status ( HttpStatus.OK ).body ( userService.updateUser ( id , userUpdateDto , authentication) );
+        return ResponseEntity.status ( HttpStatus.OK ).body ( userService.updateUser ( id , userUpdateDto , currentUser) );
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity <Void> deleteUser(@PathVariable Long id , Authentication authentication) {
-        userService.deleteUser(id , authentication );
+    public ResponseEntity <Void> deleteUser(@PathVariable Long id , CurrentUser currentUser) {
+        userService.deleteUser(id , currentUser );
         return ResponseEntity.noContent().build();
     }
 
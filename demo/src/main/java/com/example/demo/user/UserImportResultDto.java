@@ -0,0 +1,21 @@
+package com.example.demo.user;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk user import. Only the first failures are listed in detail;
+ * {@code failed} always holds the full count.
+ */
+public record UserImportResultDto(
+
+        long processed ,
+        long imported ,
+        long failed ,
+        List<Failure> failures ,
+        boolean failuresTruncated
+
+) {
+
+    public record Failure(long line , String email , String reason) {
+    }
+}
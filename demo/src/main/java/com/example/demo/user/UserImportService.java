@@ -0,0 +1,402 @@
+package com.example.demo.user;
+
+import com.example.demo.exception.model.ErrorCode;
+import com.example.demo.exception.types.ServiceUnavailableException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports users from a CSV or NDJSON stream, one line per user. The body is read a chunk at a
+ * time, so memory stays flat however large the file: each chunk is validated, deduplicated against
+ * itself and (with two IN queries) against the database, hashed in parallel on a dedicated pool and
+ * inserted in JDBC batches in its own transaction before the next chunk is read.
+ * <p>
+ * Earlier chunks are committed by the time later ones are checked, so duplicates across chunks are
+ * caught by the database lookup. Hashing never uses the pool that serves logins.
+ */
+@Slf4j
+@Service
+
+public class UserImportService implements DisposableBean {
+
+    public enum Format { CSV , NDJSON }
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_FAILURES = 1000;
+    private static final List<String> CSV_COLUMNS =
+            List.of ( "username" , "email" , "password" , "firstname" , "lastname" , "role" );
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaction;
+    private final ThreadPoolExecutor hashingPool;
+    private final Semaphore runningImports;
+    private final long retryAfterSeconds;
+
+    public UserImportService(UserRepository userRepository , UserMapper userMapper ,
+                             BCryptPasswordEncoder passwordEncoder , Validator validator ,
+                             ObjectMapper objectMapper , PlatformTransactionManager transactionManager ,
+                             @Value("${user.import.hashing-threads:0}") int hashingThreads ,
+                             @Value("${user.import.max-concurrent:1}") int maxConcurrentImports ,
+                             @Value("${user.import.retry-after:30}") long retryAfterSeconds) {
+
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate ( transactionManager );
+        this.runningImports = new Semaphore ( maxConcurrentImports );
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        // Hashing is the import's bottleneck, so by default it gets a thread per core; 0 means that default.
+        if (hashingThreads <= 0) {
+            hashingThreads = Runtime.getRuntime ( ).availableProcessors ( );
+        }
+
+        // The queue holds one chunk; if it ever fills, the importing thread hashes itself and slows the reader.
+        AtomicInteger threadCount = new AtomicInteger ( );
+        this.hashingPool = new ThreadPoolExecutor (
+                hashingThreads , hashingThreads , 0L , TimeUnit.MILLISECONDS ,
+                new ArrayBlockingQueue<> ( CHUNK_SIZE ) ,
+                runnable -> {
+                    Thread thread = new Thread ( runnable , "user-import-hash-" + threadCount.incrementAndGet ( ) );
+                    thread.setDaemon ( true );
+                    return thread;
+                } ,
+                new ThreadPoolExecutor.CallerRunsPolicy ( )
+        );
+    }
+
+    public UserImportResultDto importUsers(InputStream input , Format format) {
+
+        if (!runningImports.tryAcquire ( )) {
+            throw new ServiceUnavailableException (
+                    ErrorCode.USER_IMPORT_BUSY.toString ( ) ,
+                    "Another user import is running, please try again later" ,
+                    retryAfterSeconds );
+        }
+
+        long started = System.nanoTime ( );
+
+        try (BufferedReader reader = new BufferedReader ( new InputStreamReader ( input , StandardCharsets.UTF_8 ) )) {
+            Report report = new Report ( );
+            LineParser parser = format == Format.CSV ? new CsvParser ( ) : this::parseJson;
+            List<Row> chunk = new ArrayList<> ( CHUNK_SIZE );
+
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine ( )) != null) {
+                lineNumber++;
+                if (line.isBlank ( )) continue;
+
+                Row row = parser.parse ( lineNumber , line );
+                if (row == null) continue;
+
+                chunk.add ( row );
+                if (chunk.size ( ) == CHUNK_SIZE) {
+                    importChunk ( chunk , report );
+                    chunk.clear ( );
+                }
+            }
+            if (!chunk.isEmpty ( )) {
+                importChunk ( chunk , report );
+            }
+
+            log.info ( "User import finished: {} processed, {} imported, {} failed in {} s on {} hashing threads" ,
+                    report.processed , report.imported , report.failed ,
+                    TimeUnit.NANOSECONDS.toSeconds ( System.nanoTime ( ) - started ) , hashingPool.getMaximumPoolSize ( ) );
+            return report.toDto ( );
+
+        } catch (IOException e) {
+            throw new UncheckedIOException ( "Failed to read the import stream" , e );
+        } finally {
+            runningImports.release ( );
+        }
+    }
+
+    private void importChunk(List<Row> chunk , Report report) {
+
+        // 1. Field validation and duplicates within the chunk.
+        List<Row> candidates = new ArrayList<> ( chunk.size ( ) );
+        Set<String> emails = new HashSet<> ( );
+        Set<String> userNames = new HashSet<> ( );
+
+        for (Row row : chunk) {
+            report.processed++;
+
+            if (row.error ( ) != null) {
+                report.fail ( row , row.error ( ) );
+                continue;
+            }
+
+            Set<ConstraintViolation<UserCreationDto>> violations = validator.validate ( row.dto ( ) );
+            if (!violations.isEmpty ( )) {
+                ConstraintViolation<UserCreationDto> first = violations.iterator ( ).next ( );
+                report.fail ( row , first.getPropertyPath ( ) + ": " + first.getMessage ( ) );
+                continue;
+            }
+
+            if (!emails.add ( row.emailKey ( ) )) {
+                report.fail ( row , "Email appears more than once in the file" );
+            } else if (!userNames.add ( row.userNameKey ( ) )) {
+                report.fail ( row , "Username appears more than once in the file" );
+            } else {
+                candidates.add ( row );
+            }
+        }
+
+        if (candidates.isEmpty ( )) {
+            return;
+        }
+
+        // 2. Existing users, two queries for the whole chunk.
+        Set<String> takenEmails = userRepository.findExistingEmails ( emails );
+        Set<String> takenUserNames = userRepository.findExistingUserNames ( userNames );
+
+        List<Row> accepted = new ArrayList<> ( candidates.size ( ) );
+        for (Row row : candidates) {
+            if (takenEmails.contains ( row.emailKey ( ) )) {
+                report.fail ( row , ErrorCode.EMAIL_ALREADY_EXISTS.toString ( ) );
+            } else if (takenUserNames.contains ( row.userNameKey ( ) )) {
+                report.fail ( row , ErrorCode.USER_ALREADY_EXISTS.toString ( ) );
+            } else {
+                accepted.add ( row );
+            }
+        }
+
+        if (accepted.isEmpty ( )) {
+            return;
+        }
+
+        // 3. Hash in parallel, 4. insert as batches in one transaction per chunk.
+        List<User> users = hashAll ( accepted );
+
+        insert ( accepted , users , report );
+    }
+
+    /**
+     * A user created while the import runs can take one of the emails or usernames, and the unique
+     * violation rolls back the whole transaction. The rows are then retried in halves, so only the
+     * rows that really conflict are reported and a handful of conflicts cost O(log n) retries each.
+     */
+    private void insert(List<Row> rows , List<User> users , Report report) {
+        try {
+            transaction.executeWithoutResult ( tx -> userRepository.saveAll ( users ) );
+            report.imported += users.size ( );
+        } catch (DataIntegrityViolationException e) {
+            // Ids from the rolled back transaction are dropped, so the retry inserts instead of merging.
+            users.forEach ( user -> user.setId ( null ) );
+
+            if (rows.size ( ) == 1) {
+                log.warn ( "User import line {} conflicts with a user created during the import" , rows.get ( 0 ).line ( ) );
+                report.fail ( rows.get ( 0 ) , "Conflicts with a user created during the import" );
+                return;
+            }
+
+            int half = rows.size ( ) / 2;
+            insert ( rows.subList ( 0 , half ) , users.subList ( 0 , half ) , report );
+            insert ( rows.subList ( half , rows.size ( ) ) , users.subList ( half , users.size ( ) ) , report );
+        }
+    }
+
+    private List<User> hashAll(List<Row> rows) {
+
+        List<Future<String>> hashes = new ArrayList<> ( rows.size ( ) );
+        for (Row row : rows) {
+            String rawPassword = row.dto ( ).password ( );
+            hashes.add ( hashingPool.submit ( () -> passwordEncoder.encode ( rawPassword ) ) );
+        }
+
+        List<User> users = new ArrayList<> ( rows.size ( ) );
+        for (int i = 0; i < rows.size ( ); i++) {
+            User user = userMapper.toUser ( rows.get ( i ).dto ( ) );
+            user.setPassword ( await ( hashes.get ( i ) ) );
+            users.add ( user );
+        }
+        return users;
+    }
+
+    private static String await(Future<String> hash) {
+        try {
+            return hash.get ( );
+        } catch (InterruptedException e) {
+            Thread.currentThread ( ).interrupt ( );
+            throw new IllegalStateException ( "User import interrupted" , e );
+        } catch (ExecutionException e) {
+            throw new IllegalStateException ( "Password hashing failed" , e.getCause ( ) );
+        }
+    }
+
+    @Override
+    public void destroy() {
+        hashingPool.shutdownNow ( );
+    }
+
+    // ---- Parsing ----
+
+    private record Row(long line , UserCreationDto dto , String error) {
+
+        static Row invalid(long line , String error) {
+            return new Row ( line , null , error );
+        }
+
+        String emailKey() {
+            return dto.email ( ).trim ( ).toLowerCase ( Locale.ROOT );
+        }
+
+        String userNameKey() {
+            return dto.username ( ).trim ( ).toLowerCase ( Locale.ROOT );
+        }
+    }
+
+    @FunctionalInterface
+    private interface LineParser {
+        // Returns null for lines that carry no user, such as the CSV header.
+        Row parse(long lineNumber , String line);
+    }
+
+    private Row parseJson(long lineNumber , String line) {
+        try {
+            return new Row ( lineNumber , objectMapper.readValue ( line , UserCreationDto.class ) , null );
+        } catch (JsonProcessingException e) {
+            return Row.invalid ( lineNumber , "Malformed JSON: " + e.getOriginalMessage ( ) );
+        }
+    }
+
+    /**
+     * Header-driven CSV: the first line names the columns, in any order. Quoted fields may contain
+     * commas and doubled quotes, but not line breaks.
+     */
+    private static final class CsvParser implements LineParser {
+
+        private Map<String, Integer> columns;
+
+        @Override
+        public Row parse(long lineNumber , String line) {
+
+            List<String> fields = split ( line );
+
+            if (columns == null) {
+                columns = new HashMap<> ( );
+                for (int i = 0; i < fields.size ( ); i++) {
+                    columns.put ( fields.get ( i ).trim ( ).toLowerCase ( Locale.ROOT ) , i );
+                }
+                if (!columns.keySet ( ).containsAll ( CSV_COLUMNS )) {
+                    throw new IllegalArgumentException ( "CSV header must contain the columns " + CSV_COLUMNS );
+                }
+                return null;
+            }
+
+            String role = field ( fields , "role" );
+            Role parsedRole = null;
+            if (role != null && !role.isBlank ( )) {
+                parsedRole = Arrays.stream ( Role.values ( ) )
+                        .filter ( r -> r.name ( ).equalsIgnoreCase ( role.trim ( ) ) )
+                        .findFirst ( )
+                        .orElse ( null );
+                if (parsedRole == null) {
+                    return Row.invalid ( lineNumber , "Unknown role '" + role + "'" );
+                }
+            }
+
+            return new Row ( lineNumber , new UserCreationDto (
+                    field ( fields , "username" ) ,
+                    field ( fields , "email" ) ,
+                    field ( fields , "password" ) ,
+                    field ( fields , "firstname" ) ,
+                    field ( fields , "lastname" ) ,
+                    parsedRole
+            ) , null );
+        }
+
+        private String field(List<String> fields , String column) {
+            int index = columns.get ( column );
+            return index < fields.size ( ) ? fields.get ( index ) : null;
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<> ( );
+            StringBuilder current = new StringBuilder ( );
+            boolean quoted = false;
+
+            for (int i = 0; i < line.length ( ); i++) {
+                char c = line.charAt ( i );
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length ( ) && line.charAt ( i + 1 ) == '"') {
+                        current.append ( '"' );
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append ( c );
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add ( current.toString ( ) );
+                    current.setLength ( 0 );
+                } else {
+                    current.append ( c );
+                }
+            }
+            fields.add ( current.toString ( ) );
+            return fields;
+        }
+    }
+
+    private static final class Report {
+
+        private long processed;
+        private long imported;
+        private long failed;
+        private final List<UserImportResultDto.Failure> failures = new ArrayList<> ( );
+
+        private void fail(Row row , String reason) {
+            failed++;
+            if (failures.size ( ) < MAX_REPORTED_FAILURES) {
+                String email = row.dto ( ) == null ? null : row.dto ( ).email ( );
+                failures.add ( new UserImportResultDto.Failure ( row.line ( ) , email , reason ) );
+            }
+        }
+
+        private UserImportResultDto toDto() {
+            return new UserImportResultDto ( processed , imported , failed , failures , failed > failures.size ( ) );
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package com.example.demo.user;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 
@@ -14,13 +21,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
 
-    Optional <User> findByEmailIgnoreCase(String email);
+    @Query("SELECT u FROM User u WHERE lower(u.email) = lower(:email)")
+    Optional <User> findByEmailIgnoreCase(@Param("email") String email);
 
     Optional <User> findByEmail(String email);
 
     boolean existsByEmailAndIdNot(String email , Long id);
 
-    boolean existsByUserNameIgnoreCase(String userName);
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM users WHERE lower(user_name) = lower(:userName))",
+            nativeQuery = true)
+    boolean existsByUserNameIgnoreCase(@Param("userName") String userName);
 
     boolean existsByUserNameAndIdNot(String userName , Long id);
 
@@ -41,8 +51,30 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
 
 
-    @Query ("SELECT case when count(u) = 1 then true else false end FROM User u WHERE u.role = 'ADMIN' " +
-            "AND u.isActive = true")
+    // Token versions (see TokenVersionRegistry). Flushes first so the change that caused the bump
+    // is written in the same transaction, ahead of the version.
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    @Query(value = "UPDATE users SET token_version = token_version + 1 WHERE id = :id", nativeQuery = true)
+    int incrementTokenVersion(@Param("id") Long id);
+
+    @Query(value = "SELECT token_version FROM users WHERE id = :id", nativeQuery = true)
+    int findTokenVersion(@Param("id") Long id);
+
+    @Query(value = "SELECT id, token_version FROM users WHERE token_version > 0", nativeQuery = true)
+    List<Object[]> findBumpedTokenVersions();
+
+    // Bulk import: which of these (already lower-cased) emails and usernames are taken.
+    @Query(value = "SELECT lower(email) FROM users WHERE lower(email) IN (:emails)", nativeQuery = true)
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query(value = "SELECT lower(user_name) FROM users WHERE lower(user_name) IN (:userNames)", nativeQuery = true)
+    Set<String> findExistingUserNames(@Param("userNames") Collection<String> userNames);
+
+    // Stops after two rows: all that matters is whether a second active admin exists.
+    @Query (value = "SELECT count(*) = 1 FROM (SELECT 1 FROM users WHERE role = 'ADMIN' " +
+            "AND is_active = true LIMIT 2) admins",
+            nativeQuery = true)
 
     boolean isLastAdmin();
 
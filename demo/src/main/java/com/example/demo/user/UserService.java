@@ -3,13 +3,15 @@ import com.example.demo.course.CourseRepository;
 import com.example.demo.exception.model.ErrorCode;
 import com.example.demo.exception.types.DuplicateResourceException;
 import com.example.demo.exception.types.NotFoundException;
+import com.example.demo.security.CurrentUser;
+import com.example.demo.security.TokenVersionRegistry;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,14 +29,19 @@ public class UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserService(CourseRepository courseRepository , UserRepository userRepository , UserMapper userMapper ,
-                       PasswordEncoder passwordEncoder) {
+                       PasswordEncoder passwordEncoder , TokenVersionRegistry tokenVersionRegistry ,
+                       ApplicationEventPublisher eventPublisher) {
 
         this.courseRepository = courseRepository;
         this.userRepository = userRepository;
         this.userMapper = userMapper;
         this.passwordEncoder = passwordEncoder;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -83,14 +90,14 @@ public class UserService {
     }
 
     @Transactional (readOnly = true)
-    public UserResponseDto getUserById (long id , Authentication authentication) {
+    public UserResponseDto getUserById (long id , CurrentUser currentUser) {
 
 
         User u = userRepository.findById ( id )
                 .orElseThrow (  () -> new NotFoundException ( ErrorCode.USER_NOT_FOUND.toString () ,
                         "User with id " + id + " not found") );
 
-         accessValidation( u ,  authentication );
+         accessValidation( u ,  currentUser );
 
 
         return userMapper.toResponse ( u );
@@ -112,7 +119,7 @@ public class UserService {
     }
 
     @Transactional(readOnly = true)
-    public UserResponseDto getUserByEmail (String requestedEmail , Authentication authentication) {
+    public UserResponseDto getUserByEmail (String requestedEmail , CurrentUser currentUser) {
         if (requestedEmail == null || requestedEmail.isBlank ( )) {
             throw new IllegalArgumentException ( "Email can't be blank" );
         }
@@ -126,22 +133,24 @@ public class UserService {
                 .orElseThrow (  () -> new NotFoundException ( ErrorCode.USER_NOT_FOUND.toString () ,
                         "User with email " + requestedEmail + " not found") );
 
-        accessValidation ( u , authentication  );
+        accessValidation ( u , currentUser  );
 
         return  userMapper.toResponse ( u );
     }
 
     @Transactional
-    public UserResponseDto updateUser(Long id , @Valid UserUpdateDto dto , Authentication authentication) {
+    public UserResponseDto updateUser(Long id , @Valid UserUpdateDto dto , CurrentUser currentUser) {
 
         Objects.requireNonNull ( dto , "User can't be null" );
 
         User r = userRepository.findById ( id ).orElseThrow ( () ->
                 new NotFoundException ( ErrorCode.USER_NOT_FOUND.toString () , "User with id " + id + " not found") );
 
-        accessValidation ( r ,  authentication );
+        accessValidation ( r ,  currentUser );
 
-        User currentUser = getCurrentUser ( authentication );
+        Role previousRole = r.getRole ( );
+        boolean previouslyActive = r.isActive ( );
+        String previousEmail = r.getEmail ( );
 
         if (dto.username ( ) != null && !dto.username ( ).isBlank ( )) {
             String userName = dto.username ( ).trim ( );
@@ -197,24 +206,30 @@ public class UserService {
         if (dto.isActive ( ) != null) {
 
             if (dto.isActive ().equals ( false )) {
-                validateStatusChange ( r , authentication );
+                validateStatusChange ( r , currentUser );
             }
 
             r.setActive ( dto.isActive ( ) );
         }
 
         userRepository.save ( r );
+
+        if (r.getRole ( ) != previousRole || r.isActive ( ) != previouslyActive) {
+            tokenVersionRegistry.bump ( r.getId ( ) );
+        }
+
+        eventPublisher.publishEvent ( new UserChangedEvent ( r.getId ( ) , previousEmail , r.getEmail ( ) ) );
         return userMapper.toResponse ( r );
     }
 
     @Transactional
-    public void updatePassword(Long id , @Valid UserPasswordUpdateDto dto , Authentication authentication) {
+    public void updatePassword(Long id , @Valid UserPasswordUpdateDto dto , CurrentUser currentUser) {
 
         Objects.requireNonNull ( dto , "User can't be null" );
         User r = userRepository.findById ( id ).orElseThrow ( () ->
                 new NotFoundException ( ErrorCode.USER_NOT_FOUND.toString ( ) , "User with id " + id + " not found" ) );
 
-        passwordUpdateValidation ( r , authentication );
+        passwordUpdateValidation ( r , currentUser );
 
         if (!passwordEncoder.matches ( dto.currentPassword ( ) , r.getPassword ( ) )) {
             log.warn ("Failed password change attempt for user ID: {}", id );
@@ -223,16 +238,15 @@ public class UserService {
 
         r.setPassword ( passwordEncoder.encode ( dto.newPassword ( ) ) );
         userRepository.save ( r );
+        eventPublisher.publishEvent ( new UserChangedEvent ( r ) );
 
         log.info ( "Password updated successfully for the user {}" , r.getId ( ) );
     }
 
     @Transactional
-    public void deleteUser( Long id , Authentication authentication ) {
+    public void deleteUser( Long id , CurrentUser currentUser ) {
         Objects.requireNonNull ( id , "User can't be null");
 
-        User currentUser = getCurrentUser ( authentication );
-
         User userToDelete = userRepository.findById ( id ).orElseThrow ( () ->
                 new NotFoundException ( ErrorCode.USER_NOT_FOUND.toString ( ) , "User with id " + id + " not found" ) );
 
@@ -251,6 +265,7 @@ public class UserService {
         }
 
         String timestamp = String.valueOf(System.currentTimeMillis());
+        String previousEmail = userToDelete.getEmail ( );
 
         userToDelete.setUserName (  userToDelete.getUserName () + "_deleted_" + timestamp  );
         userToDelete.setEmail (  userToDelete.getEmail () + "_deleted_" + timestamp  );
@@ -258,6 +273,10 @@ public class UserService {
         userToDelete.setActive (  false );
         userRepository.save ( userToDelete );
 
+        tokenVersionRegistry.bump ( userToDelete.getId ( ) );
+        eventPublisher.publishEvent (
+                new UserChangedEvent ( userToDelete.getId ( ) , previousEmail , userToDelete.getEmail ( ) ) );
+
     }
 
     private boolean isValidEmailFormat(String email) {
@@ -281,13 +300,9 @@ public class UserService {
 
     }
 
-    private void accessValidation(User user, Authentication authentication) {
-
-        String currentUserEmail = authentication.getName ();
+    private void accessValidation(User user, CurrentUser currentUser) {
 
-        User currentUser = userRepository.findByEmailIgnoreCase ( currentUserEmail )
-                .orElseThrow ( () -> new NotFoundException ( ErrorCode.USER_NOT_FOUND.toString () ,
-                        "User with email " + currentUserEmail + " not found") );
+        String currentUserEmail = currentUser.getEmail ();
 
         if ( currentUser.getRole ( ).equals ( Role.STUDENT ) && !currentUser.getId ( ).equals ( user.getId ( ) ) ) {
             throw new AccessDeniedException (
@@ -296,12 +311,9 @@ public class UserService {
         }
 
 
-        boolean instructorAccessStudentInfo = courseRepository.existsByInstructorAndStudent
-                ( currentUserEmail , user.getEmail () );
-
-
-        if (currentUser.getRole ().equals (  Role.INSTRUCTOR ) && !instructorAccessStudentInfo &&
-        !currentUser.getId ( ).equals ( user.getId ( ) ) )
+        if (currentUser.getRole ().equals (  Role.INSTRUCTOR ) &&
+        !currentUser.getId ( ).equals ( user.getId ( ) ) &&
+        !courseRepository.existsByInstructorAndStudent ( currentUserEmail , user.getEmail () ) )
         {
             throw new AccessDeniedException (
                     "Instructor can only access their own students information"
@@ -311,9 +323,7 @@ public class UserService {
 
     }
 
-    private void validateStatusChange(User user , Authentication authentication) {
-
-        User currentUser = getCurrentUser ( authentication );
+    private void validateStatusChange(User user , CurrentUser currentUser) {
 
         if (!currentUser.getRole ( ).equals ( Role.ADMIN )) {
             throw new AccessDeniedException ( "Only admins can change active status" );
@@ -329,13 +339,7 @@ public class UserService {
 
     }
 
-    private void passwordUpdateValidation (User user, Authentication authentication) {
-
-        String currentUserEmail = authentication.getName ();
-
-        User currentUser = userRepository.findByEmailIgnoreCase ( currentUserEmail )
-                .orElseThrow ( () -> new NotFoundException ( ErrorCode.USER_NOT_FOUND.toString () ,
-                        "User with email " + currentUserEmail + " not found") );
+    private void passwordUpdateValidation (User user, CurrentUser currentUser) {
 
         if ( !currentUser.getId ( ).equals ( user.getId ( ) ) ) {
             throw new AccessDeniedException (
@@ -347,13 +351,4 @@ public class UserService {
 
     }
 
-    private User getCurrentUser(Authentication authentication) {
-        String currentUserEmail = authentication.getName ( );
-
-        return userRepository.findByEmailIgnoreCase ( currentUserEmail )
-                .orElseThrow ( () -> new NotFoundException ( ErrorCode.USER_NOT_FOUND.toString () ,
-                        "User with email " + currentUserEmail + " not found") );
-    }
-
-
 }
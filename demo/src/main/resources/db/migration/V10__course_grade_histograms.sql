@@ -0,0 +1,3 @@
+-- Per-course grade histogram (see GradeHistogram for the encoding). Left empty here; the stats
+-- reconciliation job fills it from the enrollment table on its first run.
+ALTER TABLE course_enrollment_stats ADD COLUMN IF NOT EXISTS grade_histogram BYTEA;
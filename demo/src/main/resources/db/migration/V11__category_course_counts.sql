@@ -0,0 +1,24 @@
+-- Course counts per category and status, maintained by CourseService in the transaction that
+-- creates, moves or archives a course. Every category has a row, so "categories without courses"
+-- is a scan of the partial index below instead of an anti-join against course.
+CREATE TABLE IF NOT EXISTS category_course_counts (
+    category_id       BIGINT    PRIMARY KEY REFERENCES category(id),
+    draft_courses     BIGINT    NOT NULL DEFAULT 0,
+    published_courses BIGINT    NOT NULL DEFAULT 0,
+    archived_courses  BIGINT    NOT NULL DEFAULT 0,
+    total_courses     BIGINT    GENERATED ALWAYS AS (draft_courses + published_courses + archived_courses) STORED,
+    updated_at        TIMESTAMP NOT NULL DEFAULT now()
+);
+
+INSERT INTO category_course_counts (category_id, draft_courses, published_courses, archived_courses)
+SELECT cat.id,
+       count(c.id) FILTER (WHERE c.status = 'DRAFT'),
+       count(c.id) FILTER (WHERE c.status = 'PUBLISHED'),
+       count(c.id) FILTER (WHERE c.status = 'ARCHIVED')
+FROM category cat
+LEFT JOIN course c ON c.category_id = cat.id
+GROUP BY cat.id
+ON CONFLICT (category_id) DO NOTHING;
+
+CREATE INDEX IF NOT EXISTS idx_category_course_counts_empty
+    ON category_course_counts(category_id) WHERE total_courses = 0;
@@ -0,0 +1,5 @@
+-- Bumped whenever a user's role or active flag changes, or a refresh token is replayed. Access
+-- tokens carry the version they were issued under and are refused once it falls behind.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_users_bumped_token_version ON users(id, token_version) WHERE token_version > 0;
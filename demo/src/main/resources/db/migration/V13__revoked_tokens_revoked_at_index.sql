@@ -0,0 +1,2 @@
+-- TokenRevocationList polls for revocations made on other instances by revoked_at.
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens(revoked_at);
@@ -0,0 +1,6 @@
+-- Keyset pages seek on (date_of_enrollment, id), and a NULL date never satisfies the seek
+-- predicate, so such rows were skipped and could not be encoded in a cursor. Backfill and forbid.
+UPDATE enrollment SET date_of_enrollment = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE date_of_enrollment IS NULL;
+
+ALTER TABLE enrollment ALTER COLUMN date_of_enrollment SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE enrollment ALTER COLUMN date_of_enrollment SET NOT NULL;
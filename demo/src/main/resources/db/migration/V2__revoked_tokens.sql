@@ -0,0 +1,8 @@
+CREATE TABLE revoked_tokens (
+                       jti        VARCHAR(64) PRIMARY KEY,
+                       user_id    BIGINT,
+                       expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                       revoked_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens(expires_at);
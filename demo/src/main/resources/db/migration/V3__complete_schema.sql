@@ -0,0 +1,76 @@
+-- Tables that so far only existed as Hibernate mappings. Everything is IF NOT EXISTS so databases
+-- that were created by ddl-auto before Flyway was switched on can be baselined and migrated.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS locked     BOOLEAN   NOT NULL DEFAULT FALSE;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_login TIMESTAMP;
+
+CREATE TABLE IF NOT EXISTS category (
+                       id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                       name        VARCHAR(60)  NOT NULL UNIQUE,
+                       description VARCHAR(255),
+                       slug        VARCHAR(255) UNIQUE,
+                       is_active   BOOLEAN      NOT NULL DEFAULT TRUE,
+                       created_at  TIMESTAMP,
+                       updated_at  TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS course (
+                       id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                       title             VARCHAR(255)   NOT NULL,
+                       description       VARCHAR(255),
+                       short_description VARCHAR(255),
+                       duration          INTEGER,
+                       price             NUMERIC(10, 2),
+                       level             VARCHAR(20)    NOT NULL CHECK (level IN ('BEGINNER','INTERMEDIATE','ADVANCED')),
+                       status            VARCHAR(20)    NOT NULL CHECK (status IN ('DRAFT','PUBLISHED','ARCHIVED')),
+                       instructor_id     BIGINT         NOT NULL REFERENCES users(id),
+                       category_id       BIGINT         NOT NULL REFERENCES category(id),
+                       created_at        TIMESTAMP,
+                       updated_at        TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS module (
+                       id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                       title       VARCHAR(255) NOT NULL,
+                       description VARCHAR(255),
+                       order_index INTEGER,
+                       is_active   BOOLEAN DEFAULT TRUE,
+                       course_id   BIGINT       NOT NULL REFERENCES course(id),
+                       created_at  TIMESTAMP,
+                       updated_at  TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS enrollment (
+                       id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                       user_id            BIGINT REFERENCES users(id),
+                       course_id          BIGINT REFERENCES course(id),
+                       date_of_enrollment TIMESTAMP,
+                       is_active          BOOLEAN,
+                       progress           VARCHAR(20) CHECK (progress IN ('NOT_STARTED','IN_PROGRESS','DISTRIBUTED','COMPLETED','CANCELLED')),
+                       completion_date    TIMESTAMP,
+                       final_grade        NUMERIC(38, 2),
+                       created_at         TIMESTAMP,
+                       updated_at         TIMESTAMP
+);
+
+-- existsByUserIdAndCourseId, and a student can only hold one enrollment per course.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_enrollment_user_course ON enrollment(user_id, course_id);
+
+-- Course pages and enrollment listings for a course, newest first.
+CREATE INDEX IF NOT EXISTS idx_enrollment_course_date ON enrollment(course_id, date_of_enrollment DESC);
+
+-- activeCoursesForTheInstructor, findByInstructor.
+CREATE INDEX IF NOT EXISTS idx_course_instructor_status ON course(instructor_id, status);
+
+-- hasActiveOrDraftCourses, findByCategoryId, category course counts.
+CREATE INDEX IF NOT EXISTS idx_course_category_status ON course(category_id, status);
+
+-- Ordered module listings and max(order_index) per course.
+CREATE INDEX IF NOT EXISTS idx_module_course_active_order ON module(course_id, is_active, order_index);
+
+-- Case-insensitive lookups, matching the lower(...) predicates in the repositories.
+CREATE INDEX IF NOT EXISTS idx_course_lower_title ON course(lower(title));
+CREATE INDEX IF NOT EXISTS idx_module_course_lower_title ON module(course_id, lower(title));
+CREATE INDEX IF NOT EXISTS idx_category_lower_name ON category(lower(name));
+CREATE INDEX IF NOT EXISTS idx_users_lower_email ON users(lower(email));
+CREATE INDEX IF NOT EXISTS idx_users_lower_user_name ON users(lower(user_name));
@@ -0,0 +1,7 @@
+-- Keyset pagination on (date_of_enrollment, id), newest first. The trailing id lets the seek
+-- predicate and the ORDER BY be answered from the index without a sort.
+CREATE INDEX IF NOT EXISTS idx_enrollment_user_date_id ON enrollment(user_id, date_of_enrollment DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_enrollment_course_date_id ON enrollment(course_id, date_of_enrollment DESC, id DESC);
+
+-- Superseded by idx_enrollment_course_date_id.
+DROP INDEX IF EXISTS idx_enrollment_course_date;
@@ -0,0 +1,5 @@
+-- /api/courses/search: catalog filters lead with status, then level and price ranges.
+CREATE INDEX IF NOT EXISTS idx_course_status_level_price ON course(status, level, price);
+
+-- Title prefix search (lower(title) LIKE 'abc%'); the plain expression index only serves equality.
+CREATE INDEX IF NOT EXISTS idx_course_lower_title_pattern ON course(lower(title) text_pattern_ops);
@@ -0,0 +1,15 @@
+-- Keyword search across title, short description and description. The vector is a stored generated
+-- column so it can never drift from the row; title terms weigh most, the long description least.
+-- The 'simple' configuration does no stemming, which keeps prefix matching predictable across languages.
+ALTER TABLE course ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(short_description, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_course_search_vector ON course USING GIN (search_vector);
+
+-- Typo tolerance on titles: trigram similarity (the % operator) is served by this index.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_course_lower_title_trgm ON course USING GIN (lower(title) gin_trgm_ops);
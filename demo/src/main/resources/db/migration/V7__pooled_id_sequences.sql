@@ -0,0 +1,33 @@
+-- Pooled sequences replace identity columns so Hibernate can batch inserts: each nextval hands the
+-- application a block of 50 ids (allocationSize on the entities must match INCREMENT BY).
+-- Sequences start past the current max id; the column default keeps plain SQL inserts working.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+SELECT setval('users_seq', COALESCE((SELECT max(id) FROM users), 0) + 50);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER SEQUENCE users_seq OWNED BY users.id;
+
+CREATE SEQUENCE IF NOT EXISTS category_seq INCREMENT BY 50;
+SELECT setval('category_seq', COALESCE((SELECT max(id) FROM category), 0) + 50);
+ALTER TABLE category ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE category ALTER COLUMN id SET DEFAULT nextval('category_seq');
+ALTER SEQUENCE category_seq OWNED BY category.id;
+
+CREATE SEQUENCE IF NOT EXISTS course_seq INCREMENT BY 50;
+SELECT setval('course_seq', COALESCE((SELECT max(id) FROM course), 0) + 50);
+ALTER TABLE course ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE course ALTER COLUMN id SET DEFAULT nextval('course_seq');
+ALTER SEQUENCE course_seq OWNED BY course.id;
+
+CREATE SEQUENCE IF NOT EXISTS module_seq INCREMENT BY 50;
+SELECT setval('module_seq', COALESCE((SELECT max(id) FROM module), 0) + 50);
+ALTER TABLE module ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE module ALTER COLUMN id SET DEFAULT nextval('module_seq');
+ALTER SEQUENCE module_seq OWNED BY module.id;
+
+CREATE SEQUENCE IF NOT EXISTS enrollment_seq INCREMENT BY 50;
+SELECT setval('enrollment_seq', COALESCE((SELECT max(id) FROM enrollment), 0) + 50);
+ALTER TABLE enrollment ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE enrollment ALTER COLUMN id SET DEFAULT nextval('enrollment_seq');
+ALTER SEQUENCE enrollment_seq OWNED BY enrollment.id;
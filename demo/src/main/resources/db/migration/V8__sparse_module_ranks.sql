@@ -0,0 +1,13 @@
+-- order_index becomes a sparse rank: neighbours start 1024 apart, so an insert or a move takes the
+-- midpoint of its new neighbours and writes only its own row. Existing rows are spread out once here.
+UPDATE module m
+SET order_index = r.rn * 1024
+FROM (SELECT id, row_number() OVER (PARTITION BY course_id ORDER BY order_index NULLS LAST, id) AS rn
+      FROM module) r
+WHERE m.id = r.id;
+
+ALTER TABLE module ALTER COLUMN order_index SET NOT NULL;
+
+-- Two modules can never share a rank. Deferred, so a set-based rebalance may pass through
+-- transient duplicates within its statement.
+ALTER TABLE module ADD CONSTRAINT ux_module_course_order UNIQUE (course_id, order_index) DEFERRABLE INITIALLY DEFERRED;
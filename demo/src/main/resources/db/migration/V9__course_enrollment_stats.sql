@@ -0,0 +1,24 @@
+-- Per-course enrollment counters, kept current by delta upserts in the same transaction as the
+-- enrollment write, so reading a course's statistics is a primary-key lookup.
+CREATE TABLE IF NOT EXISTS course_enrollment_stats (
+                       course_id             BIGINT         PRIMARY KEY REFERENCES course(id),
+                       enrollments           BIGINT         NOT NULL DEFAULT 0,
+                       active_enrollments    BIGINT         NOT NULL DEFAULT 0,
+                       completed_enrollments BIGINT         NOT NULL DEFAULT 0,
+                       graded_enrollments    BIGINT         NOT NULL DEFAULT 0,
+                       grade_sum             NUMERIC(20, 2) NOT NULL DEFAULT 0,
+                       updated_at            TIMESTAMP      NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO course_enrollment_stats (course_id, enrollments, active_enrollments, completed_enrollments,
+                                     graded_enrollments, grade_sum)
+SELECT course_id,
+       count(*),
+       count(*) FILTER (WHERE is_active),
+       count(*) FILTER (WHERE progress = 'COMPLETED'),
+       count(final_grade),
+       coalesce(sum(final_grade), 0)
+FROM enrollment
+WHERE course_id IS NOT NULL
+GROUP BY course_id
+ON CONFLICT (course_id) DO NOTHING;
@@ -0,0 +1,19 @@
+package com.example.demo;
+
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base for tests that need the real schema: one PostgreSQL container per test class, migrated by
+ * Flyway exactly as in production. Skipped where no Docker daemon is available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+
+public abstract class PostgresContainerTest {
+
+    @Container
+    @ServiceConnection
+    protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<> ( "postgres:16-alpine" );
+}
@@ -0,0 +1,46 @@
+package com.example.demo;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Wall-clock timings for the database benchmarks, which can not run under JMH because every
+ * iteration is a round trip to a container. Warm-up runs are discarded.
+ */
+public final class QueryTimer {
+
+    private QueryTimer() {
+    }
+
+    public static Timings measure(int warmUp , int runs , Supplier<?> query) {
+
+        for (int i = 0; i < warmUp; i++) {
+            query.get ( );
+        }
+
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime ( );
+            query.get ( );
+            nanos[i] = System.nanoTime ( ) - start;
+        }
+        Arrays.sort ( nanos );
+        return new Timings ( nanos[runs / 2] , nanos[Math.min ( runs - 1 , (int) Math.ceil ( runs * 0.99 ) - 1 )] );
+    }
+
+    public record Timings(long medianNanos , long p99Nanos) {
+
+        public double medianMillis() {
+            return medianNanos / 1_000_000d;
+        }
+
+        public double p99Millis() {
+            return p99Nanos / 1_000_000d;
+        }
+
+        @Override
+        public String toString() {
+            return String.format ( "median %.3f ms, p99 %.3f ms" , medianMillis ( ) , p99Millis ( ) );
+        }
+    }
+}
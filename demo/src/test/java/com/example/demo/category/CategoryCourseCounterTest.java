@@ -0,0 +1,85 @@
+package com.example.demo.category;
+
+import com.example.demo.course.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CategoryCourseCounterTest {
+
+    private final CategoryCourseCountsRepository countsRepository = mock ( CategoryCourseCountsRepository.class );
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry ( );
+    private final CategoryCourseCounter counter = new CategoryCourseCounter ( countsRepository , meterRegistry );
+
+    @Test
+    void createdCourseCountsUnderItsStatus() {
+        counter.courseCreated ( 3L , Status.PUBLISHED );
+
+        verify ( countsRepository ).applyDelta ( 3L , 0 , 1 , 0 );
+    }
+
+    @Test
+    void statusChangeMovesTheCountWithinTheCategory() {
+        counter.courseMoved ( 3L , Status.DRAFT , 3L , Status.PUBLISHED );
+
+        InOrder order = inOrder ( countsRepository );
+        order.verify ( countsRepository ).applyDelta ( 3L , -1 , 0 , 0 );
+        order.verify ( countsRepository ).applyDelta ( 3L , 0 , 1 , 0 );
+    }
+
+    @Test
+    void categoryMovesLockTheLowerIdFirst() {
+        counter.courseMoved ( 9L , Status.PUBLISHED , 2L , Status.PUBLISHED );
+
+        InOrder order = inOrder ( countsRepository );
+        order.verify ( countsRepository ).applyDelta ( 2L , 0 , 1 , 0 );
+        order.verify ( countsRepository ).applyDelta ( 9L , 0 , -1 , 0 );
+
+        counter.courseMoved ( 2L , Status.DRAFT , 9L , Status.ARCHIVED );
+
+        order.verify ( countsRepository ).applyDelta ( 2L , -1 , 0 , 0 );
+        order.verify ( countsRepository ).applyDelta ( 9L , 0 , 0 , 1 );
+    }
+
+    @Test
+    void archiveIsAStatusMove() {
+        counter.courseMoved ( 4L , Status.PUBLISHED , 4L , Status.ARCHIVED );
+
+        verify ( countsRepository ).applyDelta ( 4L , 0 , -1 , 0 );
+        verify ( countsRepository ).applyDelta ( 4L , 0 , 0 , 1 );
+    }
+
+    @Test
+    void unchangedCourseWritesNothing() {
+        counter.courseMoved ( 4L , Status.DRAFT , 4L , Status.DRAFT );
+
+        verifyNoInteractions ( countsRepository );
+    }
+
+    @Test
+    void newCategoryGetsAZeroRow() {
+        counter.categoryCreated ( 5L );
+
+        verify ( countsRepository ).applyDelta ( 5L , 0 , 0 , 0 );
+    }
+
+    @Test
+    void reconcileLocksBeforeRecountingAndReportsDrift() {
+        when ( countsRepository.recountAll ( ) ).thenReturn ( 2 , 0 );
+
+        counter.reconcile ( );
+        counter.reconcile ( );
+
+        InOrder order = inOrder ( countsRepository );
+        order.verify ( countsRepository ).lockAll ( );
+        order.verify ( countsRepository ).recountAll ( );
+        assertThat ( meterRegistry.counter ( "category.course-counts.drift" ).count ( ) ).isEqualTo ( 2 );
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.demo.category;
+
+import com.example.demo.PostgresContainerTest;
+import com.example.demo.course.CourseCreateDto;
+import com.example.demo.course.CourseMapper;
+import com.example.demo.course.CourseResponseDto;
+import com.example.demo.course.CourseService;
+import com.example.demo.course.CourseUpdateDto;
+import com.example.demo.course.Level;
+import com.example.demo.course.PublishedCatalogIndex;
+import com.example.demo.course.Status;
+import com.example.demo.exception.types.NotFoundException;
+import com.example.demo.security.CurrentUser;
+import com.example.demo.user.Role;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * category_course_counts against the real schema, driven through CourseService and CategoryService:
+ * after every kind of course write the table matches a recount of the course table, a new
+ * category has the zero row its count endpoint reads, and reconciliation repairs what was
+ * written past the services.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ CourseService.class , CourseMapper.class , CategoryService.class , CategoryMapper.class ,
+        CategoryCourseCounter.class , CategoryCourseCountsTest.Beans.class })
+
+class CategoryCourseCountsTest extends PostgresContainerTest {
+
+    private static final CurrentUser ADMIN = new CurrentUser ( 2L , "admin@example.com" , Role.ADMIN , true );
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryCourseCounter categoryCourseCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private PublishedCatalogIndex publishedCatalogIndex;
+
+    private Long backend;
+    private Long frontend;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute ( "INSERT INTO users (id, user_name, email, password, first_name, last_name, role) " +
+                "VALUES (1, 'instructor', 'instructor@example.com', 'x', 'First', 'Last', 'INSTRUCTOR'), " +
+                "(2, 'admin', 'admin@example.com', 'x', 'First', 'Last', 'ADMIN')" );
+        backend = categoryService.createCategory ( new CategoryCreateDto ( "Backend" , null , true ) ).id ( );
+        frontend = categoryService.createCategory ( new CategoryCreateDto ( "Frontend" , null , true ) ).id ( );
+    }
+
+    @Test
+    void newCategoryHasAZeroRowAndOneWithoutARowIsNotFound() {
+        assertThat ( categoryService.getCoursesCountForCategory ( backend ) ).isZero ( );
+
+        jdbcTemplate.update ( "INSERT INTO category (id, name) VALUES (900, 'Inserted by hand')" );
+        assertThatThrownBy ( ( ) -> categoryService.getCoursesCountForCategory ( 900L ) )
+                .isInstanceOf ( NotFoundException.class );
+
+        // Reconciliation gives it the row it is missing.
+        categoryCourseCounter.reconcile ( );
+        assertThat ( categoryService.getCoursesCountForCategory ( 900L ) ).isZero ( );
+    }
+
+    @Test
+    void countsFollowCreateMoveStatusChangeAndArchive() {
+        Long draft = create ( "Draft course title" , Status.DRAFT );
+        Long published = create ( "Published course title" , Status.PUBLISHED );
+        Long moving = create ( "Moving course title" , Status.PUBLISHED );
+        assertThat ( counts ( backend ) ).containsExactly ( 1L , 2L , 0L );
+        assertCountsMatchCourses ( );
+
+        update ( moving , new CourseUpdateDto ( null , null , null , null , null , null , null , null , frontend ) );
+        assertThat ( counts ( backend ) ).containsExactly ( 1L , 1L , 0L );
+        assertThat ( counts ( frontend ) ).containsExactly ( 0L , 1L , 0L );
+        assertCountsMatchCourses ( );
+
+        update ( draft , new CourseUpdateDto ( null , null , null , null , null , null , Status.PUBLISHED , null , null ) );
+        assertThat ( counts ( backend ) ).containsExactly ( 0L , 2L , 0L );
+        assertCountsMatchCourses ( );
+
+        // Moving category and status in one update.
+        update ( published , new CourseUpdateDto ( null , null , null , null , null , null , Status.PUBLISHED , null , frontend ) );
+        assertThat ( counts ( frontend ) ).containsExactly ( 0L , 2L , 0L );
+        assertCountsMatchCourses ( );
+
+        courseService.archiveCourse ( moving , ADMIN );
+        entityManager.flush ( );
+        assertThat ( counts ( frontend ) ).containsExactly ( 0L , 1L , 1L );
+        assertThat ( categoryService.getCoursesCountForCategory ( frontend ) ).isEqualTo ( 2 );
+        assertCountsMatchCourses ( );
+    }
+
+    @Test
+    void reconcileRepairsCountsWrittenPastTheServices() {
+        create ( "Counted course title" , Status.PUBLISHED );
+        double driftBefore = drift ( );
+
+        jdbcTemplate.update ( "UPDATE course SET status = 'DRAFT' WHERE category_id = ?" , backend );
+        jdbcTemplate.update ( "UPDATE category_course_counts SET archived_courses = 4 WHERE category_id = ?" , frontend );
+
+        categoryCourseCounter.reconcile ( );
+
+        assertThat ( drift ( ) - driftBefore ).isEqualTo ( 2 );
+        assertThat ( counts ( backend ) ).containsExactly ( 1L , 0L , 0L );
+        assertThat ( counts ( frontend ) ).containsExactly ( 0L , 0L , 0L );
+        assertCountsMatchCourses ( );
+
+        categoryCourseCounter.reconcile ( );
+        assertThat ( drift ( ) - driftBefore ).isEqualTo ( 2 );
+    }
+
+    private Long create(String title , Status status) {
+        CourseResponseDto course = courseService.createCourse ( new CourseCreateDto ( title , null , null , null , null ,
+                Level.BEGINNER , status , 1L , backend ) , ADMIN );
+        entityManager.flush ( );
+        return course.id ( );
+    }
+
+    private void update(Long courseId , CourseUpdateDto dto) {
+        courseService.updateCourse ( courseId , dto , ADMIN );
+        entityManager.flush ( );
+    }
+
+    // Draft, published and archived counts as stored.
+    private List<Long> counts(Long categoryId) {
+        Map<String, Object> row = jdbcTemplate.queryForMap ( "SELECT draft_courses, published_courses, archived_courses " +
+                "FROM category_course_counts WHERE category_id = ?" , categoryId );
+        return List.of ( (Long) row.get ( "draft_courses" ) , (Long) row.get ( "published_courses" ) ,
+                (Long) row.get ( "archived_courses" ) );
+    }
+
+    private void assertCountsMatchCourses() {
+        assertThat ( jdbcTemplate.queryForObject ( "SELECT count(*) FROM category cat " +
+                "LEFT JOIN category_course_counts n ON n.category_id = cat.id " +
+                "LEFT JOIN (SELECT category_id, count(*) FILTER (WHERE status = 'DRAFT') AS draft, " +
+                "count(*) FILTER (WHERE status = 'PUBLISHED') AS published, " +
+                "count(*) FILTER (WHERE status = 'ARCHIVED') AS archived FROM course GROUP BY category_id) c " +
+                "ON c.category_id = cat.id " +
+                "WHERE n.category_id IS NULL OR (n.draft_courses, n.published_courses, n.archived_courses) IS DISTINCT FROM " +
+                "(coalesce(c.draft, 0), coalesce(c.published, 0), coalesce(c.archived, 0))" , Long.class ) )
+                .isZero ( );
+    }
+
+    private double drift() {
+        return meterRegistry.counter ( "category.course-counts.drift" ).count ( );
+    }
+
+    @TestConfiguration
+    static class Beans {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry ( );
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper ( );
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.course;
+
+import com.example.demo.category.CategoryCourseCounter;
+import com.example.demo.category.CategoryRepository;
+import com.example.demo.exception.types.NotFoundException;
+import com.example.demo.module.ModuleRepository;
+import com.example.demo.user.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Published catalog listings are paged from the in-memory snapshot: in its own order or the
+ * reverse, with the order reported in the slice, and without a query even for empty categories.
+ */
+class CatalogPagingTest {
+
+    private final CategoryRepository categoryRepository = mock ( CategoryRepository.class );
+    private final CourseRepository courseRepository = mock ( CourseRepository.class );
+    private final PublishedCatalogIndex index = mock ( PublishedCatalogIndex.class );
+
+    private CourseService courseService;
+
+    @BeforeEach
+    void setUp() {
+        courseService = new CourseService ( courseRepository , new CourseMapper ( ) , categoryRepository ,
+                mock ( UserRepository.class ) , mock ( ModuleRepository.class ) , mock ( EntityManager.class ) ,
+                new ObjectMapper ( ) , mock ( PlatformTransactionManager.class ) , index ,
+                mock ( ApplicationEventPublisher.class ) , mock ( CategoryCourseCounter.class ) );
+
+        // Five Java courses whose price falls as the id rises, and an empty Go category.
+        PublishedCatalog catalog = PublishedCatalog.of ( LongStream.rangeClosed ( 1 , 5 )
+                        .mapToObj ( id -> entry ( id , BigDecimal.valueOf ( 60 - id * 10 ) ) )
+                        .toList ( ) )
+                .withCategories ( Map.of ( 1L , "Java" , 2L , "Go" ) );
+        when ( index.current ( ) ).thenReturn ( catalog );
+    }
+
+    @Test
+    void categoryPagesInIdOrderEitherWay() {
+        Slice<CourseResponseDto> ascending = courseService.getCoursesByCategory ( "java" ,
+                PageRequest.of ( 0 , 2 , Sort.by ( "id" ) ) , false );
+        assertThat ( ids ( ascending ) ).containsExactly ( 1L , 2L );
+        assertThat ( ascending.hasNext ( ) ).isTrue ( );
+
+        Slice<CourseResponseDto> descending = courseService.getCoursesByCategory ( "java" ,
+                PageRequest.of ( 1 , 2 , Sort.by ( Sort.Direction.DESC , "id" ) ) , false );
+        assertThat ( ids ( descending ) ).containsExactly ( 3L , 2L );
+        assertThat ( descending.getSort ( ) ).isEqualTo ( Sort.by ( Sort.Direction.DESC , "id" ) );
+
+        Slice<CourseResponseDto> last = courseService.getCoursesByCategory ( "java" ,
+                PageRequest.of ( 2 , 2 , Sort.by ( Sort.Direction.DESC , "id" ) ) , true );
+        assertThat ( ids ( last ) ).containsExactly ( 1L );
+        assertThat ( ((Page<CourseResponseDto>) last).getTotalElements ( ) ).isEqualTo ( 5 );
+    }
+
+    @Test
+    void priceListingsReportTheirRealOrder() {
+        Slice<CourseResponseDto> cheapest = courseService.getPaidCourses ( PageRequest.of ( 0 , 3 ) , false );
+
+        assertThat ( ids ( cheapest ) ).containsExactly ( 5L , 4L , 3L );
+        assertThat ( cheapest.getSort ( ) ).isEqualTo ( Sort.by ( "price" , "id" ) );
+
+        Slice<CourseResponseDto> dearest = courseService.findAllByCoursesWithinRange ( BigDecimal.ZERO , BigDecimal.valueOf ( 100 ) ,
+                PageRequest.of ( 0 , 2 , Sort.by ( Sort.Direction.DESC , "price" ) ) , false );
+        assertThat ( ids ( dearest ) ).containsExactly ( 1L , 2L );
+    }
+
+    @Test
+    void unsupportedSortIsRefused() {
+        assertThatThrownBy ( ( ) -> courseService.getPaidCourses ( PageRequest.of ( 0 , 2 , Sort.by ( "id" ) ) , false ) )
+                .isInstanceOf ( IllegalArgumentException.class )
+                .hasMessageContaining ( "price, id" );
+        assertThatThrownBy ( ( ) -> courseService.getCoursesByLevel ( "beginner" ,
+                PageRequest.of ( 0 , 2 , Sort.by ( "title" ) ) , false ) )
+                .isInstanceOf ( IllegalArgumentException.class );
+        // Mixed directions are neither the order nor its reverse.
+        assertThatThrownBy ( ( ) -> courseService.getPaidCourses ( PageRequest.of ( 0 , 2 ,
+                Sort.by ( Sort.Order.asc ( "price" ) , Sort.Order.desc ( "id" ) ) ) , false ) )
+                .isInstanceOf ( IllegalArgumentException.class );
+    }
+
+    @Test
+    void categoriesAreResolvedFromTheSnapshot() {
+        assertThat ( courseService.getCoursesByCategory ( "Go" , PageRequest.of ( 0 , 20 ) , false ) ).isEmpty ( );
+        assertThatThrownBy ( ( ) -> courseService.getCoursesByCategory ( "Rust" , PageRequest.of ( 0 , 20 ) , false ) )
+                .isInstanceOf ( NotFoundException.class );
+
+        verifyNoInteractions ( categoryRepository , courseRepository );
+    }
+
+    private static PublishedCatalog.Entry entry(long id , BigDecimal price) {
+        CourseResponseDto course = new CourseResponseDto ( id , "Course " + id , null , null , 10 , price ,
+                Level.BEGINNER , Status.PUBLISHED , "Instructor" , "Java" );
+        return new PublishedCatalog.Entry ( course , 1L , 1L );
+    }
+
+    private static List<Long> ids(Slice<CourseResponseDto> slice) {
+        return slice.getContent ( ).stream ( ).map ( CourseResponseDto::id ).toList ( );
+    }
+}
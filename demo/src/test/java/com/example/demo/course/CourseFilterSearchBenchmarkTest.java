@@ -0,0 +1,124 @@
+package com.example.demo.course;
+
+import com.example.demo.PostgresContainerTest;
+import com.example.demo.QueryTimer;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The multi-filter search against what a client did before it existed: call the category, status,
+ * level and price-range endpoints, each loading every matching course with its instructor and
+ * category, and intersect the results itself. The old calls run from their original JPQL.
+ * 50,000 courses over 20 categories, three levels, four in five published, prices 0 to 99.
+ * <p>
+ * Seeding takes a while, so this only runs when asked for:
+ * {@code mvn test -Dtest=CourseFilterSearchBenchmarkTest -Dbenchmarks=true}
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+
+class CourseFilterSearchBenchmarkTest extends PostgresContainerTest {
+
+    private static final int COURSES = 50_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARM_UP = 5;
+    private static final int RUNS = 30;
+
+    private static final String FETCH = "select c from Course c join fetch c.instructor join fetch c.category ";
+
+    private static final String CATEGORY = "Category 3";
+    private static final BigDecimal MIN_PRICE = BigDecimal.valueOf ( 10 );
+    private static final BigDecimal MAX_PRICE = BigDecimal.valueOf ( 50 );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute ( "INSERT INTO users (id, user_name, email, password, first_name, last_name, role) " +
+                "SELECT g, 'instructor' || g, 'instructor' || g || '@example.com', 'x', 'First', 'Last', 'INSTRUCTOR' " +
+                "FROM generate_series(1, 50) g" );
+        jdbcTemplate.execute ( "INSERT INTO category (id, name) SELECT g, 'Category ' || g FROM generate_series(1, 20) g" );
+        jdbcTemplate.execute ( "INSERT INTO course (id, title, level, status, price, instructor_id, category_id) " +
+                "SELECT g, 'Course ' || g, " +
+                "(ARRAY['BEGINNER','INTERMEDIATE','ADVANCED'])[1 + g % 3], " +
+                "CASE WHEN g % 5 = 0 THEN 'DRAFT' ELSE 'PUBLISHED' END, " +
+                "g % 100, 1 + g % 50, 1 + (g / 7) % 20 " +
+                "FROM generate_series(1, " + COURSES + ") g" );
+
+        jdbcTemplate.execute ( "ANALYZE" );
+        assertThat ( jdbcTemplate.queryForObject ( "SELECT count(*) FROM course" , Long.class ) ).isEqualTo ( COURSES );
+    }
+
+    @Test
+    void oneSearchBeatsFourCallsAndAnIntersection() {
+        assertThat ( searchPage ( ) ).isNotEmpty ( ).isEqualTo ( intersectedPage ( ) );
+
+        QueryTimer.Timings intersected = QueryTimer.measure ( WARM_UP , RUNS , this::intersectedPage );
+        QueryTimer.Timings search = QueryTimer.measure ( WARM_UP , RUNS , this::searchPage );
+        System.out.printf ( "four calls + intersection: %s | /search: %s%n" , intersected , search );
+
+        System.out.println ( String.join ( "\n" , jdbcTemplate.queryForList ( "EXPLAIN SELECT c.id FROM course c " +
+                "JOIN category ca ON ca.id = c.category_id WHERE lower(ca.name) = lower('" + CATEGORY + "') " +
+                "AND c.level = 'BEGINNER' AND c.status = 'PUBLISHED' AND c.price >= 10 AND c.price <= 50 " +
+                "ORDER BY c.id LIMIT " + (PAGE_SIZE + 1) , String.class ) ) );
+
+        assertThat ( search.medianNanos ( ) ).isLessThan ( intersected.medianNanos ( ) );
+    }
+
+    // What CourseService.searchCourses runs for the first page of ?category=&level=&status=&minPrice=&maxPrice=
+    private List<Long> searchPage() {
+        CourseSearchCriteria criteria = new CourseSearchCriteria ( null , CATEGORY , Level.BEGINNER , Status.PUBLISHED ,
+                null , MIN_PRICE , MAX_PRICE , null );
+        return courseRepository.findBy ( CourseSpecifications.matching ( criteria ) ,
+                        query -> query.project ( "instructor" , "category" ).slice ( PageRequest.of ( 0 , PAGE_SIZE , Sort.by ( "id" ) ) ) )
+                .map ( Course::getId )
+                .getContent ( );
+    }
+
+    // The four pre-search endpoints, each a full list, intersected on the client.
+    private List<Long> intersectedPage() {
+        Set<Long> ids = ids ( entityManager.createQuery ( FETCH + "where lower(c.category.name) = lower(:name)" , Course.class )
+                .setParameter ( "name" , CATEGORY ).getResultList ( ) );
+        ids.retainAll ( ids ( entityManager.createQuery ( FETCH + "where c.status = :status" , Course.class )
+                .setParameter ( "status" , Status.PUBLISHED ).getResultList ( ) ) );
+        ids.retainAll ( ids ( entityManager.createQuery ( FETCH + "where c.level = :level" , Course.class )
+                .setParameter ( "level" , Level.BEGINNER ).getResultList ( ) ) );
+        ids.retainAll ( ids ( entityManager.createQuery ( FETCH + "where c.price between :min and :max" , Course.class )
+                .setParameter ( "min" , MIN_PRICE ).setParameter ( "max" , MAX_PRICE ).getResultList ( ) ) );
+        return ids.stream ( ).sorted ( ).limit ( PAGE_SIZE ).toList ( );
+    }
+
+    private static Set<Long> ids(List<Course> courses) {
+        Set<Long> ids = new HashSet<> ( );
+        courses.forEach ( course -> ids.add ( course.getId ( ) ) );
+        return ids;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.demo.course;
+
+import com.example.demo.PostgresContainerTest;
+import com.example.demo.category.CategoryCourseCounter;
+import com.example.demo.category.CategoryRepository;
+import com.example.demo.module.ModuleRepository;
+import com.example.demo.user.LastLoginRecorder;
+import com.example.demo.user.User;
+import com.example.demo.user.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The course listing resolves instructors and categories from the second-level cache, so a warm
+ * page is one statement. The cache must not go stale: a JPA update of a user refreshes its entry,
+ * and the last-login flush, which writes users over JDBC, evicts it. Counted with Hibernate
+ * statistics; every step commits, as the cache only sees committed work.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+
+class CourseListingCacheTest extends PostgresContainerTest {
+
+    private static final PageRequest PAGE = PageRequest.of ( 0 , 10 , Sort.by ( "id" ) );
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CourseService courseService;
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+
+    @BeforeAll
+    void seed() {
+        // Two instructors and two categories behind 30 courses, written past Hibernate so the cache starts cold.
+        jdbcTemplate.execute ( "INSERT INTO users (id, user_name, email, password, first_name, last_name, role) " +
+                "SELECT g, 'instructor' || g, 'instructor' || g || '@example.com', 'x', 'First' || g, 'Last', 'INSTRUCTOR' " +
+                "FROM generate_series(1, 2) g" );
+        jdbcTemplate.execute ( "INSERT INTO category (id, name) VALUES (1, 'Java'), (2, 'Go')" );
+        jdbcTemplate.execute ( "INSERT INTO course (id, title, level, status, instructor_id, category_id) " +
+                "SELECT g, 'Course ' || g, 'BEGINNER', 'PUBLISHED', 1 + g % 2, 1 + g % 2 FROM generate_series(1, 30) g" );
+    }
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate ( transactionManager );
+        courseService = new CourseService ( courseRepository , new CourseMapper ( ) , mock ( CategoryRepository.class ) ,
+                userRepository , mock ( ModuleRepository.class ) , mock ( EntityManager.class ) ,
+                new ObjectMapper ( ) , transactionManager , mock ( PublishedCatalogIndex.class ) ,
+                mock ( ApplicationEventPublisher.class ) , mock ( CategoryCourseCounter.class ) );
+        statistics = entityManagerFactory.unwrap ( SessionFactory.class ).getStatistics ( );
+
+        // Warm the regions, whatever earlier tests left in them.
+        page ( );
+        statistics.clear ( );
+    }
+
+    @Test
+    void warmPageIsOneStatement() {
+        Slice<CourseResponseDto> courses = page ( );
+
+        assertThat ( courses.getContent ( ) ).hasSize ( 10 );
+        assertThat ( statistics.getPrepareStatementCount ( ) ).isEqualTo ( 1 );
+        assertThat ( statistics.getSecondLevelCacheMissCount ( ) ).isZero ( );
+        assertThat ( statistics.getSecondLevelCacheHitCount ( ) ).isEqualTo ( 4 );
+    }
+
+    @Test
+    void jpaUpdateOfAnInstructorRefreshesTheCachedUser() {
+        transaction.executeWithoutResult ( tx -> userRepository.findById ( 2L ).orElseThrow ( ).setFirstName ( "Renamed" ) );
+        statistics.clear ( );
+
+        Slice<CourseResponseDto> courses = page ( );
+
+        // Course 1 is taught by instructor 2; the new name is served from the cache, not reloaded.
+        assertThat ( courses.getContent ( ).get ( 0 ).instructorName ( ) ).isEqualTo ( "Renamed Last" );
+        assertThat ( statistics.getPrepareStatementCount ( ) ).isEqualTo ( 1 );
+
+        transaction.executeWithoutResult ( tx -> userRepository.findById ( 2L ).orElseThrow ( ).setFirstName ( "First2" ) );
+    }
+
+    @Test
+    void lastLoginFlushEvictsTheCachedUser() {
+        LastLoginRecorder recorder = new LastLoginRecorder ( jdbcTemplate , entityManagerFactory , new SimpleMeterRegistry ( ) );
+        LocalDateTime loginAt = LocalDateTime.of ( 2024 , 6 , 1 , 12 , 0 );
+        assertThat ( entityManagerFactory.getCache ( ).contains ( User.class , 1L ) ).isTrue ( );
+
+        recorder.record ( 1L , loginAt );
+        recorder.flush ( );
+
+        assertThat ( entityManagerFactory.getCache ( ).contains ( User.class , 1L ) ).isFalse ( );
+        assertThat ( entityManagerFactory.getCache ( ).contains ( User.class , 2L ) ).isTrue ( );
+
+        // The next page reloads only the evicted instructor, and sees the row the flush wrote.
+        page ( );
+        assertThat ( statistics.getPrepareStatementCount ( ) ).isEqualTo ( 2 );
+        LocalDateTime stored = transaction.execute ( tx -> userRepository.findById ( 1L ).orElseThrow ( ).getLastLogin ( ) );
+        assertThat ( stored ).isEqualTo ( loginAt );
+    }
+
+    private Slice<CourseResponseDto> page() {
+        return transaction.execute ( tx -> courseService.getAllCourses ( PAGE , false ) );
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.course;
+
+import com.example.demo.PostgresContainerTest;
+import com.example.demo.QueryTimer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ranked keyword search over a synthetic catalog of 200,000 published courses whose titles and
+ * descriptions are drawn from a small technical vocabulary, so common terms match thousands of
+ * rows. Each query runs the two statements a search page costs (ranked ids, then the page of
+ * courses) and must stay within the 100ms p99 target for course search.
+ * <p>
+ * Seeding takes a while, so this only runs when asked for:
+ * {@code mvn test -Dtest=CourseSearchBenchmarkTest -Dbenchmarks=true}
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+
+class CourseSearchBenchmarkTest extends PostgresContainerTest {
+
+    private static final int COURSES = 200_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARM_UP = 20;
+    private static final int RUNS = 200;
+    private static final double P99_TARGET_MILLIS = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute ( "INSERT INTO users (id, user_name, email, password, first_name, last_name, role) " +
+                "VALUES (1, 'instructor', 'instructor@example.com', 'x', 'First', 'Last', 'INSTRUCTOR')" );
+        jdbcTemplate.execute ( "INSERT INTO category (id, name) VALUES (1, 'Benchmark')" );
+
+        // Three title words and a description from a 40-word vocabulary, picked by different strides.
+        jdbcTemplate.execute ( "WITH words AS (SELECT ARRAY['java','spring','python','django','react','angular'," +
+                "'kotlin','android','swift','docker','kubernetes','terraform','postgres','mongodb','redis','kafka'," +
+                "'graphql','rest','security','testing','microservices','cloud','aws','azure','linux','networking'," +
+                "'algorithms','design','patterns','machine','learning','data','science','statistics','excel'," +
+                "'marketing','finance','photography','music','writing'] AS w) " +
+                "INSERT INTO course (id, title, short_description, description, level, status, price, instructor_id, category_id) " +
+                "SELECT g, " +
+                "initcap(w[1 + g % 40] || ' ' || w[1 + (g / 40) % 40] || ' ' || w[1 + (g * 7 / 13) % 40]) || ' ' || g, " +
+                "'Learn ' || w[1 + (g * 3) % 40] || ' and ' || w[1 + (g * 11) % 40], " +
+                "'A practical course on ' || w[1 + (g * 17) % 40] || ', ' || w[1 + (g * 19) % 40] || ' and ' || w[1 + (g * 23) % 40], " +
+                "'BEGINNER', 'PUBLISHED', (g % 100), 1, 1 " +
+                "FROM generate_series(1, " + COURSES + ") g, words" );
+
+        jdbcTemplate.execute ( "ANALYZE course" );
+        assertThat ( jdbcTemplate.queryForObject ( "SELECT count(*) FROM course" , Long.class ) ).isEqualTo ( COURSES );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({
+            "common term,       java:*,                     java",
+            "two terms,         spring:* & security:*,      spring security",
+            "prefix,            kube:*,                     kube",
+            "three terms,       python:* & machine:* & learning:*, python machine learning",
+            "typo in title,     jvaa:*,                     jvaa",
+            "no match,          cobol:*,                    cobol"
+    })
+    void searchStaysWithinTarget(String name , String tsQuery , String text) {
+
+        QueryTimer.Timings timings = QueryTimer.measure ( WARM_UP , RUNS , ( ) -> searchPage ( tsQuery , text ) );
+        System.out.printf ( "%-14s %d results on page 1, %s%n" , name , searchPage ( tsQuery , text ) , timings );
+
+        assertThat ( timings.p99Millis ( ) ).as ( name ).isLessThan ( P99_TARGET_MILLIS );
+    }
+
+    // What CourseService.searchCoursesByText runs for the first page.
+    private int searchPage(String tsQuery , String text) {
+        List<Long> ids = courseRepository.searchPublishedIdsByText ( tsQuery , text , PAGE_SIZE + 1 , 0 );
+        List<Course> page = courseRepository.findByIdIn ( ids.subList ( 0 , Math.min ( PAGE_SIZE , ids.size ( ) ) ) );
+        return page.size ( );
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.demo.course;
+
+import com.example.demo.PostgresContainerTest;
+import com.example.demo.QueryTimer;
+import com.example.demo.enrollment.EnrollmentRepository;
+import com.example.demo.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXISTS against the CASE WHEN COUNT(...) > 0 queries it replaced, over a million enrollments:
+ * 50,000 students in 20 of one instructor's 20,000 courses, plus 10,000 active admins. The old
+ * queries are run from their original JPQL. Only the checks whose match set is large are asserted
+ * faster; the single-row lookups are reported for reference.
+ * <p>
+ * Seeding takes a while, so this only runs when asked for:
+ * {@code mvn test -Dtest=ExistenceQueryBenchmarkTest -Dbenchmarks=true}
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+
+class ExistenceQueryBenchmarkTest extends PostgresContainerTest {
+
+    private static final int WARM_UP = 20;
+    private static final int RUNS = 200;
+
+    private static final long INSTRUCTOR_ID = 10_001L;
+    private static final long STUDENT_ID = 20_000L;
+    private static final long CATEGORY_ID = 1L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute ( "INSERT INTO users (id, user_name, email, password, first_name, last_name, role) " +
+                "SELECT g, 'user' || g, 'user' || g || '@example.com', 'x', 'First', 'Last', " +
+                "CASE WHEN g <= 10000 THEN 'ADMIN' WHEN g = 10001 THEN 'INSTRUCTOR' ELSE 'STUDENT' END " +
+                "FROM generate_series(1, 60001) g" );
+
+        jdbcTemplate.execute ( "INSERT INTO category (id, name) VALUES (1, 'Benchmark')" );
+
+        jdbcTemplate.execute ( "INSERT INTO course (id, title, level, status, price, instructor_id, category_id) " +
+                "SELECT g, 'Course ' || g, 'BEGINNER', 'PUBLISHED', 10, 10001, 1 " +
+                "FROM generate_series(1, 20000) g" );
+
+        // Student s takes courses (7s + 101k) mod 20000 for k < 20: twenty distinct courses each.
+        jdbcTemplate.execute ( "INSERT INTO enrollment (id, user_id, course_id, date_of_enrollment, is_active, progress) " +
+                "SELECT row_number() OVER (), s, ((s * 7 + k * 101) % 20000) + 1, now(), true, 'IN_PROGRESS' " +
+                "FROM generate_series(10002, 60001) s, generate_series(0, 19) k" );
+
+        jdbcTemplate.execute ( "ANALYZE" );
+        assertThat ( jdbcTemplate.queryForObject ( "SELECT count(*) FROM enrollment" , Long.class ) ).isEqualTo ( 1_000_000L );
+    }
+
+    @Test
+    void categoryHasActiveOrDraftCourses() {
+        compare ( "hasActiveOrDraftCourses" ,
+                ( ) -> countQuery ( "SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END FROM Course c " +
+                        "WHERE c.category.id = :id AND (c.status = 'PUBLISHED' OR c.status = 'DRAFT')" , CATEGORY_ID ) ,
+                ( ) -> courseRepository.hasActiveOrDraftCourses ( CATEGORY_ID ) ,
+                true );
+    }
+
+    @Test
+    void instructorHasActiveCourses() {
+        compare ( "activeCoursesForTheInstructor" ,
+                ( ) -> countQuery ( "SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END FROM Course c " +
+                        "WHERE c.instructor.id = :id AND c.status in ('PUBLISHED' , 'DRAFT')" , INSTRUCTOR_ID ) ,
+                ( ) -> courseRepository.activeCoursesForTheInstructor ( INSTRUCTOR_ID ) ,
+                true );
+    }
+
+    @Test
+    void lastAdmin() {
+        compare ( "isLastAdmin" ,
+                ( ) -> entityManager.createQuery ( "SELECT case when count(u) = 1 then true else false end " +
+                        "FROM User u WHERE u.role = 'ADMIN' AND u.isActive = true" , Boolean.class ).getSingleResult ( ) ,
+                ( ) -> userRepository.isLastAdmin ( ) ,
+                true );
+    }
+
+    @Test
+    void studentEnrolledWithInstructor() {
+        String instructorEmail = "user" + INSTRUCTOR_ID + "@example.com";
+        String studentEmail = "user" + STUDENT_ID + "@example.com";
+
+        compare ( "existsByUserIdAndInstructorId" ,
+                ( ) -> entityManager.createQuery ( "SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END " +
+                                "FROM Enrollment e WHERE e.user.id = :userId AND e.course.instructor.id = :instructorId" ,
+                        Boolean.class )
+                        .setParameter ( "userId" , STUDENT_ID )
+                        .setParameter ( "instructorId" , INSTRUCTOR_ID )
+                        .getSingleResult ( ) ,
+                ( ) -> enrollmentRepository.existsByUserIdAndInstructorId ( STUDENT_ID , INSTRUCTOR_ID ) ,
+                false );
+
+        compare ( "existsByInstructorAndStudent" ,
+                ( ) -> entityManager.createQuery ( "SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END " +
+                                "FROM Course c, Enrollment e WHERE c.id = e.course.id " +
+                                "AND c.instructor.email = :instructor AND e.user.email = :student" , Boolean.class )
+                        .setParameter ( "instructor" , instructorEmail )
+                        .setParameter ( "student" , studentEmail )
+                        .getSingleResult ( ) ,
+                ( ) -> courseRepository.existsByInstructorAndStudent ( instructorEmail , studentEmail ) ,
+                false );
+    }
+
+    @Test
+    void studentEnrolledInCourse() {
+        long courseId = ((STUDENT_ID * 7) % 20000) + 1;
+
+        compare ( "existsByUserIdAndCourseId" ,
+                ( ) -> entityManager.createQuery ( "SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END " +
+                                "FROM Enrollment e WHERE e.user.id = :userId AND e.course.id = :courseId" , Boolean.class )
+                        .setParameter ( "userId" , STUDENT_ID )
+                        .setParameter ( "courseId" , courseId )
+                        .getSingleResult ( ) ,
+                ( ) -> enrollmentRepository.existsByUserIdAndCourseId ( STUDENT_ID , courseId ) ,
+                false );
+    }
+
+    private Boolean countQuery(String jpql , long id) {
+        return entityManager.createQuery ( jpql , Boolean.class ).setParameter ( "id" , id ).getSingleResult ( );
+    }
+
+    private void compare(String name , Supplier<Boolean> count , Supplier<Boolean> exists , boolean assertFaster) {
+
+        assertThat ( exists.get ( ) ).as ( name ).isEqualTo ( count.get ( ) );
+
+        QueryTimer.Timings countTimings = QueryTimer.measure ( WARM_UP , RUNS , count );
+        QueryTimer.Timings existsTimings = QueryTimer.measure ( WARM_UP , RUNS , exists );
+        System.out.printf ( "%-32s COUNT: %s | EXISTS: %s%n" , name , countTimings , existsTimings );
+
+        if (assertFaster) {
+            assertThat ( existsTimings.medianNanos ( ) ).as ( name ).isLessThan ( countTimings.medianNanos ( ) );
+        }
+    }
+}
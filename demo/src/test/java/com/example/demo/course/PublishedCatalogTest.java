@@ -0,0 +1,169 @@
+package com.example.demo.course;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PublishedCatalogTest {
+
+    @Test
+    void listsByLevelAndCategoryInIdOrder() {
+        PublishedCatalog catalog = PublishedCatalog.of ( List.of (
+                entry ( 3 , "9.99" , Level.BEGINNER , "Java" , 1 ) ,
+                entry ( 1 , "0" , Level.BEGINNER , "Python" , 1 ) ,
+                entry ( 2 , "20" , Level.ADVANCED , "Java" , 2 ) ) );
+
+        assertThat ( ids ( catalog.byLevel ( Level.BEGINNER ) ) ).containsExactly ( 1L , 3L );
+        assertThat ( ids ( catalog.byLevel ( Level.INTERMEDIATE ) ) ).isEmpty ( );
+        assertThat ( ids ( catalog.byCategory ( "JAVA" ) ) ).containsExactly ( 2L , 3L );
+        assertThat ( ids ( catalog.byCategory ( "Go" ) ) ).isEmpty ( );
+        assertThat ( catalog.size ( ) ).isEqualTo ( 3 );
+    }
+
+    @Test
+    void priceRangesAreInclusiveAndCheapestFirst() {
+        PublishedCatalog catalog = PublishedCatalog.of ( List.of (
+                entry ( 1 , "10.00" , Level.BEGINNER , "Java" , 1 ) ,
+                entry ( 2 , null , Level.BEGINNER , "Java" , 1 ) ,
+                entry ( 3 , "0" , Level.BEGINNER , "Java" , 1 ) ,
+                entry ( 4 , "25.50" , Level.BEGINNER , "Java" , 1 ) ,
+                entry ( 5 , "10.00" , Level.BEGINNER , "Java" , 1 ) ) );
+
+        assertThat ( ids ( catalog.priceBetween ( 0 , 0 ) ) ).containsExactly ( 2L , 3L );
+        assertThat ( ids ( catalog.priceBetween ( 1000 , 1000 ) ) ).containsExactly ( 1L , 5L );
+        assertThat ( ids ( catalog.priceBetween ( 1000 , 2550 ) ) ).containsExactly ( 1L , 5L , 4L );
+        assertThat ( ids ( catalog.priceBetween ( 1 , Long.MAX_VALUE ) ) ).containsExactly ( 1L , 5L , 4L );
+        assertThat ( ids ( catalog.priceBetween ( 2551 , 9999 ) ) ).isEmpty ( );
+    }
+
+    @Test
+    void withUpdatesAnEntryAcrossEveryIndex() {
+        PublishedCatalog before = PublishedCatalog.of ( List.of (
+                entry ( 1 , "10" , Level.BEGINNER , "Java" , 1 ) ,
+                entry ( 2 , "20" , Level.BEGINNER , "Java" , 1 ) ) );
+
+        PublishedCatalog after = before.with ( List.of ( entry ( 1 , "30" , Level.ADVANCED , "Python" , 2 ) ) );
+
+        assertThat ( ids ( after.byLevel ( Level.BEGINNER ) ) ).containsExactly ( 2L );
+        assertThat ( ids ( after.byLevel ( Level.ADVANCED ) ) ).containsExactly ( 1L );
+        assertThat ( ids ( after.byCategory ( "java" ) ) ).containsExactly ( 2L );
+        assertThat ( ids ( after.byCategory ( "python" ) ) ).containsExactly ( 1L );
+        assertThat ( ids ( after.priceBetween ( 0 , Long.MAX_VALUE ) ) ).containsExactly ( 2L , 1L );
+        assertThat ( after.courseIdsByInstructor ( 2L ) ).containsExactly ( 1L );
+
+        // The old snapshot is untouched.
+        assertThat ( ids ( before.byLevel ( Level.BEGINNER ) ) ).containsExactly ( 1L , 2L );
+        assertThat ( ids ( before.priceBetween ( 0 , Long.MAX_VALUE ) ) ).containsExactly ( 1L , 2L );
+    }
+
+    @Test
+    void withoutDropsCoursesAndIgnoresUnknownIds() {
+        PublishedCatalog before = PublishedCatalog.of ( List.of (
+                entry ( 1 , "10" , Level.BEGINNER , "Java" , 1 ) ,
+                entry ( 2 , "20" , Level.ADVANCED , "Python" , 1 ) ) );
+
+        assertThat ( before.without ( List.of ( 99L ) ) ).isSameAs ( before );
+
+        PublishedCatalog after = before.without ( List.of ( 2L , 99L ) );
+        assertThat ( after.size ( ) ).isEqualTo ( 1 );
+        assertThat ( ids ( after.byLevel ( Level.ADVANCED ) ) ).isEmpty ( );
+        assertThat ( ids ( after.byCategory ( "python" ) ) ).isEmpty ( );
+        assertThat ( ids ( after.priceBetween ( 0 , Long.MAX_VALUE ) ) ).containsExactly ( 1L );
+        assertThat ( after.courseIdsInCategory ( categoryId ( "Java" ) ) ).containsExactly ( 1L );
+    }
+
+    @Test
+    void replaceSwapsACategoryInOneStep() {
+        PublishedCatalog before = PublishedCatalog.of ( List.of (
+                entry ( 1 , "10" , Level.BEGINNER , "Java" , 1 ) ,
+                entry ( 2 , "20" , Level.BEGINNER , "Java" , 1 ) ,
+                entry ( 3 , "30" , Level.BEGINNER , "Python" , 1 ) ) );
+
+        // Category renamed, and course 2 unpublished in the meantime.
+        PublishedCatalog after = before.replace ( before.courseIdsInCategory ( categoryId ( "Java" ) ) ,
+                List.of ( entry ( 1 , "10" , Level.BEGINNER , "Kotlin" , 1 ) ) );
+
+        assertThat ( ids ( after.byCategory ( "java" ) ) ).isEmpty ( );
+        assertThat ( ids ( after.byCategory ( "kotlin" ) ) ).containsExactly ( 1L );
+        assertThat ( ids ( after.byLevel ( Level.BEGINNER ) ) ).containsExactly ( 1L , 3L );
+    }
+
+    @Test
+    void patchedSnapshotsMatchOnesBuiltFromScratch() {
+        Random random = new Random ( 42 );
+        Map<Long, PublishedCatalog.Entry> expected = new HashMap<> ( );
+        PublishedCatalog catalog = PublishedCatalog.EMPTY;
+
+        for (int step = 0; step < 2000; step++) {
+            long id = 1 + random.nextInt ( 200 );
+            if (random.nextInt ( 4 ) == 0) {
+                expected.remove ( id );
+                catalog = catalog.without ( List.of ( id ) );
+            } else {
+                PublishedCatalog.Entry e = entry ( id , String.valueOf ( random.nextInt ( 5 ) * 5 ) ,
+                        Level.values ( )[random.nextInt ( 3 )] , "Category" + random.nextInt ( 4 ) , random.nextInt ( 3 ) );
+                expected.put ( id , e );
+                catalog = catalog.with ( List.of ( e ) );
+            }
+        }
+
+        PublishedCatalog rebuilt = PublishedCatalog.of ( new ArrayList<> ( expected.values ( ) ) );
+        assertThat ( catalog.size ( ) ).isEqualTo ( rebuilt.size ( ) );
+        for (Level level : Level.values ( )) {
+            assertThat ( catalog.byLevel ( level ) ).containsExactlyElementsOf ( rebuilt.byLevel ( level ) );
+        }
+        for (int c = 0; c < 4; c++) {
+            assertThat ( catalog.byCategory ( "category" + c ) ).containsExactlyElementsOf ( rebuilt.byCategory ( "Category" + c ) );
+        }
+        assertThat ( catalog.priceBetween ( 0 , Long.MAX_VALUE ) ).containsExactlyElementsOf ( rebuilt.priceBetween ( 0 , Long.MAX_VALUE ) );
+        assertThat ( catalog.priceBetween ( 500 , 1500 ) ).containsExactlyElementsOf ( rebuilt.priceBetween ( 500 , 1500 ) );
+    }
+
+    @Test
+    void knowsCategoriesWithoutPublishedCourses() {
+        PublishedCatalog catalog = PublishedCatalog.of ( List.of ( entry ( 1 , "10" , Level.BEGINNER , "Java" , 1 ) ) )
+                .withCategories ( Map.of ( categoryId ( "Java" ) , "Java" , 7L , "Empty" ) );
+
+        assertThat ( catalog.hasCategory ( "JAVA" ) ).isTrue ( );
+        assertThat ( catalog.hasCategory ( "empty" ) ).isTrue ( );
+        assertThat ( catalog.hasCategory ( "Go" ) ).isFalse ( );
+
+        PublishedCatalog renamed = catalog.withCategory ( 7L , "Still empty" ).withCategory ( 8L , "Go" );
+        assertThat ( renamed.hasCategory ( "Empty" ) ).isFalse ( );
+        assertThat ( renamed.hasCategory ( "still empty" ) ).isTrue ( );
+        assertThat ( renamed.hasCategory ( "go" ) ).isTrue ( );
+        assertThat ( renamed.withCategory ( 8L , null ).hasCategory ( "go" ) ).isFalse ( );
+
+        // Course changes keep the names.
+        assertThat ( renamed.without ( List.of ( 1L ) ).hasCategory ( "java" ) ).isTrue ( );
+    }
+
+    @Test
+    void viewsAreBoundsChecked() {
+        PublishedCatalog catalog = PublishedCatalog.of ( List.of ( entry ( 1 , "10" , Level.BEGINNER , "Java" , 1 ) ) );
+
+        assertThatThrownBy ( ( ) -> catalog.priceBetween ( 0 , 0 ).get ( 0 ) ).isInstanceOf ( IndexOutOfBoundsException.class );
+    }
+
+    private static PublishedCatalog.Entry entry(long id , String price , Level level , String category , long instructorId) {
+        CourseResponseDto course = new CourseResponseDto ( id , "Course " + id , null , null , 10 ,
+                price == null ? null : new BigDecimal ( price ) , level , Status.PUBLISHED , "Instructor" , category );
+        return new PublishedCatalog.Entry ( course , instructorId , categoryId ( category ) );
+    }
+
+    private static Long categoryId(String category) {
+        return (long) category.hashCode ( );
+    }
+
+    private static List<Long> ids(List<CourseResponseDto> courses) {
+        return courses.stream ( ).map ( CourseResponseDto::id ).toList ( );
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.enrollment;
+
+import com.example.demo.PostgresContainerTest;
+import com.example.demo.security.CurrentUser;
+import com.example.demo.user.Role;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk enrollment against the real schema: one result row per requested id, in request order,
+ * with every outcome; lookups that do not grow with the request; inserts batched on ids from the
+ * pooled sequence; and the new enrollments counted into the course's statistics.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ EnrollmentService.class , EnrollmentMapper.class , EnrollmentStatsService.class , BulkEnrollmentTest.Metrics.class })
+
+class BulkEnrollmentTest extends PostgresContainerTest {
+
+    private static final long COURSE_ID = 1L;
+    private static final CurrentUser INSTRUCTOR = new CurrentUser ( 1L , "user1@example.com" , Role.INSTRUCTOR , true );
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private GradebookExporter gradebookExporter;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        // 1 teaches the course, 2 is an admin, 3 to 1000 are students of whom 5 is inactive and 4 already enrolled.
+        jdbcTemplate.execute ( "INSERT INTO users (id, user_name, email, password, first_name, last_name, role, is_active) " +
+                "SELECT g, 'user' || g, 'user' || g || '@example.com', 'x', 'First', 'Last', " +
+                "CASE g WHEN 1 THEN 'INSTRUCTOR' WHEN 2 THEN 'ADMIN' ELSE 'STUDENT' END, g <> 5 " +
+                "FROM generate_series(1, 1000) g" );
+        jdbcTemplate.execute ( "INSERT INTO category (id, name) VALUES (1, 'Bulk')" );
+        jdbcTemplate.execute ( "INSERT INTO course (id, title, level, status, instructor_id, category_id) " +
+                "VALUES (1, 'Bulk course', 'BEGINNER', 'PUBLISHED', 1, 1)" );
+        jdbcTemplate.execute ( "INSERT INTO enrollment (id, user_id, course_id, date_of_enrollment, is_active, progress) " +
+                "VALUES (1, 4, 1, now(), true, 'NOT_STARTED')" );
+
+        statistics = entityManagerFactory.unwrap ( SessionFactory.class ).getStatistics ( );
+        statistics.clear ( );
+    }
+
+    @Test
+    void everyOutcomeIsReportedInRequestOrder() {
+        List<Long> requested = List.of ( 3L , 4L , 3L , 999_999L , 2L , 1L , 5L , 6L );
+
+        BulkEnrollmentResultDto result = enrollmentService.createEnrollments (
+                new BulkEnrollmentCreateDto ( COURSE_ID , requested ) , INSTRUCTOR );
+
+        assertThat ( result.requested ( ) ).isEqualTo ( 8 );
+        assertThat ( result.enrolled ( ) ).isEqualTo ( 2 );
+        assertThat ( result.rows ( ) ).extracting ( BulkEnrollmentResultDto.Row::userId ).containsExactlyElementsOf ( requested );
+        assertThat ( result.rows ( ) ).extracting ( BulkEnrollmentResultDto.Row::outcome ).containsExactly (
+                BulkEnrollmentOutcome.ENROLLED ,
+                BulkEnrollmentOutcome.ALREADY_ENROLLED ,
+                BulkEnrollmentOutcome.DUPLICATE_IN_REQUEST ,
+                BulkEnrollmentOutcome.USER_NOT_FOUND ,
+                BulkEnrollmentOutcome.NOT_A_STUDENT ,
+                BulkEnrollmentOutcome.COURSE_INSTRUCTOR ,
+                BulkEnrollmentOutcome.INACTIVE_USER ,
+                BulkEnrollmentOutcome.ENROLLED );
+
+        // Only the enrolled rows carry the id of the enrollment they created.
+        entityManager.flush ( );
+        for (BulkEnrollmentResultDto.Row row : result.rows ( )) {
+            if (row.outcome ( ) == BulkEnrollmentOutcome.ENROLLED) {
+                assertThat ( jdbcTemplate.queryForObject ( "SELECT user_id FROM enrollment WHERE id = ?" ,
+                        Long.class , row.enrollmentId ( ) ) ).isEqualTo ( row.userId ( ) );
+            } else {
+                assertThat ( row.enrollmentId ( ) ).isNull ( );
+            }
+        }
+    }
+
+    @Test
+    void statementsDoNotGrowWithTheRequest() {
+        assertThat ( statementsToEnroll ( LongStream.rangeClosed ( 6 , 55 ) ) ).isEqualTo ( 50 );
+        long fifty = statistics.getPrepareStatementCount ( );
+
+        statistics.clear ( );
+        assertThat ( statementsToEnroll ( LongStream.rangeClosed ( 56 , 555 ) ) ).isEqualTo ( 500 );
+        long fiveHundred = statistics.getPrepareStatementCount ( );
+
+        // The lookups and the stats delta are the same for any size; each 50 rows add one
+        // sequence call and one insert batch.
+        assertThat ( fiveHundred - fifty ).isLessThanOrEqualTo ( 2 * 9 );
+        assertThat ( fifty ).isLessThanOrEqualTo ( 9 );
+    }
+
+    @Test
+    void newEnrollmentsAreCountedIntoCourseStats() {
+        enrollmentService.createEnrollments ( new BulkEnrollmentCreateDto ( COURSE_ID , List.of ( 3L , 4L , 6L , 7L ) ) , INSTRUCTOR );
+        entityManager.flush ( );
+
+        // The seeded enrollment of user 4 was written past the service, so only the three new ones are counted.
+        Map<String, Object> stats = jdbcTemplate.queryForMap (
+                "SELECT enrollments, active_enrollments, completed_enrollments, graded_enrollments " +
+                        "FROM course_enrollment_stats WHERE course_id = ?" , COURSE_ID );
+        assertThat ( stats ).containsEntry ( "enrollments" , 3L )
+                .containsEntry ( "active_enrollments" , 3L )
+                .containsEntry ( "completed_enrollments" , 0L )
+                .containsEntry ( "graded_enrollments" , 0L );
+    }
+
+    // Returns how many enrollments were inserted; statistics are left holding what it took.
+    private long statementsToEnroll(LongStream userIds) {
+        BulkEnrollmentResultDto result = enrollmentService.createEnrollments (
+                new BulkEnrollmentCreateDto ( COURSE_ID , userIds.boxed ( ).toList ( ) ) , INSTRUCTOR );
+        entityManager.flush ( );
+        entityManager.clear ( );
+        assertThat ( statistics.getEntityInsertCount ( ) ).isEqualTo ( result.enrolled ( ) );
+        return result.enrolled ( );
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry ( );
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.enrollment;
+
+import com.example.demo.exception.types.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EnrollmentCursorTest {
+
+    @Test
+    void roundTripsThroughItsToken() {
+        EnrollmentCursor cursor = new EnrollmentCursor ( LocalDateTime.of ( 2024 , 3 , 1 , 9 , 30 , 15 , 123_456_000 ) , 42L );
+
+        assertThat ( EnrollmentCursor.decode ( cursor.encode ( ) ) ).isEqualTo ( cursor );
+    }
+
+    @Test
+    void roundTripsWholeMinutes() {
+        // LocalDateTime drops zero seconds from its string form; parsing must still accept it.
+        EnrollmentCursor cursor = new EnrollmentCursor ( LocalDateTime.of ( 2024 , 3 , 1 , 9 , 30 ) , 7L );
+
+        assertThat ( EnrollmentCursor.decode ( cursor.encode ( ) ) ).isEqualTo ( cursor );
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        EnrollmentCursor cursor = new EnrollmentCursor ( LocalDateTime.of ( 2024 , 12 , 31 , 23 , 59 , 59 ) , Long.MAX_VALUE );
+
+        assertThat ( cursor.encode ( ) ).matches ( "[A-Za-z0-9_-]+" );
+    }
+
+    @Test
+    void takesItsPositionFromTheLastRow() {
+        LocalDateTime date = LocalDateTime.of ( 2024 , 3 , 1 , 9 , 30 );
+        EnrollmentResponseDto row = new EnrollmentResponseDto ( 5L , "Student" , "Course" , date , true ,
+                Progress.IN_PROGRESS , null , null );
+
+        assertThat ( EnrollmentCursor.of ( row ) ).isEqualTo ( new EnrollmentCursor ( date , 5L ) );
+    }
+
+    @Test
+    void missingTokenMeansTheFirstSlice() {
+        assertThat ( EnrollmentCursor.decode ( null ) ).isNull ( );
+        assertThat ( EnrollmentCursor.decode ( "  " ) ).isNull ( );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!" , "bm8tc2VwYXJhdG9y"})
+    void rejectsMalformedTokens(String token) {
+        assertThatThrownBy ( ( ) -> EnrollmentCursor.decode ( token ) ).isInstanceOf ( BadRequestException.class );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"null|5" , "2024-03-01T09:30|abc" , "2024-03-01T09:30|" , "2024-13-01T09:30|5"})
+    void rejectsTokensWithBadFields(String raw) {
+        String token = Base64.getUrlEncoder ( ).withoutPadding ( ).encodeToString ( raw.getBytes ( StandardCharsets.UTF_8 ) );
+
+        assertThatThrownBy ( ( ) -> EnrollmentCursor.decode ( token ) ).isInstanceOf ( BadRequestException.class );
+    }
+}
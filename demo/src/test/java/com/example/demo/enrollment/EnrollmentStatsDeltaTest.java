@@ -0,0 +1,171 @@
+package com.example.demo.enrollment;
+
+import com.example.demo.category.CategoryRepository;
+import com.example.demo.course.CourseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The deltas EnrollmentService reports for each kind of enrollment change, and the grade
+ * histogram moves that go with them.
+ */
+class EnrollmentStatsDeltaTest {
+
+    private static final long COURSE_ID = 1L;
+
+    private final CourseEnrollmentStatsRepository statsRepository = mock ( CourseEnrollmentStatsRepository.class );
+    private final JdbcTemplate jdbcTemplate = mock ( JdbcTemplate.class );
+    private final EnrollmentStatsService statsService = new EnrollmentStatsService ( statsRepository ,
+            mock ( CourseRepository.class ) , mock ( CategoryRepository.class ) , jdbcTemplate ,
+            mock ( PlatformTransactionManager.class ) , new SimpleMeterRegistry ( ) , 500 );
+
+    @Test
+    void createCountsOneActiveEnrollment() {
+        statsService.recordChange ( COURSE_ID , EnrollmentStatsService.Counters.NONE ,
+                enrollment ( true , Progress.NOT_STARTED , null ) );
+
+        verifyDelta ( 1 , 1 , 0 , 0 , "0" );
+        verifyNoInteractions ( jdbcTemplate );
+    }
+
+    @Test
+    void regradeMovesTheSumAndTheHistogramBin() {
+        storedHistogram ( "80" , "60" );
+        Enrollment enrollment = enrollment ( true , Progress.IN_PROGRESS , "80" );
+        EnrollmentStatsService.Counters before = EnrollmentStatsService.Counters.of ( enrollment );
+
+        enrollment.setFinalGrade ( new BigDecimal ( "92.5" ) );
+        statsService.recordChange ( COURSE_ID , before , enrollment );
+
+        verifyDelta ( 0 , 0 , 0 , 0 , "12.5" );
+        assertThat ( writtenHistogram ( ).sameAs ( histogram ( "92.5" , "60" ) ) ).isTrue ( );
+    }
+
+    @Test
+    void firstGradeCountsAsGraded() {
+        storedHistogram ( );
+        Enrollment enrollment = enrollment ( true , Progress.IN_PROGRESS , null );
+        EnrollmentStatsService.Counters before = EnrollmentStatsService.Counters.of ( enrollment );
+
+        enrollment.setFinalGrade ( new BigDecimal ( "70" ) );
+        statsService.recordChange ( COURSE_ID , before , enrollment );
+
+        verifyDelta ( 0 , 0 , 0 , 1 , "70" );
+        assertThat ( writtenHistogram ( ).sameAs ( histogram ( "70" ) ) ).isTrue ( );
+    }
+
+    @Test
+    void cancelOnlyDropsTheActiveCount() {
+        Enrollment enrollment = enrollment ( true , Progress.IN_PROGRESS , "50" );
+        EnrollmentStatsService.Counters before = EnrollmentStatsService.Counters.of ( enrollment );
+
+        enrollment.setProgress ( Progress.CANCELLED );
+        enrollment.setIsActive ( false );
+        statsService.recordChange ( COURSE_ID , before , enrollment );
+
+        // The grade stays, so neither the sum nor the histogram moves.
+        verifyDelta ( 0 , -1 , 0 , 0 , "0" );
+        verifyNoInteractions ( jdbcTemplate );
+    }
+
+    @Test
+    void completionWithAGradeCountsBoth() {
+        storedHistogram ( );
+        Enrollment enrollment = enrollment ( true , Progress.IN_PROGRESS , null );
+        EnrollmentStatsService.Counters before = EnrollmentStatsService.Counters.of ( enrollment );
+
+        enrollment.setProgress ( Progress.COMPLETED );
+        enrollment.setFinalGrade ( new BigDecimal ( "90" ) );
+        statsService.recordChange ( COURSE_ID , before , enrollment );
+
+        verifyDelta ( 0 , 0 , 1 , 1 , "90" );
+        assertThat ( writtenHistogram ( ).total ( ) ).isEqualTo ( 1 );
+    }
+
+    @Test
+    void unchangedCountersWriteNothing() {
+        Enrollment enrollment = enrollment ( true , Progress.IN_PROGRESS , "75" );
+
+        statsService.recordChange ( COURSE_ID , EnrollmentStatsService.Counters.of ( enrollment ) , enrollment );
+
+        verify ( statsRepository , never ( ) ).applyDelta ( anyLong ( ) , anyLong ( ) , anyLong ( ) , anyLong ( ) , anyLong ( ) , any ( ) );
+        verifyNoInteractions ( jdbcTemplate );
+    }
+
+    @Test
+    void histogramNotYetBuiltIsLeftToReconciliation() {
+        when ( jdbcTemplate.query ( anyString ( ) , any ( RowMapper.class ) , eq ( COURSE_ID ) ) )
+                .thenReturn ( Collections.singletonList ( null ) );
+        Enrollment enrollment = enrollment ( true , Progress.IN_PROGRESS , null );
+        EnrollmentStatsService.Counters before = EnrollmentStatsService.Counters.of ( enrollment );
+
+        enrollment.setFinalGrade ( new BigDecimal ( "40" ) );
+        statsService.recordChange ( COURSE_ID , before , enrollment );
+
+        verifyDelta ( 0 , 0 , 0 , 1 , "40" );
+        verify ( jdbcTemplate , never ( ) ).update ( anyString ( ) , any ( Object[].class ) );
+    }
+
+    @Test
+    void bulkCreateIsOneDelta() {
+        statsService.recordNewEnrollments ( COURSE_ID , List.of (
+                enrollment ( true , Progress.NOT_STARTED , null ) ,
+                enrollment ( true , Progress.NOT_STARTED , null ) ,
+                enrollment ( true , Progress.NOT_STARTED , null ) ) );
+
+        verifyDelta ( 3 , 3 , 0 , 0 , "0" );
+    }
+
+    private void verifyDelta(long enrollments , long active , long completed , long graded , String gradeSum) {
+        ArgumentCaptor<BigDecimal> sum = ArgumentCaptor.forClass ( BigDecimal.class );
+        verify ( statsRepository ).applyDelta ( eq ( COURSE_ID ) , eq ( enrollments ) , eq ( active ) , eq ( completed ) ,
+                eq ( graded ) , sum.capture ( ) );
+        assertThat ( sum.getValue ( ) ).isEqualByComparingTo ( gradeSum );
+    }
+
+    private void storedHistogram(String... grades) {
+        when ( jdbcTemplate.query ( anyString ( ) , any ( RowMapper.class ) , eq ( COURSE_ID ) ) )
+                .thenReturn ( List.of ( histogram ( grades ).encode ( ) ) );
+    }
+
+    private GradeHistogram writtenHistogram() {
+        ArgumentCaptor<byte[]> written = ArgumentCaptor.forClass ( byte[].class );
+        verify ( jdbcTemplate ).update ( anyString ( ) , written.capture ( ) , eq ( COURSE_ID ) );
+        return GradeHistogram.decode ( written.getValue ( ) );
+    }
+
+    private static GradeHistogram histogram(String... grades) {
+        GradeHistogram histogram = new GradeHistogram ( );
+        for (String grade : grades) {
+            histogram.add ( new BigDecimal ( grade ) );
+        }
+        return histogram;
+    }
+
+    private static Enrollment enrollment(boolean active , Progress progress , String grade) {
+        return Enrollment.builder ( )
+                .isActive ( active )
+                .progress ( progress )
+                .finalGrade ( grade == null ? null : new BigDecimal ( grade ) )
+                .build ( );
+    }
+}
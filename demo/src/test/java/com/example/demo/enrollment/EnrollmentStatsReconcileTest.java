@@ -0,0 +1,132 @@
+package com.example.demo.enrollment;
+
+import com.example.demo.PostgresContainerTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reconciliation against the real schema, in chunks of two courses so the seven seeded courses
+ * span four chunks: corrupted counters and histograms are recounted from the enrollment table
+ * and reported on enrollment.stats.drift, and a clean run reports nothing.
+ */
+@DataJpaTest(properties = "enrollment.stats.reconcile.chunk-size=2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ EnrollmentStatsService.class , EnrollmentStatsReconcileTest.Metrics.class })
+
+class EnrollmentStatsReconcileTest extends PostgresContainerTest {
+
+    @Autowired
+    private EnrollmentStatsService statsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute ( "INSERT INTO users (id, user_name, email, password, first_name, last_name, role) " +
+                "SELECT g, 'user' || g, 'user' || g || '@example.com', 'x', 'First', 'Last', " +
+                "CASE WHEN g = 1 THEN 'INSTRUCTOR' ELSE 'STUDENT' END FROM generate_series(1, 41) g" );
+        jdbcTemplate.execute ( "INSERT INTO category (id, name) VALUES (1, 'Reconcile')" );
+        jdbcTemplate.execute ( "INSERT INTO course (id, title, level, status, instructor_id, category_id) " +
+                "SELECT g, 'Course ' || g, 'BEGINNER', 'PUBLISHED', 1, 1 FROM generate_series(1, 7) g" );
+        // Forty students over courses 1 to 6; course 7 has none. Every third is completed, every other graded.
+        jdbcTemplate.execute ( "INSERT INTO enrollment (id, user_id, course_id, date_of_enrollment, is_active, progress, final_grade) " +
+                "SELECT s, s, 1 + s % 6, now(), s % 4 <> 0, " +
+                "CASE WHEN s % 3 = 0 THEN 'COMPLETED' ELSE 'IN_PROGRESS' END, " +
+                "CASE WHEN s % 2 = 0 THEN 50 + s ELSE NULL END FROM generate_series(2, 41) s" );
+
+        // The first run builds every row from scratch; clean from here on.
+        statsService.reconcile ( );
+    }
+
+    @Test
+    void corruptedCountersAndHistogramsAreRecountedAndReported() {
+        Map<String, Object> course3 = stats ( 3L );
+        Map<String, Object> course6 = stats ( 6L );
+        byte[] histogram2 = histogram ( 2L );
+        double driftBefore = drift ( );
+
+        jdbcTemplate.update ( "UPDATE course_enrollment_stats SET enrollments = 99, active_enrollments = 0 WHERE course_id = 3" );
+        jdbcTemplate.update ( "UPDATE course_enrollment_stats SET grade_sum = grade_sum + 7.5 WHERE course_id = 6" );
+        GradeHistogram wrong = GradeHistogram.decode ( histogram2 );
+        wrong.add ( new BigDecimal ( "12.3" ) );
+        jdbcTemplate.update ( "UPDATE course_enrollment_stats SET grade_histogram = ? WHERE course_id = 2" , (Object) wrong.encode ( ) );
+
+        statsService.reconcile ( );
+
+        assertThat ( drift ( ) - driftBefore ).isEqualTo ( 3 );
+        assertThat ( stats ( 3L ) ).isEqualTo ( course3 );
+        assertThat ( stats ( 6L ) ).isEqualTo ( course6 );
+        assertThat ( GradeHistogram.decode ( histogram ( 2L ) ).sameAs ( GradeHistogram.decode ( histogram2 ) ) ).isTrue ( );
+    }
+
+    @Test
+    void rebuiltCountersMatchTheEnrollmentTable() {
+        Map<String, Object> actual = jdbcTemplate.queryForMap ( "SELECT count(*) AS enrollments, " +
+                "count(*) FILTER (WHERE is_active) AS active_enrollments, " +
+                "count(*) FILTER (WHERE progress = 'COMPLETED') AS completed_enrollments, " +
+                "count(final_grade) AS graded_enrollments, sum(final_grade) AS grade_sum " +
+                "FROM enrollment WHERE course_id = 4" );
+
+        Map<String, Object> stored = stats ( 4L );
+        assertThat ( stored.get ( "enrollments" ) ).isEqualTo ( actual.get ( "enrollments" ) );
+        assertThat ( stored.get ( "active_enrollments" ) ).isEqualTo ( actual.get ( "active_enrollments" ) );
+        assertThat ( stored.get ( "completed_enrollments" ) ).isEqualTo ( actual.get ( "completed_enrollments" ) );
+        assertThat ( stored.get ( "graded_enrollments" ) ).isEqualTo ( actual.get ( "graded_enrollments" ) );
+        assertThat ( (BigDecimal) stored.get ( "grade_sum" ) ).isEqualByComparingTo ( (BigDecimal) actual.get ( "grade_sum" ) );
+        assertThat ( GradeHistogram.decode ( histogram ( 4L ) ).total ( ) ).isEqualTo ( (Long) actual.get ( "graded_enrollments" ) );
+
+        // A course without enrollments gets no row.
+        assertThat ( jdbcTemplate.queryForObject ( "SELECT count(*) FROM course_enrollment_stats WHERE course_id = 7" ,
+                Long.class ) ).isZero ( );
+    }
+
+    @Test
+    void cleanRunReportsNoDrift() {
+        double driftBefore = drift ( );
+
+        statsService.reconcile ( );
+
+        assertThat ( drift ( ) ).isEqualTo ( driftBefore );
+    }
+
+    private Map<String, Object> stats(long courseId) {
+        return jdbcTemplate.queryForMap ( "SELECT enrollments, active_enrollments, completed_enrollments, " +
+                "graded_enrollments, grade_sum FROM course_enrollment_stats WHERE course_id = ?" , courseId );
+    }
+
+    private byte[] histogram(long courseId) {
+        return jdbcTemplate.queryForObject ( "SELECT grade_histogram FROM course_enrollment_stats WHERE course_id = ?" ,
+                byte[].class , courseId );
+    }
+
+    private double drift() {
+        return meterRegistry.counter ( "enrollment.stats.drift" ).count ( );
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry ( );
+        }
+    }
+}
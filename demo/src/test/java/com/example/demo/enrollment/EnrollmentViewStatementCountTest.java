@@ -0,0 +1,107 @@
+package com.example.demo.enrollment;
+
+import com.example.demo.PostgresContainerTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every enrollment listing is one statement per page, plus the count for paged endpoints, and
+ * hydrates no entities. Counted with Hibernate statistics against the real schema: 40 students
+ * in 3 courses, two of which belong to instructor 1.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+
+class EnrollmentViewStatementCountTest extends PostgresContainerTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute ( "INSERT INTO users (id, user_name, email, password, first_name, last_name, role) " +
+                "SELECT g, 'user' || g, 'user' || g || '@example.com', 'x', 'First', 'Last', " +
+                "CASE WHEN g <= 2 THEN 'INSTRUCTOR' ELSE 'STUDENT' END FROM generate_series(1, 42) g" );
+        jdbcTemplate.execute ( "INSERT INTO category (id, name) VALUES (1, 'Statements')" );
+        jdbcTemplate.execute ( "INSERT INTO course (id, title, level, status, instructor_id, category_id) VALUES " +
+                "(1, 'One', 'BEGINNER', 'PUBLISHED', 1, 1), " +
+                "(2, 'Two', 'BEGINNER', 'PUBLISHED', 1, 1), " +
+                "(3, 'Three', 'BEGINNER', 'PUBLISHED', 2, 1)" );
+        jdbcTemplate.execute ( "INSERT INTO enrollment (id, user_id, course_id, date_of_enrollment, is_active, progress) " +
+                "SELECT row_number() OVER (), s, c, TIMESTAMP '2024-01-01' + (s * 3 + c) * INTERVAL '1 minute', true, 'IN_PROGRESS' " +
+                "FROM generate_series(3, 42) s, generate_series(1, 3) c" );
+
+        statistics = entityManagerFactory.unwrap ( SessionFactory.class ).getStatistics ( );
+    }
+
+    @Test
+    void pagedListingsAreOneQueryPlusTheCount() {
+        PageRequest page = PageRequest.of ( 1 , PAGE_SIZE );
+
+        assertPage ( ( ) -> enrollmentRepository.findAllViews ( page ) , 120 );
+        assertPage ( ( ) -> enrollmentRepository.findViewsByStudent ( 3L , PageRequest.of ( 0 , 2 ) ) , 3 );
+        assertPage ( ( ) -> enrollmentRepository.findViewsByCourse ( 1L , page ) , 40 );
+        assertPage ( ( ) -> enrollmentRepository.findViewsByInstructor ( 1L , page ) , 80 );
+    }
+
+    @Test
+    void keysetSlicesAreOneQueryEach() {
+        Limit limit = Limit.of ( PAGE_SIZE + 1 );
+
+        List<EnrollmentResponseDto> first = assertSingleStatement ( ( ) -> enrollmentRepository.findFirstByInstructor ( 1L , limit ) );
+        assertThat ( first ).hasSize ( PAGE_SIZE + 1 );
+
+        EnrollmentResponseDto last = first.get ( PAGE_SIZE - 1 );
+        List<EnrollmentResponseDto> second = assertSingleStatement ( ( ) -> enrollmentRepository.findByInstructorAfter (
+                1L , last.dateOfEnrollment ( ) , last.id ( ) , limit ) );
+        assertThat ( second ).hasSize ( PAGE_SIZE + 1 ).doesNotContainAnyElementsOf ( first.subList ( 0 , PAGE_SIZE ) );
+
+        assertSingleStatement ( ( ) -> enrollmentRepository.findFirstByStudent ( 3L , limit ) );
+        assertSingleStatement ( ( ) -> enrollmentRepository.findByStudentAfter ( 3L , last.dateOfEnrollment ( ) , last.id ( ) , limit ) );
+        assertSingleStatement ( ( ) -> enrollmentRepository.findFirstByCourse ( 1L , limit ) );
+        assertSingleStatement ( ( ) -> enrollmentRepository.findByCourseAfter ( 1L , last.dateOfEnrollment ( ) , last.id ( ) , limit ) );
+    }
+
+    private void assertPage(Supplier<Page<EnrollmentResponseDto>> query , long expectedTotal) {
+        statistics.clear ( );
+        Page<EnrollmentResponseDto> page = query.get ( );
+
+        assertThat ( page.getTotalElements ( ) ).isEqualTo ( expectedTotal );
+        assertThat ( statistics.getPrepareStatementCount ( ) ).isEqualTo ( 2 );
+        assertThat ( statistics.getEntityLoadCount ( ) ).isZero ( );
+    }
+
+    private List<EnrollmentResponseDto> assertSingleStatement(Supplier<List<EnrollmentResponseDto>> query) {
+        statistics.clear ( );
+        List<EnrollmentResponseDto> rows = query.get ( );
+
+        assertThat ( statistics.getPrepareStatementCount ( ) ).isEqualTo ( 1 );
+        assertThat ( statistics.getEntityLoadCount ( ) ).isZero ( );
+        return rows;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.enrollment;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GradeHistogramTest {
+
+    @Test
+    void encodeDecodeRoundTrips() {
+        GradeHistogram histogram = new GradeHistogram ( );
+        Random random = new Random ( 42 );
+        for (int i = 0; i < 5_000; i++) {
+            histogram.addToBin ( random.nextInt ( 1001 ) , 1 );
+        }
+        // Large counts and gaps need multi-byte varints.
+        histogram.addToBin ( 0 , 300 );
+        histogram.addToBin ( 1000 , 70_000 );
+
+        GradeHistogram decoded = GradeHistogram.decode ( histogram.encode ( ) );
+
+        assertThat ( decoded.sameAs ( histogram ) ).isTrue ( );
+        assertThat ( decoded.total ( ) ).isEqualTo ( 75_300 );
+    }
+
+    @Test
+    void emptyHistogramEncodesToTheVersionByte() {
+        byte[] encoded = new GradeHistogram ( ).encode ( );
+
+        assertThat ( encoded ).containsExactly ( 1 );
+        assertThat ( GradeHistogram.decode ( encoded ).total ( ) ).isZero ( );
+        assertThat ( GradeHistogram.decode ( null ).total ( ) ).isZero ( );
+        assertThatThrownBy ( ( ) -> GradeHistogram.decode ( new byte[]{ 2 } ) )
+                .isInstanceOf ( IllegalStateException.class );
+    }
+
+    @Test
+    void quantilesUseNearestRank() {
+        GradeHistogram histogram = new GradeHistogram ( );
+        assertThat ( histogram.quantile ( 0.5 ) ).isNull ( );
+
+        for (String grade : new String[]{ "10" , "20" , "30" , "40" , "100" }) {
+            histogram.add ( new BigDecimal ( grade ) );
+        }
+
+        assertThat ( histogram.quantile ( 0 ) ).isEqualByComparingTo ( "10" );
+        assertThat ( histogram.quantile ( 0.5 ) ).isEqualByComparingTo ( "30" );
+        assertThat ( histogram.quantile ( 0.8 ) ).isEqualByComparingTo ( "40" );
+        assertThat ( histogram.quantile ( 0.81 ) ).isEqualByComparingTo ( "100" );
+        assertThat ( histogram.quantile ( 1 ) ).isEqualByComparingTo ( "100" );
+    }
+
+    @Test
+    void gradesRoundToTheNearestTenth() {
+        GradeHistogram histogram = new GradeHistogram ( );
+        histogram.add ( new BigDecimal ( "87.45" ) );
+
+        assertThat ( histogram.quantile ( 0.5 ) ).isEqualByComparingTo ( "87.5" );
+        assertThatThrownBy ( ( ) -> histogram.add ( new BigDecimal ( "100.1" ) ) )
+                .isInstanceOf ( IllegalArgumentException.class );
+        assertThatThrownBy ( ( ) -> histogram.add ( new BigDecimal ( "-0.1" ) ) )
+                .isInstanceOf ( IllegalArgumentException.class );
+    }
+
+    @Test
+    void lastBucketIncludesOneHundred() {
+        GradeHistogram histogram = new GradeHistogram ( );
+        for (String grade : new String[]{ "0" , "9.9" , "10" , "55" , "89.9" , "90" , "100" }) {
+            histogram.add ( new BigDecimal ( grade ) );
+        }
+
+        assertThat ( histogram.buckets ( 10 ) ).containsExactly ( 2L , 1L , 0L , 0L , 0L , 1L , 0L , 0L , 1L , 2L );
+        assertThat ( histogram.buckets ( 50 ) ).containsExactly ( 3L , 4L );
+    }
+
+    @Test
+    void removeTakesBackOneGradeAndIgnoresMissingOnes() {
+        GradeHistogram histogram = new GradeHistogram ( );
+        histogram.add ( new BigDecimal ( "70" ) );
+        histogram.add ( new BigDecimal ( "70" ) );
+        histogram.add ( new BigDecimal ( "90" ) );
+
+        histogram.remove ( new BigDecimal ( "70.0" ) );
+        histogram.remove ( new BigDecimal ( "50" ) );
+
+        assertThat ( histogram.total ( ) ).isEqualTo ( 2 );
+        assertThat ( histogram.quantile ( 0.5 ) ).isEqualByComparingTo ( "70" );
+        assertThat ( histogram.buckets ( 10 ).get ( 5 ) ).isZero ( );
+    }
+
+    @Test
+    void mergeAddsBinCounts() {
+        GradeHistogram first = new GradeHistogram ( );
+        first.add ( new BigDecimal ( "60" ) );
+        GradeHistogram second = new GradeHistogram ( );
+        second.add ( new BigDecimal ( "60" ) );
+        second.add ( new BigDecimal ( "80" ) );
+
+        first.merge ( second );
+
+        assertThat ( first.total ( ) ).isEqualTo ( 3 );
+        assertThat ( first.buckets ( 10 ).get ( 6 ) ).isEqualTo ( 2 );
+        assertThat ( first.buckets ( 10 ).get ( 8 ) ).isEqualTo ( 1 );
+    }
+}
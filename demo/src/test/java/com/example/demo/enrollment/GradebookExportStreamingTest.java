@@ -0,0 +1,128 @@
+package com.example.demo.enrollment;
+
+import com.example.demo.PostgresContainerTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A gradebook of 200,000 enrollments goes out on one connection, read through a server-side
+ * cursor: by the time the first bytes reach the client the query is still open as a portal, so
+ * rows are written as they are fetched rather than after the whole result is loaded.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+
+class GradebookExportStreamingTest extends PostgresContainerTest {
+
+    private static final int STUDENTS = 200_000;
+    private static final long COURSE_ID = 1L;
+    private static final long INSTRUCTOR_ID = 1L;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute ( "INSERT INTO users (id, user_name, email, password, first_name, last_name, role) " +
+                "SELECT g, 'user' || g, 'user' || g || '@example.com', 'x', 'First', 'Last', " +
+                "CASE WHEN g = 1 THEN 'INSTRUCTOR' ELSE 'STUDENT' END FROM generate_series(1, " + (STUDENTS + 1) + ") g" );
+        jdbcTemplate.execute ( "INSERT INTO category (id, name) VALUES (1, 'Export')" );
+        jdbcTemplate.execute ( "INSERT INTO course (id, title, level, status, instructor_id, category_id) " +
+                "VALUES (1, 'Large course', 'BEGINNER', 'PUBLISHED', 1, 1)" );
+        jdbcTemplate.execute ( "INSERT INTO enrollment (id, user_id, course_id, date_of_enrollment, is_active, progress, final_grade) " +
+                "SELECT s, s, 1, TIMESTAMP '2024-01-01' + s * INTERVAL '1 second', true, 'IN_PROGRESS', (s % 1001) / 10.0 " +
+                "FROM generate_series(2, " + (STUDENTS + 1) + ") s" );
+        jdbcTemplate.execute ( "ANALYZE enrollment" );
+    }
+
+    @Test
+    void csvStreamsEveryRowOnOneConnection() throws IOException {
+        CountingDataSource counting = new CountingDataSource ( dataSource );
+        ExportSink sink = new ExportSink ( new JdbcTemplate ( counting ) );
+
+        exporter ( counting ).byCourse ( COURSE_ID , GradebookFormat.CSV ).writeTo ( sink );
+
+        assertThat ( sink.lines.get ( ) ).isEqualTo ( STUDENTS + 1 );
+        assertThat ( counting.connections.get ( ) ).isEqualTo ( 1 );
+        assertThat ( sink.openCursorsAtFirstWrite ).isEqualTo ( 1 );
+    }
+
+    @Test
+    void ndjsonStreamsEveryRowOnOneConnection() throws IOException {
+        CountingDataSource counting = new CountingDataSource ( dataSource );
+        ExportSink sink = new ExportSink ( new JdbcTemplate ( counting ) );
+
+        exporter ( counting ).byInstructor ( INSTRUCTOR_ID , GradebookFormat.NDJSON ).writeTo ( sink );
+
+        assertThat ( sink.lines.get ( ) ).isEqualTo ( STUDENTS );
+        assertThat ( counting.connections.get ( ) ).isEqualTo ( 1 );
+        assertThat ( sink.openCursorsAtFirstWrite ).isEqualTo ( 1 );
+    }
+
+    // Transactions and the exporter's queries share the counting data source, as they share the pool in production.
+    private GradebookExporter exporter(DataSource counting) {
+        return new GradebookExporter ( counting , new DataSourceTransactionManager ( counting ) , new ObjectMapper ( ) , 1000 );
+    }
+
+    private static final class CountingDataSource extends DelegatingDataSource {
+
+        private final AtomicInteger connections = new AtomicInteger ( );
+
+        private CountingDataSource(DataSource target) {
+            super ( target );
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            connections.incrementAndGet ( );
+            return super.getConnection ( );
+        }
+    }
+
+    // Counts lines and, on the first write, asks the export's own session which cursors are open.
+    private static final class ExportSink extends OutputStream {
+
+        private final JdbcTemplate sameSession;
+        private final AtomicInteger lines = new AtomicInteger ( );
+        private Integer openCursorsAtFirstWrite;
+
+        private ExportSink(JdbcTemplate sameSession) {
+            this.sameSession = sameSession;
+        }
+
+        @Override
+        public void write(int b) {
+            if (openCursorsAtFirstWrite == null) {
+                openCursorsAtFirstWrite = sameSession.queryForObject (
+                        "SELECT count(*) FROM pg_cursors WHERE statement LIKE '%FROM enrollment e%'" , Integer.class );
+            }
+            if (b == '\n') {
+                lines.incrementAndGet ( );
+            }
+        }
+    }
+}
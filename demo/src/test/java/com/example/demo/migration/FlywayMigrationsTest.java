@@ -0,0 +1,152 @@
+package com.example.demo.migration;
+
+import com.example.demo.PostgresContainerTest;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every migration against an empty database (the context only starts if Hibernate then
+ * validates the mappings against the result) and checks that the queries the indexes were added
+ * for can use them. Sequential scans are switched off because the tables are empty; the point is
+ * that a matching index exists, not what the planner would pick for this data.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+
+class FlywayMigrationsTest extends PostgresContainerTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void disableSeqScan() {
+        jdbcTemplate.execute ( "SET LOCAL enable_seqscan = off" );
+    }
+
+    @Test
+    void allMigrationsApplyToAnEmptyDatabase() {
+        MigrationInfo[] applied = flyway.info ( ).applied ( );
+
+        assertThat ( flyway.info ( ).pending ( ) ).isEmpty ( );
+        assertThat ( applied ).isNotEmpty ( );
+        assertThat ( Arrays.stream ( applied ).allMatch ( info -> info.getState ( ).isApplied ( ) && !info.getState ( ).isFailed ( ) ) )
+                .isTrue ( );
+    }
+
+    @Test
+    void enrollmentExistenceChecksUseTheUniqueIndex() {
+        // existsByUserIdAndCourseId
+        assertThat ( plan ( "SELECT EXISTS (SELECT 1 FROM enrollment WHERE user_id = 1 AND course_id = 2)" ) )
+                .contains ( "ux_enrollment_user_course" );
+    }
+
+    @Test
+    void courseChecksByInstructorAndCategoryUseTheirStatusIndexes() {
+        // activeCoursesForTheInstructor, findByInstructorIdAndStatus
+        assertThat ( plan ( "SELECT EXISTS (SELECT 1 FROM course WHERE instructor_id = 1 " +
+                "AND status IN ('PUBLISHED' , 'DRAFT'))" ) )
+                .contains ( "idx_course_instructor_status" );
+
+        // hasActiveOrDraftCourses, findByCategoryIdAndStatus
+        assertThat ( plan ( "SELECT EXISTS (SELECT 1 FROM course WHERE category_id = 1 " +
+                "AND status IN ('PUBLISHED' , 'DRAFT'))" ) )
+                .contains ( "idx_course_category_status" );
+        assertThat ( plan ( "SELECT id FROM course WHERE category_id = 1 AND status = 'PUBLISHED'" ) )
+                .contains ( "idx_course_category_status" );
+    }
+
+    @Test
+    void activeModuleRanksComeOffTheCourseActiveOrderIndex() {
+        // ModuleRepository.findActiveRanks
+        assertThat ( plan ( "SELECT order_index FROM module WHERE course_id = 1 AND is_active = true AND id <> 5 " +
+                "ORDER BY order_index LIMIT 2 OFFSET 0" ) )
+                .contains ( "idx_module_course_active_order" );
+    }
+
+    @Test
+    void caseInsensitiveTitleLookupsUseTheLowerTitleIndex() {
+        // existsByTitleIgnoreCase; the name is matched whole, as the pattern and trigram indexes share its prefix.
+        assertThat ( plan ( "SELECT EXISTS (SELECT 1 FROM course WHERE lower(title) = lower('Java Basics'))" ) )
+                .containsPattern ( "idx_course_lower_title\\b" );
+
+        // findByTitleIgnoreCase, as Hibernate renders it
+        assertThat ( plan ( "SELECT c.id FROM course c WHERE lower(c.title) = lower('Java Basics')" ) )
+                .containsPattern ( "idx_course_lower_title\\b" );
+    }
+
+    @Test
+    void enrollmentKeysetPagesUseTheDateIdIndexes() {
+        assertThat ( plan ( "SELECT id FROM enrollment WHERE user_id = 1 " +
+                "AND (date_of_enrollment < now() OR (date_of_enrollment = now() AND id < 10)) " +
+                "ORDER BY date_of_enrollment DESC, id DESC LIMIT 20" ) )
+                .contains ( "idx_enrollment_user_date_id" );
+
+        assertThat ( plan ( "SELECT id FROM enrollment WHERE course_id = 1 " +
+                "ORDER BY date_of_enrollment DESC, id DESC LIMIT 20" ) )
+                .contains ( "idx_enrollment_course_date_id" );
+    }
+
+    @Test
+    void catalogFiltersUseTheStatusLevelPriceIndex() {
+        assertThat ( plan ( "SELECT id FROM course WHERE status = 'PUBLISHED' AND level = 'BEGINNER' " +
+                "AND price BETWEEN 10 AND 50" ) )
+                .contains ( "idx_course_status_level_price" );
+    }
+
+    @Test
+    void combinedSearchFiltersUseACompositeIndex() {
+        // CourseService.searchCourses filtered by category id, level, status and a price range.
+        assertThat ( plan ( "SELECT c.id FROM course c WHERE c.category_id = 1 AND c.level = 'BEGINNER' " +
+                "AND c.status = 'PUBLISHED' AND c.price >= 10 AND c.price <= 50" ) )
+                .containsPattern ( "idx_course_status_level_price|idx_course_category_status" );
+    }
+
+    @Test
+    void titlePrefixSearchUsesThePatternIndex() {
+        assertThat ( plan ( "SELECT id FROM course WHERE lower(title) LIKE 'java%'" ) )
+                .contains ( "idx_course_lower_title_pattern" );
+    }
+
+    @Test
+    void keywordSearchUsesTheGinIndexes() {
+        assertThat ( plan ( "SELECT id FROM course WHERE search_vector @@ to_tsquery('simple', 'java:*')" ) )
+                .contains ( "idx_course_search_vector" );
+
+        assertThat ( plan ( "SELECT id FROM course WHERE lower(title) % 'jvaa'" ) )
+                .contains ( "idx_course_lower_title_trgm" );
+    }
+
+    @Test
+    void emptyCategoriesComeFromThePartialIndex() {
+        assertThat ( plan ( "SELECT category_id FROM category_course_counts WHERE total_courses = 0" ) )
+                .contains ( "idx_category_course_counts_empty" );
+    }
+
+    @Test
+    void tokenVersionAndRevocationPollsUseTheirIndexes() {
+        assertThat ( plan ( "SELECT id, token_version FROM users WHERE token_version > 0" ) )
+                .contains ( "idx_users_bumped_token_version" );
+
+        assertThat ( plan ( "SELECT jti FROM revoked_tokens WHERE revoked_at > now() - interval '1 minute'" ) )
+                .contains ( "idx_revoked_tokens_revoked_at" );
+    }
+
+    private String plan(String sql) {
+        List<String> lines = jdbcTemplate.queryForList ( "EXPLAIN " + sql , String.class );
+        return String.join ( "\n" , lines );
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.demo.module;
+
+import com.example.demo.PostgresContainerTest;
+import com.example.demo.security.CurrentUser;
+import com.example.demo.user.Role;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Sparse module ranks against the real schema: moves write one row at the midpoint of their new
+ * neighbours, rebalance only when a gap is used up, step around archived modules, and serialize on
+ * the course row. Responses report the 1-based position an update takes, never the rank.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ ModuleService.class , ModuleMapper.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+
+class ModuleRankingTest extends PostgresContainerTest {
+
+    private static final CurrentUser ADMIN = new CurrentUser ( 1L , "admin@example.com" , Role.ADMIN , true );
+
+    // Seeded ids stay clear of module_seq, which the service's own inserts draw from.
+    private final AtomicLong ids = new AtomicLong ( 100_000 );
+
+    @Autowired
+    private ModuleService moduleService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute ( "INSERT INTO users (id, user_name, email, password, first_name, last_name, role) " +
+                "VALUES (1, 'admin', 'admin@example.com', 'x', 'First', 'Last', 'ADMIN')" );
+        jdbcTemplate.execute ( "INSERT INTO category (id, name) VALUES (1, 'Ranking')" );
+    }
+
+    @Test
+    void moveBetweenTwoTakesTheMidpointAndTouchesOneRow() {
+        long course = course ( );
+        long a = module ( course , 1024 , true );
+        long b = module ( course , 2048 , true );
+        long c = module ( course , 3072 , true );
+
+        ModuleResponseDto moved = move ( c , 2 );
+
+        assertThat ( moved.orderIndex ( ) ).isEqualTo ( 2 );
+        assertThat ( activeOrder ( course ) ).containsExactly ( a , c , b );
+        assertThat ( ranks ( course ) ).containsExactly ( 1024 , 1536 , 2048 );
+    }
+
+    @Test
+    void movesToFirstAndToLast() {
+        long course = course ( );
+        long a = module ( course , 1024 , true );
+        long b = module ( course , 2048 , true );
+        long c = module ( course , 3072 , true );
+
+        assertThat ( move ( c , 1 ).orderIndex ( ) ).isEqualTo ( 1 );
+        assertThat ( activeOrder ( course ) ).containsExactly ( c , a , b );
+        assertThat ( rank ( c ) ).isEqualTo ( 512 );
+
+        assertThat ( move ( c , 3 ).orderIndex ( ) ).isEqualTo ( 3 );
+        assertThat ( activeOrder ( course ) ).containsExactly ( a , b , c );
+
+        // Past the end appends.
+        assertThat ( move ( a , 99 ).orderIndex ( ) ).isEqualTo ( 3 );
+        assertThat ( activeOrder ( course ) ).containsExactly ( b , c , a );
+    }
+
+    @Test
+    void orderIndexReadBackLeavesTheModuleWhereItIs() {
+        long course = course ( );
+        long a = module ( course , 1024 , true );
+        long b = module ( course , 2048 , true );
+        long c = module ( course , 3072 , true );
+
+        for (long id : List.of ( a , b , c )) {
+            move ( id , moduleService.getModuleById ( id ).orderIndex ( ) );
+            assertThat ( activeOrder ( course ) ).containsExactly ( a , b , c );
+        }
+    }
+
+    @Test
+    void exhaustedGapRebalancesTheCourse() {
+        long course = course ( );
+        long a = module ( course , 1 , true );
+        long b = module ( course , 2 , true );
+        long c = module ( course , 3 , true );
+
+        move ( c , 2 );
+
+        // No room between 1 and 2: the course is spread back out, then c takes the new midpoint.
+        assertThat ( activeOrder ( course ) ).containsExactly ( a , c , b );
+        assertThat ( rank ( a ) ).isEqualTo ( 1024 );
+        assertThat ( rank ( c ) ).isEqualTo ( 1536 );
+        assertThat ( rank ( b ) ).isEqualTo ( 2048 );
+    }
+
+    @Test
+    void archivedNeighboursKeepTheirRanksAndHaveNoPosition() {
+        long course = course ( );
+        long a = module ( course , 1024 , true );
+        long archived = module ( course , 2048 , false );
+        long b = module ( course , 3072 , true );
+        long c = module ( course , 4096 , true );
+
+        move ( c , 2 );
+
+        // Between a and b by position, but below the archived module's rank, so it can come back in place.
+        assertThat ( activeOrder ( course ) ).containsExactly ( a , c , b );
+        assertThat ( rank ( c ) ).isEqualTo ( 1536 );
+        assertThat ( rank ( archived ) ).isEqualTo ( 2048 );
+
+        assertThat ( moduleService.getModulesByCourseId ( course , PageRequest.of ( 0 , 10 ) ).getContent ( ) )
+                .extracting ( ModuleResponseDto::id , ModuleResponseDto::orderIndex )
+                .containsExactly (
+                        tuple ( a , 1 ) ,
+                        tuple ( c , 2 ) ,
+                        tuple ( archived , null ) ,
+                        tuple ( b , 3 ) );
+
+        moduleService.updateModule ( archived , new ModuleUpdateDto ( null , null , null , true , null ) , ADMIN );
+        assertThat ( activeOrder ( course ) ).containsExactly ( a , c , archived , b );
+    }
+
+    @Test
+    void concurrentMovesInOneCourseAreSerialized() throws Exception {
+        long course = course ( );
+        long a = module ( course , 1024 , true );
+        long b = module ( course , 2048 , true );
+        long c = module ( course , 3072 , true );
+        long d = module ( course , 4096 , true );
+
+        // Both aim for the same gap; without the course lock they would pick the same rank.
+        ExecutorService movers = Executors.newFixedThreadPool ( 2 );
+        CountDownLatch start = new CountDownLatch ( 1 );
+        Future<ModuleResponseDto> first = movers.submit ( ( ) -> {
+            start.await ( );
+            return move ( c , 1 );
+        } );
+        Future<ModuleResponseDto> second = movers.submit ( ( ) -> {
+            start.await ( );
+            return move ( d , 1 );
+        } );
+        start.countDown ( );
+        first.get ( 10 , TimeUnit.SECONDS );
+        second.get ( 10 , TimeUnit.SECONDS );
+        movers.shutdown ( );
+
+        List<Long> order = activeOrder ( course );
+        assertThat ( order.subList ( 0 , 2 ) ).containsExactlyInAnyOrder ( c , d );
+        assertThat ( order.subList ( 2 , 4 ) ).containsExactly ( a , b );
+        assertThat ( ranks ( course ) ).doesNotHaveDuplicates ( );
+    }
+
+    private ModuleResponseDto move(long moduleId , int position) {
+        return moduleService.updateModule ( moduleId , new ModuleUpdateDto ( null , null , position , null , null ) , ADMIN );
+    }
+
+    private long course() {
+        long id = ids.incrementAndGet ( );
+        jdbcTemplate.update ( "INSERT INTO course (id, title, level, status, instructor_id, category_id) " +
+                "VALUES (?, ?, 'BEGINNER', 'PUBLISHED', 1, 1)" , id , "Course " + id );
+        return id;
+    }
+
+    private long module(long courseId , int rank , boolean active) {
+        long id = ids.incrementAndGet ( );
+        jdbcTemplate.update ( "INSERT INTO module (id, title, order_index, is_active, course_id, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, now())" , id , "Module " + id , rank , active , courseId );
+        return id;
+    }
+
+    private int rank(long moduleId) {
+        return jdbcTemplate.queryForObject ( "SELECT order_index FROM module WHERE id = ?" , Integer.class , moduleId );
+    }
+
+    private List<Integer> ranks(long courseId) {
+        return jdbcTemplate.queryForList ( "SELECT order_index FROM module WHERE course_id = ? ORDER BY order_index" ,
+                Integer.class , courseId );
+    }
+
+    private List<Long> activeOrder(long courseId) {
+        return jdbcTemplate.queryForList ( "SELECT id FROM module WHERE course_id = ? AND is_active ORDER BY order_index" ,
+                Long.class , courseId );
+    }
+}
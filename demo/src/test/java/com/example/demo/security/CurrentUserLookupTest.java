@@ -0,0 +1,193 @@
+package com.example.demo.security;
+
+import com.example.demo.config.SecurityConfig;
+import com.example.demo.course.CourseController;
+import com.example.demo.course.CourseService;
+import com.example.demo.enrollment.EnrollmentController;
+import com.example.demo.enrollment.EnrollmentService;
+import com.example.demo.enrollment.EnrollmentStatsService;
+import com.example.demo.module.ModuleController;
+import com.example.demo.module.ModuleService;
+import com.example.demo.user.Role;
+import com.example.demo.user.User;
+import com.example.demo.user.UserController;
+import com.example.demo.user.UserImportService;
+import com.example.demo.user.UserRepository;
+import com.example.demo.user.UserService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atMostOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every endpoint that takes a {@link CurrentUser} must resolve the caller with at most one user
+ * lookup: none for tokens carrying the principal claims, one for older tokens that only carry the
+ * subject. Services are mocked, so only the security filter and the argument resolver can query.
+ */
+@WebMvcTest(controllers = { CourseController.class , ModuleController.class , EnrollmentController.class ,
+        UserController.class })
+@Import({ SecurityConfig.class , JwtService.class , CustomUserDetailsService.class ,
+        CurrentUserLookupTest.Metrics.class })
+
+class CurrentUserLookupTest {
+
+    private static final String ADMIN_EMAIL = "admin@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @MockitoBean
+    private TokenRevocationList tokenRevocationList;
+
+    @MockitoBean
+    private CourseService courseService;
+
+    @MockitoBean
+    private EnrollmentStatsService enrollmentStatsService;
+
+    @MockitoBean
+    private ModuleService moduleService;
+
+    @MockitoBean
+    private EnrollmentService enrollmentService;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private UserImportService userImportService;
+
+    private User admin;
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry ( );
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        admin = User.builder ( )
+                .id ( 1L )
+                .email ( ADMIN_EMAIL )
+                .password ( "hash" )
+                .userName ( "admin" )
+                .firstName ( "Ada" )
+                .lastName ( "Admin" )
+                .role ( Role.ADMIN )
+                .build ( );
+
+        when ( tokenVersionRegistry.isCurrent ( anyLong ( ) , anyInt ( ) ) ).thenReturn ( true );
+        when ( userRepository.findByEmail ( anyString ( ) ) ).thenReturn ( Optional.of ( admin ) );
+        when ( userRepository.findByEmailIgnoreCase ( anyString ( ) ) ).thenReturn ( Optional.of ( admin ) );
+        Mockito.clearInvocations ( userRepository );
+    }
+
+    static Stream<Arguments> endpoints() {
+        return Stream.of (
+                Arguments.of ( HttpMethod.PUT , "/api/courses/1" , "{}" ) ,
+                Arguments.of ( HttpMethod.DELETE , "/api/courses/1" , null ) ,
+                Arguments.of ( HttpMethod.PUT , "/api/modules/1" , "{}" ) ,
+                Arguments.of ( HttpMethod.DELETE , "/api/modules/1" , null ) ,
+                Arguments.of ( HttpMethod.GET , "/api/enrollments" , null ) ,
+                Arguments.of ( HttpMethod.GET , "/api/enrollments/1" , null ) ,
+                Arguments.of ( HttpMethod.PUT , "/api/enrollments/1" , "{}" ) ,
+                Arguments.of ( HttpMethod.DELETE , "/api/enrollments/1" , null ) ,
+                Arguments.of ( HttpMethod.GET , "/api/enrollments/student/1" , null ) ,
+                Arguments.of ( HttpMethod.GET , "/api/enrollments/instructor/1" , null ) ,
+                Arguments.of ( HttpMethod.GET , "/api/enrollments/course/1" , null ) ,
+                Arguments.of ( HttpMethod.GET , "/api/enrollments/course/1/grades" , null ) ,
+                Arguments.of ( HttpMethod.GET , "/api/enrollments/student/1/cursor" , null ) ,
+                Arguments.of ( HttpMethod.GET , "/api/enrollments/course/1/cursor" , null ) ,
+                Arguments.of ( HttpMethod.GET , "/api/users/1" , null ) ,
+                Arguments.of ( HttpMethod.GET , "/api/users/email/" + ADMIN_EMAIL , null ) ,
+                Arguments.of ( HttpMethod.PUT , "/api/users/1" , "{}" ) ,
+                Arguments.of ( HttpMethod.DELETE , "/api/users/1" , null )
+        );
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("endpoints")
+    void claimsTokenNeedsNoUserLookup(HttpMethod method , String path , String body) throws Exception {
+        perform ( method , path , body , jwtService.generateToken ( admin ) );
+
+        verify ( userRepository , never ( ) ).findByEmail ( anyString ( ) );
+        assertThat ( Mockito.mockingDetails ( userRepository ).getInvocations ( ) ).isEmpty ( );
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("endpoints")
+    void subjectOnlyTokenNeedsAtMostOneUserLookup(HttpMethod method , String path , String body) throws Exception {
+        perform ( method , path , body , subjectOnlyToken ( ) );
+
+        verify ( userRepository , atMostOnce ( ) ).findByEmail ( anyString ( ) );
+        assertThat ( Mockito.mockingDetails ( userRepository ).getInvocations ( ) ).hasSizeLessThanOrEqualTo ( 1 );
+    }
+
+    private void perform(HttpMethod method , String path , String body , String token) throws Exception {
+        var builder = request ( method , path ).header ( "Authorization" , "Bearer " + token );
+        if (body != null) {
+            builder.contentType ( MediaType.APPLICATION_JSON ).content ( body );
+        }
+        mockMvc.perform ( builder ).andExpect ( status ( ).is2xxSuccessful ( ) );
+    }
+
+    // Shaped like tokens issued before the principal claims existed.
+    private String subjectOnlyToken() {
+        return Jwts.builder ( )
+                .id ( UUID.randomUUID ( ).toString ( ) )
+                .subject ( ADMIN_EMAIL )
+                .claim ( JwtService.TOKEN_TYPE_CLAIM , JwtService.ACCESS_TOKEN_TYPE )
+                .issuedAt ( new Date ( ) )
+                .expiration ( new Date ( System.currentTimeMillis ( ) + 60_000 ) )
+                .signWith ( Keys.hmacShaKeyFor ( Decoders.BASE64.decode ( secret.trim ( ) ) ) )
+                .compact ( );
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.demo.security;
+
+import com.example.demo.user.Role;
+import com.example.demo.user.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Cost of resolving the claims of a bearer token already in JwtService's verified-claims cache,
+ * against a full parse and HMAC verification of the same token (what every request paid before).
+ * The filter pair runs the same comparison through JwtAuthenticationFilter as a whole, in stateless
+ * mode with the real revocation list and version registry, so the saving is seen per request.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.demo.security.JwtClaimsCacheBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+
+public class JwtClaimsCacheBenchmark {
+
+    private static final String SECRET =
+            "BpYTDEnrNvcmZsA6qW6nXE7jFhIDbY5p8prq/wqXkA7DJ0cAyq0jw5wIv5ulSU1cBaeEb64iINkEbcX4T/S+Wg==";
+
+    private JwtService jwtService;
+    private JwtParser parser;
+    private String token;
+
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req , res) -> { };
+
+    @Setup
+    public void setUp() {
+        jwtService = newJwtService ( );
+        parser = Jwts.parser ( ).verifyWith ( Keys.hmacShaKeyFor ( Decoders.BASE64.decode ( SECRET ) ) ).build ( );
+
+        User user = User.builder ( )
+                .id ( 42L )
+                .email ( "bench@example.com" )
+                .password ( "unused" )
+                .userName ( "bench" )
+                .firstName ( "Bench" )
+                .lastName ( "Mark" )
+                .role ( Role.STUDENT )
+                .build ( );
+
+        token = jwtService.generateToken ( user );
+        jwtService.extractVerifiedClaims ( token );
+
+        // Same service, but every request parses and verifies the token as it did before the cache.
+        JwtService uncached = new JwtService ( ) {
+            @Override
+            public Claims extractVerifiedClaims(String token) {
+                return parser.parseSignedClaims ( token ).getPayload ( );
+            }
+        };
+        cachedFilter = newFilter ( jwtService );
+        uncachedFilter = newFilter ( uncached );
+
+        request = new MockHttpServletRequest ( "GET" , "/api/courses" );
+        request.addHeader ( "Authorization" , "Bearer " + token );
+        response = new MockHttpServletResponse ( );
+    }
+
+    @Benchmark
+    public Claims cachedClaims() {
+        return jwtService.extractVerifiedClaims ( token );
+    }
+
+    @Benchmark
+    public Claims fullVerification() {
+        return parser.parseSignedClaims ( token ).getPayload ( );
+    }
+
+    @Benchmark
+    public Authentication filterWithCache() throws ServletException, IOException {
+        return authenticate ( cachedFilter );
+    }
+
+    @Benchmark
+    public Authentication filterWithoutCache() throws ServletException, IOException {
+        return authenticate ( uncachedFilter );
+    }
+
+    private Authentication authenticate(JwtAuthenticationFilter filter) throws ServletException, IOException {
+        filter.doFilter ( request , response , chain );
+        Authentication authentication = SecurityContextHolder.getContext ( ).getAuthentication ( );
+        if (authentication == null) {
+            throw new IllegalStateException ( "Token was not accepted" );
+        }
+        SecurityContextHolder.clearContext ( );
+        return authentication;
+    }
+
+    // Nothing is revoked and no version has been bumped, so neither touches its repository.
+    private static JwtAuthenticationFilter newFilter(JwtService service) {
+        TokenRevocationList revocations = new TokenRevocationList ( mock ( RevokedTokenRepository.class ) ,
+                new SimpleMeterRegistry ( ) , 86_400_000L , 3_600_000L , 65_536 , 4 );
+        TokenVersionRegistry versions = new TokenVersionRegistry ( null , null , null );
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter ( service , username -> {
+            throw new UsernameNotFoundException ( username );
+        } , versions , revocations );
+        ReflectionTestUtils.setField ( filter , "stateless" , true );
+        return filter;
+    }
+
+    static JwtService newJwtService() {
+        JwtService service = new JwtService ( );
+        ReflectionTestUtils.setField ( service , "secretKey" , SECRET );
+        ReflectionTestUtils.setField ( service , "jwtExpiration" , 3_600_000L );
+        ReflectionTestUtils.setField ( service , "refreshExpiration" , 86_400_000L );
+        ReflectionTestUtils.setField ( service , "claimsCacheMaximumSize" , 1_000L );
+        ReflectionTestUtils.setField ( service , "claimsCacheTtl" , 300_000L );
+        service.init ( );
+        return service;
+    }
+
+    // JMH command-line options (e.g. -f 0 -i 2) override the annotations.
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner ( new OptionsBuilder ( )
+                .parent ( new CommandLineOptions ( args ) )
+                .include ( JwtClaimsCacheBenchmark.class.getSimpleName ( ) )
+                .build ( ) ).run ( );
+    }
+}
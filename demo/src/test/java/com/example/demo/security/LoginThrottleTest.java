@@ -0,0 +1,157 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.types.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTest {
+
+    // Ahead of the clock the throttle measures from, which starts when its class loads.
+    private final long now = System.currentTimeMillis ( ) + 60_000;
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        // Two attempts, then one more per second.
+        LoginThrottle throttle = throttle ( 1024 , 2 , 60 , 100 , 100 );
+
+        throttle.acquire ( "a@example.com" , null , now );
+        throttle.acquire ( "a@example.com" , null , now );
+
+        assertThatThrownBy ( ( ) -> throttle.acquire ( "a@example.com" , null , now + 100 ) )
+                .isInstanceOfSatisfying ( TooManyRequestsException.class ,
+                        e -> assertThat ( e.getRetryAfterSeconds ( ) ).isEqualTo ( 1 ) );
+
+        assertThatCode ( ( ) -> throttle.acquire ( "a@example.com" , null , now + 1000 ) ).doesNotThrowAnyException ( );
+        assertThatThrownBy ( ( ) -> throttle.acquire ( "a@example.com" , null , now + 1000 ) )
+                .isInstanceOf ( TooManyRequestsException.class );
+    }
+
+    @Test
+    void emailIsNormalized() {
+        LoginThrottle throttle = throttle ( 1024 , 1 , 1 , 100 , 100 );
+
+        throttle.acquire ( "a@example.com" , null , now );
+
+        assertThatThrownBy ( ( ) -> throttle.acquire ( "  A@Example.COM " , null , now ) )
+                .isInstanceOf ( TooManyRequestsException.class );
+    }
+
+    @Test
+    void refusedEmailDoesNotChargeTheIp() {
+        LoginThrottle throttle = throttle ( 1024 , 1 , 1 , 3 , 1 );
+
+        throttle.acquire ( "a@example.com" , "10.0.0.1" , now );
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy ( ( ) -> throttle.acquire ( "a@example.com" , "10.0.0.1" , now ) )
+                    .isInstanceOf ( TooManyRequestsException.class );
+        }
+
+        assertThatCode ( ( ) -> {
+            throttle.acquire ( "b@example.com" , "10.0.0.1" , now );
+            throttle.acquire ( "c@example.com" , "10.0.0.1" , now );
+        } ).doesNotThrowAnyException ( );
+    }
+
+    @Test
+    void refusedIpDoesNotChargeTheEmail() {
+        LoginThrottle throttle = throttle ( 1024 , 2 , 1 , 1 , 1 );
+
+        throttle.acquire ( "a@example.com" , "10.0.0.1" , now );
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy ( ( ) -> throttle.acquire ( "a@example.com" , "10.0.0.1" , now ) )
+                    .isInstanceOf ( TooManyRequestsException.class );
+        }
+
+        assertThatCode ( ( ) -> throttle.acquire ( "a@example.com" , "10.0.0.2" , now ) ).doesNotThrowAnyException ( );
+        assertThatThrownBy ( ( ) -> throttle.acquire ( "a@example.com" , "10.0.0.3" , now ) )
+                .isInstanceOf ( TooManyRequestsException.class );
+    }
+
+    @Test
+    void exhaustedKeysDoNotLockOutOthersSharingASlot() {
+        // A small table, so the exhausted keys cover a good share of the slots. Two attempts each,
+        // so checking a user leaves its own slots non-empty for the users after it.
+        LoginThrottle throttle = throttle ( 128 , 2 , 1 , 1000 , 1000 );
+
+        for (int i = 0; i < 16; i++) {
+            exhaust ( throttle , "attacker" + i + "@example.com" );
+        }
+
+        int lockedOut = 0;
+        for (int i = 0; i < 64; i++) {
+            try {
+                throttle.acquire ( "user" + i + "@example.com" , null , now );
+            } catch (TooManyRequestsException e) {
+                lockedOut++;
+            }
+        }
+
+        // Sixteen keys touch at most 32 of 128 slots: most users share one, only the rare one shares both.
+        assertThat ( lockedOut ).isLessThanOrEqualTo ( 8 );
+    }
+
+    @Test
+    void concurrentAttemptsNeverExceedCapacity() throws Exception {
+        LoginThrottle throttle = throttle ( 1024 , 100 , 1 , 1000 , 1000 );
+        int threads = 8;
+        int attemptsPerThread = 50;
+
+        ExecutorService executor = Executors.newFixedThreadPool ( threads );
+        CountDownLatch start = new CountDownLatch ( 1 );
+        List<Future<Integer>> results = new ArrayList<> ( );
+
+        for (int t = 0; t < threads; t++) {
+            results.add ( executor.submit ( ( ) -> {
+                start.await ( );
+                int granted = 0;
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    try {
+                        throttle.acquire ( "a@example.com" , null , now );
+                        granted++;
+                    } catch (TooManyRequestsException ignored) {
+                    }
+                }
+                return granted;
+            } ) );
+        }
+
+        start.countDown ( );
+        int granted = 0;
+        for (Future<Integer> result : results) {
+            granted += result.get ( 10 , TimeUnit.SECONDS );
+        }
+        executor.shutdown ( );
+
+        assertThat ( granted ).isEqualTo ( 100 );
+    }
+
+    private void exhaust(LoginThrottle throttle , String email) {
+        for (int i = 0; i < 2; i++) {
+            try {
+                throttle.acquire ( email , null , now );
+            } catch (TooManyRequestsException ignored) {
+                // Already emptied by earlier keys that share both of its slots.
+            }
+        }
+        assertThatThrownBy ( ( ) -> throttle.acquire ( email , null , now ) )
+                .isInstanceOf ( TooManyRequestsException.class );
+    }
+
+    private static LoginThrottle throttle(int slots , int emailCapacity , int emailRefillPerMinute ,
+                                          int ipCapacity , int ipRefillPerMinute) {
+        return new LoginThrottle ( new SimpleMeterRegistry ( ) , slots , emailCapacity , emailRefillPerMinute ,
+                ipCapacity , ipRefillPerMinute );
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.types.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OffloadedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry ( );
+    private final ExecutorService callers = Executors.newCachedThreadPool ( );
+    private final List<OffloadedPasswordEncoder> encoders = new ArrayList<> ( );
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow ( );
+        encoders.forEach ( OffloadedPasswordEncoder::destroy );
+    }
+
+    @Test
+    void hashesOnThePool() {
+        AtomicReference<String> thread = new AtomicReference<> ( );
+        OffloadedPasswordEncoder encoder = encoder ( new PlainEncoder ( ) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                thread.set ( Thread.currentThread ( ).getName ( ) );
+                return super.encode ( rawPassword );
+            }
+        } , 1 , 1 , 1000 );
+
+        assertThat ( encoder.encode ( "secret" ) ).isEqualTo ( "{plain}secret" );
+        assertThat ( encoder.matches ( "secret" , "{plain}secret" ) ).isTrue ( );
+        assertThat ( thread.get ( ) ).startsWith ( "password-hash-" );
+        assertThat ( meterRegistry.timer ( "password.hash.latency" , "operation" , "encode" ).count ( ) ).isEqualTo ( 1 );
+        assertThat ( meterRegistry.timer ( "password.hash.latency" , "operation" , "matches" ).count ( ) ).isEqualTo ( 1 );
+    }
+
+    @Test
+    void saturatedPoolRejectsWithRetryAfter() throws Exception {
+        BlockingEncoder blocking = new BlockingEncoder ( );
+        OffloadedPasswordEncoder encoder = encoder ( blocking , 1 , 1 , 10_000 );
+
+        // One hash running, one queued: the pool and its queue are full.
+        callers.submit ( ( ) -> encoder.encode ( "running" ) );
+        assertThat ( blocking.started.await ( 5 , TimeUnit.SECONDS ) ).isTrue ( );
+        callers.submit ( ( ) -> encoder.encode ( "queued" ) );
+        awaitQueueDepth ( 1 );
+
+        assertThat ( meterRegistry.get ( "password.hash.active" ).gauge ( ).value ( ) ).isEqualTo ( 1 );
+
+        long start = System.nanoTime ( );
+        assertThatThrownBy ( ( ) -> encoder.matches ( "x" , "{plain}x" ) )
+                .isInstanceOfSatisfying ( ServiceUnavailableException.class ,
+                        e -> assertThat ( e.getRetryAfterSeconds ( ) ).isEqualTo ( 3 ) );
+        assertThat ( TimeUnit.NANOSECONDS.toMillis ( System.nanoTime ( ) - start ) ).isLessThan ( 1000 );
+        assertThat ( meterRegistry.counter ( "password.hash.rejections" ).count ( ) ).isEqualTo ( 1 );
+
+        blocking.release.countDown ( );
+        awaitQueueDepth ( 0 );
+        assertThat ( encoder.encode ( "after" ) ).isEqualTo ( "{plain}after" );
+    }
+
+    @Test
+    void slowHashTimesOutAsBusy() throws Exception {
+        BlockingEncoder blocking = new BlockingEncoder ( );
+        OffloadedPasswordEncoder encoder = encoder ( blocking , 1 , 1 , 100 );
+
+        assertThatThrownBy ( ( ) -> encoder.encode ( "slow" ) )
+                .isInstanceOf ( ServiceUnavailableException.class );
+        assertThat ( meterRegistry.counter ( "password.hash.rejections" ).count ( ) ).isEqualTo ( 1 );
+
+        // The abandoned hash is cancelled, which interrupts the worker and frees it.
+        assertThat ( blocking.interrupted.await ( 5 , TimeUnit.SECONDS ) ).isTrue ( );
+    }
+
+    @Test
+    void delegateFailuresPropagate() {
+        OffloadedPasswordEncoder encoder = encoder ( new PlainEncoder ( ) {
+            @Override
+            public boolean matches(CharSequence rawPassword , String encodedPassword) {
+                throw new IllegalArgumentException ( "Encoded password does not look like BCrypt" );
+            }
+        } , 1 , 1 , 1000 );
+
+        assertThatThrownBy ( ( ) -> encoder.matches ( "x" , "not-bcrypt" ) )
+                .isInstanceOf ( IllegalArgumentException.class );
+        assertThat ( meterRegistry.counter ( "password.hash.rejections" ).count ( ) ).isZero ( );
+    }
+
+    @Test
+    void upgradeEncodingFollowsTheConfiguredStrength() {
+        String weak = new BCryptPasswordEncoder ( 4 ).encode ( "secret" );
+        OffloadedPasswordEncoder encoder = encoder ( new BCryptPasswordEncoder ( 5 ) , 1 , 1 , 5000 );
+
+        assertThat ( encoder.upgradeEncoding ( weak ) ).isTrue ( );
+        assertThat ( encoder.matches ( "secret" , weak ) ).isTrue ( );
+        assertThat ( encoder.upgradeEncoding ( encoder.encode ( "secret" ) ) ).isFalse ( );
+    }
+
+    @Test
+    void loginRehashesAfterACostIncrease() {
+        String weak = new BCryptPasswordEncoder ( 4 ).encode ( "secret" );
+        UserDetails stored = User.withUsername ( "a@example.com" ).password ( weak ).roles ( "STUDENT" ).build ( );
+        AtomicReference<String> rehashed = new AtomicReference<> ( );
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider ( );
+        provider.setUserDetailsService ( username -> stored );
+        provider.setPasswordEncoder ( encoder ( new BCryptPasswordEncoder ( 5 ) , 1 , 1 , 5000 ) );
+        provider.setUserDetailsPasswordService ( (user , newPassword) -> {
+            rehashed.set ( newPassword );
+            return User.withUserDetails ( user ).password ( newPassword ).build ( );
+        } );
+
+        provider.authenticate ( new UsernamePasswordAuthenticationToken ( "a@example.com" , "secret" ) );
+
+        assertThat ( rehashed.get ( ) ).startsWith ( "$2a$05$" );
+        assertThat ( new BCryptPasswordEncoder ( 5 ).matches ( "secret" , rehashed.get ( ) ) ).isTrue ( );
+    }
+
+    private OffloadedPasswordEncoder encoder(PasswordEncoder delegate , int threads , int queueCapacity , long timeoutMillis) {
+        OffloadedPasswordEncoder encoder = new OffloadedPasswordEncoder (
+                delegate , threads , queueCapacity , timeoutMillis , 3 , meterRegistry );
+        encoders.add ( encoder );
+        return encoder;
+    }
+
+    private void awaitQueueDepth(double depth) throws InterruptedException {
+        long deadline = System.nanoTime ( ) + TimeUnit.SECONDS.toNanos ( 5 );
+        while (meterRegistry.get ( "password.hash.queue.depth" ).gauge ( ).value ( ) != depth) {
+            assertThat ( System.nanoTime ( ) ).as ( "queue depth %s" , depth ).isLessThan ( deadline );
+            Thread.sleep ( 5 );
+        }
+    }
+
+    private static class PlainEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "{plain}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword , String encodedPassword) {
+            return encode ( rawPassword ).equals ( encodedPassword );
+        }
+    }
+
+    // Holds every hash until released, like a BCrypt pool that has fallen behind.
+    private static class BlockingEncoder extends PlainEncoder {
+
+        final CountDownLatch started = new CountDownLatch ( 1 );
+        final CountDownLatch release = new CountDownLatch ( 1 );
+        final CountDownLatch interrupted = new CountDownLatch ( 1 );
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown ( );
+            try {
+                release.await ( );
+            } catch (InterruptedException e) {
+                interrupted.countDown ( );
+                Thread.currentThread ( ).interrupt ( );
+            }
+            return super.encode ( rawPassword );
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.demo.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationListTest {
+
+    // Two-second refresh tokens in one-second buckets: a wheel of four.
+    private static final long SPAN = 1000L;
+    private static final int WHEEL = 4;
+    private static final long EPOCH = 1_000_000L;
+
+    private RevokedTokenRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock ( RevokedTokenRepository.class );
+        meterRegistry = new SimpleMeterRegistry ( );
+        when ( repository.insertIfAbsent ( anyString ( ) , any ( ) , any ( ) ) ).thenReturn ( 1 );
+    }
+
+    @Test
+    void revokedTokenIsConfirmedAgainstTheDatabase() {
+        TokenRevocationList list = newList ( 65536 , 4 );
+        list.markUsed ( "a" , 1L , expiresIn ( EPOCH ) );
+        when ( repository.existsById ( "a" ) ).thenReturn ( true );
+
+        assertThat ( list.isRevoked ( claims ( "a" , EPOCH ) ) ).isTrue ( );
+        assertThat ( meterRegistry.counter ( "jwt.revocation.confirmed" ).count ( ) ).isEqualTo ( 1.0 );
+    }
+
+    @Test
+    void unknownTokenNeverReachesTheDatabase() {
+        TokenRevocationList list = newList ( 65536 , 4 );
+        list.markUsed ( "a" , 1L , expiresIn ( EPOCH ) );
+
+        assertThat ( list.isRevoked ( claims ( "b" , EPOCH ) ) ).isFalse ( );
+        assertThat ( list.isRevoked ( claims ( "a" , EPOCH + 1 ) ) ).isFalse ( );
+        verify ( repository , never ( ) ).existsById ( anyString ( ) );
+    }
+
+    @Test
+    void filterFalsePositiveIsNotReportedAsRevoked() {
+        // A single bit per bucket: once anything is revoked, every id in that window is a positive.
+        TokenRevocationList list = newList ( 1 , 1 );
+        list.markUsed ( "a" , 1L , expiresIn ( EPOCH ) );
+        when ( repository.existsById ( "b" ) ).thenReturn ( false );
+
+        assertThat ( list.isRevoked ( claims ( "b" , EPOCH ) ) ).isFalse ( );
+        assertThat ( meterRegistry.counter ( "jwt.revocation.filter.positives" ).count ( ) ).isEqualTo ( 1.0 );
+        assertThat ( meterRegistry.counter ( "jwt.revocation.confirmed" ).count ( ) ).isZero ( );
+    }
+
+    @Test
+    void bucketIsRecycledWhenTheWheelComesRound() {
+        TokenRevocationList list = newList ( 65536 , 4 );
+        when ( repository.existsById ( anyString ( ) ) ).thenReturn ( true );
+
+        list.markUsed ( "old" , 1L , expiresIn ( EPOCH ) );
+        list.markUsed ( "new" , 1L , expiresIn ( EPOCH + WHEEL ) );
+
+        assertThat ( list.isRevoked ( claims ( "new" , EPOCH + WHEEL ) ) ).isTrue ( );
+        assertThat ( list.isRevoked ( claims ( "old" , EPOCH ) ) ).isFalse ( );
+        verify ( repository , never ( ) ).existsById ( "old" );
+    }
+
+    @Test
+    void expiredEpochDoesNotClearALaterOne() {
+        TokenRevocationList list = newList ( 65536 , 4 );
+        when ( repository.existsById ( anyString ( ) ) ).thenReturn ( true );
+
+        list.markUsed ( "new" , 1L , expiresIn ( EPOCH + WHEEL ) );
+        list.markUsed ( "stale" , 1L , expiresIn ( EPOCH ) );
+
+        assertThat ( list.isRevoked ( claims ( "new" , EPOCH + WHEEL ) ) ).isTrue ( );
+        assertThat ( list.isRevoked ( claims ( "stale" , EPOCH ) ) ).isFalse ( );
+    }
+
+    @Test
+    void syncPicksUpRevocationsFromOtherInstances() {
+        TokenRevocationList list = newList ( 65536 , 4 );
+        RevokedToken remote = new RevokedToken ( "remote" , 2L , expiresIn ( EPOCH ).toInstant ( ) , Instant.now ( ) );
+        when ( repository.findByRevokedAtAfterAndExpiresAtAfter ( any ( ) , any ( ) ) ).thenReturn ( List.of ( remote ) );
+        when ( repository.existsById ( "remote" ) ).thenReturn ( true );
+
+        assertThat ( list.isRevoked ( claims ( "remote" , EPOCH ) ) ).isFalse ( );
+        list.syncRecent ( );
+        assertThat ( list.isRevoked ( claims ( "remote" , EPOCH ) ) ).isTrue ( );
+    }
+
+    private TokenRevocationList newList(int bitsPerBucket , int hashFunctions) {
+        return new TokenRevocationList ( repository , meterRegistry , 2 * SPAN , SPAN , bitsPerBucket , hashFunctions );
+    }
+
+    private static Date expiresIn(long epoch) {
+        return new Date ( epoch * SPAN + SPAN / 2 );
+    }
+
+    private static Claims claims(String jti , long epoch) {
+        return Jwts.claims ( ).id ( jti ).expiration ( expiresIn ( epoch ) ).build ( );
+    }
+}
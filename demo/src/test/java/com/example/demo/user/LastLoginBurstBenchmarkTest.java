@@ -0,0 +1,138 @@
+package com.example.demo.user;
+
+import com.example.demo.PostgresContainerTest;
+import com.example.demo.QueryTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A login burst, 5,000 logins over 100 users, recorded the old way and through LastLoginRecorder.
+ * The old way is a transaction per login that updates the user row, written here as a single
+ * JDBC UPDATE, which is cheaper than the entity save it replaced. The recorder's logins only touch
+ * memory; its one flush is timed and counted separately. Rows written are the drivers' update counts.
+ * <p>
+ * {@code mvn test -Dtest=LastLoginBurstBenchmarkTest -Dbenchmarks=true}
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+
+class LastLoginBurstBenchmarkTest extends PostgresContainerTest {
+
+    private static final int USERS = 100;
+    private static final int LOGINS = 5_000;
+    private static final int WARM_UP = 200;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute ( "INSERT INTO users (id, user_name, email, password, first_name, last_name, role) " +
+                "SELECT g, 'user' || g, 'user' || g || '@example.com', 'x', 'First', 'Last', 'STUDENT' " +
+                "FROM generate_series(1, " + USERS + ") g" );
+    }
+
+    @Test
+    void recorderTakesTheWriteOffTheLoginPath() {
+        CountingJdbcTemplate counting = new CountingJdbcTemplate ( dataSource );
+        TransactionTemplate transaction = new TransactionTemplate ( transactionManager );
+        AtomicInteger login = new AtomicInteger ( );
+
+        QueryTimer.Timings perLoginUpdate = QueryTimer.measure ( WARM_UP , LOGINS , ( ) -> transaction.execute ( status ->
+                counting.update ( "UPDATE users SET last_login = ? WHERE id = ?" ,
+                        LocalDateTime.now ( ) , 1 + login.getAndIncrement ( ) % USERS ) ) );
+        long perLoginRows = counting.rows.getAndSet ( 0 );
+        long perLoginStatements = counting.statements.getAndSet ( 0 );
+
+        LastLoginRecorder recorder = new LastLoginRecorder ( counting , entityManagerFactory , new SimpleMeterRegistry ( ) );
+        // Each run is a fresh burst: the warm-up is flushed away before the measured logins.
+        for (int i = 0; i < WARM_UP; i++) {
+            record ( recorder , login );
+        }
+        recorder.flush ( );
+        counting.rows.set ( 0 );
+        counting.statements.set ( 0 );
+
+        QueryTimer.Timings buffered = QueryTimer.measure ( 0 , LOGINS , ( ) -> record ( recorder , login ) );
+        long flushStart = System.nanoTime ( );
+        recorder.flush ( );
+        double flushMillis = (System.nanoTime ( ) - flushStart) / 1_000_000d;
+
+        System.out.printf ( "UPDATE per login: %s, %d statements, %d rows | recorder: %s per login, " +
+                        "one flush of %.3f ms, %d statements, %d rows%n" ,
+                perLoginUpdate , perLoginStatements , perLoginRows ,
+                buffered , flushMillis , counting.statements.get ( ) , counting.rows.get ( ) );
+
+        assertThat ( perLoginRows ).isEqualTo ( LOGINS );
+        assertThat ( counting.statements.get ( ) ).isEqualTo ( 1 );
+        assertThat ( counting.rows.get ( ) ).isEqualTo ( USERS );
+        assertThat ( buffered.medianNanos ( ) ).isLessThan ( perLoginUpdate.medianNanos ( ) );
+        assertThat ( jdbcTemplate.queryForObject ( "SELECT count(*) FROM users WHERE last_login IS NULL" , Long.class ) ).isZero ( );
+    }
+
+    private static Object record(LastLoginRecorder recorder , AtomicInteger login) {
+        recorder.record ( (long) (1 + login.getAndIncrement ( ) % USERS ) , LocalDateTime.now ( ) );
+        return null;
+    }
+
+    // Counts statements sent and the rows they changed; a JDBC batch is one statement.
+    private static final class CountingJdbcTemplate extends JdbcTemplate {
+
+        private final AtomicLong statements = new AtomicLong ( );
+        private final AtomicLong rows = new AtomicLong ( );
+
+        private CountingJdbcTemplate(DataSource dataSource) {
+            super ( dataSource );
+        }
+
+        @Override
+        public int update(String sql , Object... args) {
+            int updated = super.update ( sql , args );
+            statements.incrementAndGet ( );
+            rows.addAndGet ( updated );
+            return updated;
+        }
+
+        @Override
+        public int[] batchUpdate(String sql , List<Object[]> batchArgs) {
+            int[] updated = super.batchUpdate ( sql , batchArgs );
+            statements.incrementAndGet ( );
+            for (int count : updated) {
+                rows.addAndGet ( count );
+            }
+            return updated;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class LastLoginRecorderTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of ( 2024 , 1 , 1 , 9 , 0 );
+
+    private final JdbcTemplate jdbcTemplate = mock ( JdbcTemplate.class );
+    private final Cache cache = mock ( Cache.class );
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry ( );
+
+    private LastLoginRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        EntityManagerFactory entityManagerFactory = mock ( EntityManagerFactory.class );
+        when ( entityManagerFactory.getCache ( ) ).thenReturn ( cache );
+        recorder = new LastLoginRecorder ( jdbcTemplate , entityManagerFactory , meterRegistry );
+    }
+
+    @Test
+    void loginsBetweenFlushesCollapseToTheLatestPerUser() {
+        recorder.record ( 1L , T0 );
+        recorder.record ( 1L , T0.plusMinutes ( 3 ) );
+        // Out of order: an older timestamp never replaces a newer one.
+        recorder.record ( 1L , T0.plusMinutes ( 2 ) );
+        recorder.record ( 2L , T0.plusMinutes ( 1 ) );
+        assertThat ( pending ( ) ).isEqualTo ( 2 );
+
+        recorder.flush ( );
+
+        assertThat ( flushedBatch ( 1 ).get ( 0 ) ).containsExactlyInAnyOrderEntriesOf ( Map.of (
+                1L , T0.plusMinutes ( 3 ) ,
+                2L , T0.plusMinutes ( 1 ) ) );
+        assertThat ( pending ( ) ).isZero ( );
+        assertThat ( meterRegistry.counter ( "user.last-login.flushed" ).count ( ) ).isEqualTo ( 2 );
+        verify ( cache ).evict ( User.class , 1L );
+        verify ( cache ).evict ( User.class , 2L );
+    }
+
+    @Test
+    void failedFlushRequeuesWithoutOverwritingNewerLogins() {
+        recorder.record ( 1L , T0 );
+        recorder.record ( 2L , T0 );
+
+        // User 1 logs in again while the failing batch is in flight.
+        doAnswer ( invocation -> {
+            recorder.record ( 1L , T0.plusMinutes ( 5 ) );
+            throw new DataAccessResourceFailureException ( "connection refused" );
+        } ).doReturn ( new int[] { 1 , 1 } ).when ( jdbcTemplate ).batchUpdate ( anyString ( ) , anyList ( ) );
+
+        recorder.flush ( );
+
+        assertThat ( pending ( ) ).isEqualTo ( 2 );
+        assertThat ( meterRegistry.counter ( "user.last-login.flushed" ).count ( ) ).isZero ( );
+        verify ( cache , never ( ) ).evict ( User.class , 1L );
+
+        recorder.flush ( );
+
+        List<Map<Long, LocalDateTime>> batches = flushedBatch ( 2 );
+        assertThat ( batches.get ( 1 ) ).containsExactlyInAnyOrderEntriesOf ( Map.of (
+                1L , T0.plusMinutes ( 5 ) ,
+                2L , T0 ) );
+        assertThat ( pending ( ) ).isZero ( );
+    }
+
+    @Test
+    void shutdownFlushesWhatIsPending() {
+        recorder.record ( 7L , T0 );
+
+        recorder.flushOnShutdown ( );
+
+        assertThat ( flushedBatch ( 1 ).get ( 0 ) ).containsExactlyEntriesOf ( Map.of ( 7L , T0 ) );
+    }
+
+    @Test
+    void nothingPendingWritesNothing() {
+        recorder.flush ( );
+        recorder.flushOnShutdown ( );
+
+        verifyNoInteractions ( jdbcTemplate , cache );
+    }
+
+    private double pending() {
+        return meterRegistry.get ( "user.last-login.pending" ).gauge ( ).value ( );
+    }
+
+    // Each batch as user id to the timestamp written, checking the guard parameter matches the new value.
+    @SuppressWarnings("unchecked")
+    private List<Map<Long, LocalDateTime>> flushedBatch(int calls) {
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass ( List.class );
+        verify ( jdbcTemplate , times ( calls ) ).batchUpdate ( anyString ( ) , batches.capture ( ) );
+        return batches.getAllValues ( ).stream ( )
+                .map ( rows -> rows.stream ( )
+                        .peek ( row -> assertThat ( row[2] ).isEqualTo ( row[0] ) )
+                        .collect ( Collectors.toMap ( row -> (Long) row[1] , row -> ((Timestamp) row[0]).toLocalDateTime ( ) ) ) )
+                .toList ( );
+    }
+}
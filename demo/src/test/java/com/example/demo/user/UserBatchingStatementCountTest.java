@@ -0,0 +1,85 @@
+package com.example.demo.user;
+
+import com.example.demo.PostgresContainerTest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * With pooled sequences and hibernate.jdbc.batch_size=50, writing 500 users costs a handful of
+ * statements rather than one (or two, with identity columns) per row: ten batches and ten
+ * sequence calls for an insert, ten batches for an update. Counted with Hibernate statistics,
+ * where a batch is prepared once however many rows it carries.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+
+class UserBatchingStatementCountTest extends PostgresContainerTest {
+
+    private static final int ROWS = 500;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap ( SessionFactory.class ).getStatistics ( );
+        statistics.clear ( );
+    }
+
+    @Test
+    void fiveHundredInsertsAreBatched() {
+        userRepository.saveAll ( newUsers ( ) );
+        entityManager.flush ( );
+
+        assertThat ( statistics.getEntityInsertCount ( ) ).isEqualTo ( ROWS );
+        // 10 insert batches plus 10 (or 11, for the first block) sequence calls.
+        assertThat ( statistics.getPrepareStatementCount ( ) ).isLessThanOrEqualTo ( 21 );
+    }
+
+    @Test
+    void fiveHundredUpdatesAreBatched() {
+        List<User> users = userRepository.saveAll ( newUsers ( ) );
+        entityManager.flush ( );
+        statistics.clear ( );
+
+        users.forEach ( user -> user.setFirstName ( "Renamed" ) );
+        entityManager.flush ( );
+
+        assertThat ( statistics.getEntityUpdateCount ( ) ).isEqualTo ( ROWS );
+        assertThat ( statistics.getPrepareStatementCount ( ) ).isLessThanOrEqualTo ( ROWS / 50 );
+    }
+
+    private static List<User> newUsers() {
+        return IntStream.range ( 0 , ROWS )
+                .mapToObj ( i -> User.builder ( )
+                        .userName ( "batch" + i )
+                        .email ( "batch" + i + "@example.com" )
+                        .password ( "x" )
+                        .firstName ( "First" )
+                        .lastName ( "Last" )
+                        .role ( Role.STUDENT )
+                        .isActive ( true )
+                        .build ( ) )
+                .toList ( );
+    }
+}
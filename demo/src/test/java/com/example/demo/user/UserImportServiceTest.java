@@ -0,0 +1,161 @@
+package com.example.demo.user;
+
+import com.example.demo.exception.model.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceTest {
+
+    private static final String HEADER = "username,email,password,firstname,lastname,role";
+    private static final String PASSWORD = "Secret@1234";
+
+    private final UserRepository userRepository = mock ( UserRepository.class );
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder ( 4 );
+    // Every saveAll call, as the emails it carried; each one is a transaction.
+    private final List<List<String>> inserts = new ArrayList<> ( );
+    private final List<User> saved = new ArrayList<> ( );
+    private final Set<String> createdDuringImport = new HashSet<> ( );
+
+    private UserImportService service;
+
+    @BeforeEach
+    void setUp() {
+        when ( userRepository.findExistingEmails ( anyCollection ( ) ) ).thenReturn ( Set.of ( ) );
+        when ( userRepository.findExistingUserNames ( anyCollection ( ) ) ).thenReturn ( Set.of ( ) );
+        when ( userRepository.saveAll ( any ( ) ) ).thenAnswer ( invocation -> {
+            List<User> users = invocation.getArgument ( 0 );
+            List<String> emails = users.stream ( ).map ( User::getEmail ).toList ( );
+            inserts.add ( emails );
+            if (emails.stream ( ).anyMatch ( createdDuringImport::contains )) {
+                throw new DataIntegrityViolationException ( "duplicate key value violates unique constraint" );
+            }
+            saved.addAll ( users );
+            return users;
+        } );
+
+        service = new UserImportService ( userRepository , new UserMapper ( ) , passwordEncoder ,
+                Validation.buildDefaultValidatorFactory ( ).getValidator ( ) , new ObjectMapper ( ) ,
+                mock ( PlatformTransactionManager.class ) , 2 , 1 , 30 );
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy ( );
+    }
+
+    @Test
+    void csvColumnsAreFoundByHeaderAndQuotedFieldsKeepCommasAndQuotes() {
+        UserImportResultDto result = importCsv (
+                "Role,LastName,Email,FirstName,Password,UserName" ,
+                "instructor,\"Smith, Jr.\",ann@example.com,\"Ann \"\"A\"\"\"," + PASSWORD + ",ann" );
+
+        assertThat ( result.imported ( ) ).isEqualTo ( 1 );
+        User ann = saved.get ( 0 );
+        assertThat ( ann.getUserName ( ) ).isEqualTo ( "ann" );
+        assertThat ( ann.getEmail ( ) ).isEqualTo ( "ann@example.com" );
+        assertThat ( ann.getFirstName ( ) ).isEqualTo ( "Ann \"A\"" );
+        assertThat ( ann.getLastName ( ) ).isEqualTo ( "Smith, Jr." );
+        assertThat ( ann.getRole ( ) ).isEqualTo ( Role.INSTRUCTOR );
+        assertThat ( passwordEncoder.matches ( PASSWORD , ann.getPassword ( ) ) ).isTrue ( );
+    }
+
+    @Test
+    void unknownRoleFailsOnlyItsLine() {
+        UserImportResultDto result = importCsv ( HEADER ,
+                line ( "ann" , "ann@example.com" , "STUDENT" ) ,
+                line ( "bob" , "bob@example.com" , "WIZARD" ) ,
+                line ( "cat" , "cat@example.com" , "" ) );
+
+        assertThat ( result.imported ( ) ).isEqualTo ( 1 );
+        assertThat ( result.failures ( ) )
+                .extracting ( UserImportResultDto.Failure::line , UserImportResultDto.Failure::reason )
+                .containsExactly (
+                        tuple ( 3L , "Unknown role 'WIZARD'" ) ,
+                        tuple ( 4L , "role: Role cannot be blank" ) );
+    }
+
+    @Test
+    void headerWithoutARequiredColumnIsRefused() {
+        assertThatThrownBy ( ( ) -> importCsv ( "username,email,password,firstname,lastname" ,
+                "ann,ann@example.com," + PASSWORD + ",Ann,Smith" ) )
+                .isInstanceOf ( IllegalArgumentException.class )
+                .hasMessageContaining ( "role" );
+    }
+
+    @Test
+    void duplicatesInTheFileAndInTheDatabaseAreReported() {
+        when ( userRepository.findExistingEmails ( anyCollection ( ) ) ).thenReturn ( Set.of ( "taken@example.com" ) );
+        when ( userRepository.findExistingUserNames ( anyCollection ( ) ) ).thenReturn ( Set.of ( "existing" ) );
+
+        UserImportResultDto result = importCsv ( HEADER ,
+                line ( "ann" , "ann@example.com" , "STUDENT" ) ,
+                line ( "ann2" , "ANN@example.com" , "STUDENT" ) ,
+                line ( "ANN" , "other@example.com" , "STUDENT" ) ,
+                line ( "bob" , "taken@example.com" , "STUDENT" ) ,
+                line ( "existing" , "fresh@example.com" , "STUDENT" ) );
+
+        assertThat ( result.processed ( ) ).isEqualTo ( 5 );
+        assertThat ( result.imported ( ) ).isEqualTo ( 1 );
+        assertThat ( result.failures ( ) )
+                .extracting ( UserImportResultDto.Failure::line , UserImportResultDto.Failure::reason )
+                .containsExactly (
+                        tuple ( 3L , "Email appears more than once in the file" ) ,
+                        tuple ( 4L , "Username appears more than once in the file" ) ,
+                        tuple ( 5L , ErrorCode.EMAIL_ALREADY_EXISTS.toString ( ) ) ,
+                        tuple ( 6L , ErrorCode.USER_ALREADY_EXISTS.toString ( ) ) );
+        assertThat ( inserts ).containsExactly ( List.of ( "ann@example.com" ) );
+    }
+
+    @Test
+    void conflictWithAConcurrentSignupIsIsolatedByRetryingInHalves() {
+        createdDuringImport.add ( "user5@example.com" );
+
+        String[] lines = IntStream.range ( 0 , 8 )
+                .mapToObj ( i -> line ( "user" + i , "user" + i + "@example.com" , "STUDENT" ) )
+                .toArray ( String[]::new );
+        UserImportResultDto result = importCsv ( HEADER , lines );
+
+        assertThat ( result.imported ( ) ).isEqualTo ( 7 );
+        assertThat ( result.failures ( ) )
+                .extracting ( UserImportResultDto.Failure::line , UserImportResultDto.Failure::email ,
+                        UserImportResultDto.Failure::reason )
+                .containsExactly ( tuple ( 7L , "user5@example.com" , "Conflicts with a user created during the import" ) );
+        // Only the halves holding the conflict are split again: 8, 4 + 4, 2 + 2, 1 + 1.
+        assertThat ( inserts ).extracting ( List::size ).containsExactly ( 8 , 4 , 4 , 2 , 1 , 1 , 2 );
+        assertThat ( inserts.stream ( ).filter ( emails -> !emails.contains ( "user5@example.com" ) )
+                .flatMap ( List::stream ).collect ( Collectors.toSet ( ) ) ).hasSize ( 7 );
+    }
+
+    private UserImportResultDto importCsv(String header , String... lines) {
+        String csv = header + "\n" + String.join ( "\n" , lines ) + "\n";
+        return service.importUsers ( new ByteArrayInputStream ( csv.getBytes ( StandardCharsets.UTF_8 ) ) ,
+                UserImportService.Format.CSV );
+    }
+
+    private static String line(String userName , String email , String role) {
+        return String.join ( "," , userName , email , PASSWORD , "First" , "Last" , role );
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Import throughput at the production BCrypt strength, with the repository mocked out so only
+ * parsing, validation and hashing are timed: one hashing thread against the default of one per
+ * core, and what each rate means for a 100,000-user file.
+ * <p>
+ * {@code mvn test -Dtest=UserImportThroughputBenchmarkTest -Dbenchmarks=true}
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+
+class UserImportThroughputBenchmarkTest {
+
+    private static final int USERS = 1_000;
+    private static final int STRENGTH = 10;
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory ( ).getValidator ( );
+
+    @Test
+    void hashingThreadsScaleTheImport() {
+        double single = usersPerSecond ( 1 );
+        double perCore = usersPerSecond ( 0 );
+
+        System.out.printf ( "BCrypt %d: 1 thread %.0f users/s (100k in %.0f min) | %d threads %.0f users/s (100k in %.0f min)%n" ,
+                STRENGTH , single , 100_000 / single / 60 ,
+                Runtime.getRuntime ( ).availableProcessors ( ) , perCore , 100_000 / perCore / 60 );
+
+        if (Runtime.getRuntime ( ).availableProcessors ( ) > 1) {
+            assertThat ( perCore ).isGreaterThan ( single * 1.5 );
+        }
+    }
+
+    private double usersPerSecond(int hashingThreads) {
+        UserRepository userRepository = mock ( UserRepository.class );
+        when ( userRepository.saveAll ( any ( ) ) ).thenAnswer ( invocation -> invocation.getArgument ( 0 ) );
+
+        UserImportService service = new UserImportService ( userRepository , new UserMapper ( ) ,
+                new BCryptPasswordEncoder ( STRENGTH ) , validator , new ObjectMapper ( ) ,
+                mock ( PlatformTransactionManager.class ) , hashingThreads , 1 , 30 );
+        try {
+            StringBuilder csv = new StringBuilder ( "username,email,password,firstname,lastname,role\n" );
+            for (int i = 0; i < USERS; i++) {
+                csv.append ( "user" ).append ( i ).append ( ",user" ).append ( i )
+                        .append ( "@example.com,Secret@1234,First,Last,STUDENT\n" );
+            }
+
+            long start = System.nanoTime ( );
+            UserImportResultDto result = service.importUsers (
+                    new ByteArrayInputStream ( csv.toString ( ).getBytes ( StandardCharsets.UTF_8 ) ) ,
+                    UserImportService.Format.CSV );
+            double seconds = (System.nanoTime ( ) - start) / 1e9;
+
+            assertThat ( result.imported ( ) ).isEqualTo ( USERS );
+            return USERS / seconds;
+        } finally {
+            service.destroy ( );
+        }
+    }
+}